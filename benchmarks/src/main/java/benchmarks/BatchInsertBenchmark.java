@@ -0,0 +1,97 @@
+package benchmarks;
+
+import dao.impl.GenericDAOImp;
+import dao.impl.GradeDAOImp;
+import dao.interfaces.GenericDAO;
+import dao.interfaces.GradeDAO;
+import models.Grade;
+import models.StudentModule;
+import org.openjdk.jmh.annotations.*;
+import util.HibernateUtil;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Alta de las notas de una clase entera (classSize notas, cada una en una matrícula al azar):
+ * una transacción por nota, todas en una transacción con save, y GradeDAO.saveAll (una transacción,
+ * INSERT en lotes JDBC y un solo cambio del resumen de cada matrícula).
+ *
+ * saveAllSequence y saveAllIdentity comparan las dos estrategias de ID con GenericDAO.saveAll, sin los
+ * resúmenes: las mismas notas con la secuencia por bloques de models.Grade (INSERT en lotes) y con
+ * AUTO_INCREMENT en IdentityGrade (un INSERT por nota, que Hibernate ejecuta para conocer su ID)
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 3)
+@Fork(1)
+@State(Scope.Thread)
+public class BatchInsertBenchmark {
+
+    @Param("30")
+    public int classSize;
+
+    private final GradeDAO gradeDAO = new GradeDAOImp();
+    private final GenericDAO<Grade, Integer> sequenceDAO = new GenericDAOImp<>(Grade.class) {
+    };
+    private final GenericDAO<IdentityGrade, Integer> identityDAO = new GenericDAOImp<>(IdentityGrade.class) {
+    };
+    private final Random random = new Random();
+
+    @Benchmark
+    public List<Grade> saveOneByOne(SeededDatabase db) {
+        List<Grade> grades = newGrades(db);
+        for (Grade grade : grades) {
+            gradeDAO.save(grade);
+        }
+        return grades;
+    }
+
+    @Benchmark
+    public List<Grade> saveInOneTransaction(SeededDatabase db) {
+        List<Grade> grades = newGrades(db);
+        HibernateUtil.inTransaction(() -> {
+            for (Grade grade : grades) {
+                gradeDAO.save(grade);
+            }
+        });
+        return grades;
+    }
+
+    @Benchmark
+    public List<Grade> saveAll(SeededDatabase db) {
+        List<Grade> grades = newGrades(db);
+        gradeDAO.saveAll(grades);
+        return grades;
+    }
+
+    @Benchmark
+    public List<Grade> saveAllSequence(SeededDatabase db) {
+        List<Grade> grades = newGrades(db);
+        sequenceDAO.saveAll(grades);
+        return grades;
+    }
+
+    @Benchmark
+    public List<IdentityGrade> saveAllIdentity(SeededDatabase db) {
+        List<IdentityGrade> grades = new ArrayList<>(classSize);
+        for (Grade grade : newGrades(db)) {
+            grades.add(new IdentityGrade(grade.getStudentModule(), grade.getGrade()));
+        }
+        identityDAO.saveAll(grades);
+        return grades;
+    }
+
+    private List<Grade> newGrades(SeededDatabase db) {
+        List<Grade> grades = new ArrayList<>(classSize);
+        for (int i = 0; i < classSize; i++) {
+            StudentModule enrollment = new StudentModule();
+            enrollment.setId(db.randomEnrollmentId());
+            grades.add(new Grade(enrollment, BenchmarkDatabase.randomGrade(random)));
+        }
+        return grades;
+    }
+}
@@ -0,0 +1,131 @@
+package benchmarks;
+
+import dao.impl.GradeDAOImp;
+import models.Grade;
+import models.Module;
+import models.Student;
+import models.StudentModule;
+import models.User;
+import models.UserType;
+import org.hibernate.StatelessSession;
+import org.hibernate.Transaction;
+import util.HibernateUtil;
+
+import java.math.BigDecimal;
+import java.util.Random;
+
+/**
+ * Base de datos H2 en memoria (modo MySQL) para los benchmarks: el perfil embedded de HibernateUtil,
+ * sin sus datos de ejemplo. El resto de la configuración es la de hibernate.cfg.xml,
+ * así se mide la misma configuración que usa la aplicación.
+ */
+final class BenchmarkDatabase {
+
+    private static final String[] FIRST_NAMES = {
+            "Lucía", "Hugo", "Martina", "Mateo", "Sofía", "Martín", "María", "Lucas", "Julia", "Leo",
+            "Paula", "Daniel", "Valeria", "Alejandro", "Emma", "Pablo", "Daniela", "Manuel", "Carla", "Álvaro"
+    };
+
+    private static final String[] LAST_NAMES = {
+            "García", "Rodríguez", "González", "Fernández", "López", "Martínez", "Sánchez", "Pérez", "Gómez",
+            "Martín", "Jiménez", "Ruiz", "Hernández", "Díaz", "Moreno", "Muñoz", "Álvarez", "Romero", "Alonso", "Gutiérrez"
+    };
+
+    // Palabras completas y principios de palabra, como se escriben en un buscador
+    static final String[] SEARCH_TERMS = {"garcía", "mart", "lucía", "fernández", "rod", "gómez", "álvaro", "muñ"};
+
+    private BenchmarkDatabase() {
+    }
+
+    /**
+     * Debe llamarse antes del primer uso de HibernateUtil
+     */
+    static void configure() {
+        System.setProperty("app.profile", "embedded");
+        // Los datos los crea seed(); sin los de ejemplo del perfil
+        System.setProperty("hibernate.hbm2ddl.import_files", "");
+        System.setProperty("hibernate.show_sql", "false");
+    }
+
+    /**
+     * Rellena la base de datos: cada alumno matriculado en todos los módulos
+     * con gradesPerEnrollment notas en cada uno (siempre los mismos datos para los mismos tamaños)
+     */
+    static Dataset seed(int students, int modules, int gradesPerEnrollment) {
+        Random random = new Random(42);
+        int[] moduleIds = new int[modules];
+        int[] enrollmentIds = new int[students * modules];
+        String[] usernames = new String[students];
+        createIdentityGradesTable();
+
+        try (StatelessSession session = HibernateUtil.getSessionFactory().openStatelessSession()) {
+            Transaction transaction = session.beginTransaction();
+
+            Module[] created = new Module[modules];
+            for (int m = 0; m < modules; m++) {
+                created[m] = new Module("Módulo " + m, "2º DAM", 4 + m % 4);
+                session.insert(created[m]);
+                moduleIds[m] = created[m].getId();
+            }
+
+            int enrollment = 0;
+            for (int s = 0; s < students; s++) {
+                usernames[s] = "alumno" + s;
+                String lastName = LAST_NAMES[(s / FIRST_NAMES.length) % LAST_NAMES.length] + " "
+                        + LAST_NAMES[(s * 7 + 3) % LAST_NAMES.length];
+                User user = new User(usernames[s], password(usernames[s]), FIRST_NAMES[s % FIRST_NAMES.length],
+                        lastName, UserType.ESTUDIANTE);
+                session.insert(user);
+
+                Student student = new Student(user, "2º DAM", s % 2 == 0 ? "A" : "B");
+                session.insert(student);
+
+                for (Module module : created) {
+                    StudentModule studentModule = new StudentModule(student, module);
+                    session.insert(studentModule);
+                    enrollmentIds[enrollment++] = studentModule.getId();
+
+                    for (int g = 0; g < gradesPerEnrollment; g++) {
+                        session.insert(new Grade(studentModule, randomGrade(random)));
+                    }
+                }
+            }
+
+            transaction.commit();
+        }
+
+        new GradeDAOImp().rebuildAggregates();
+        return new Dataset(moduleIds, enrollmentIds, usernames);
+    }
+
+    /**
+     * Tabla de IdentityGrade: la de las notas (V1 y V5), sin secuencia. Las migraciones no la conocen
+     */
+    private static void createIdentityGradesTable() {
+        HibernateUtil.inTransaction(() -> HibernateUtil.getCurrentSession().createNativeMutationQuery("""
+                CREATE TABLE IF NOT EXISTS identity_grades (
+                    id INTEGER NOT NULL AUTO_INCREMENT,
+                    id_student_module INTEGER NOT NULL,
+                    grade DECIMAL(4,2),
+                    notes VARCHAR(500),
+                    created_at DATETIME(6) NOT NULL,
+                    PRIMARY KEY (id),
+                    FOREIGN KEY (id_student_module) REFERENCES student_module (id)
+                )
+                """).executeUpdate());
+    }
+
+    static String password(String username) {
+        return "hash-" + username;
+    }
+
+    static BigDecimal randomGrade(Random random) {
+        return BigDecimal.valueOf(random.nextInt(1001), 2);
+    }
+
+    /**
+     * IDs generados al rellenar la base de datos
+     */
+    record Dataset(int[] moduleIds, int[] enrollmentIds, String[] usernames) {
+    }
+}
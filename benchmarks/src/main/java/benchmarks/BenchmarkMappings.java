@@ -0,0 +1,26 @@
+package benchmarks;
+
+import org.hibernate.boot.ResourceStreamLocator;
+import org.hibernate.boot.spi.AdditionalMappingContributions;
+import org.hibernate.boot.spi.AdditionalMappingContributor;
+import org.hibernate.boot.spi.InFlightMetadataCollector;
+import org.hibernate.boot.spi.MetadataBuildingContext;
+
+/**
+ * Entidades que solo existen en los benchmarks. HibernateUtil registra las de hibernate.cfg.xml;
+ * estas las añade Hibernate al arrancar porque la clase está en
+ * META-INF/services/org.hibernate.boot.spi.AdditionalMappingContributor
+ */
+public class BenchmarkMappings implements AdditionalMappingContributor {
+
+    @Override
+    public String getContributorName() {
+        return "benchmarks";
+    }
+
+    @Override
+    public void contribute(AdditionalMappingContributions contributions, InFlightMetadataCollector metadata,
+                           ResourceStreamLocator resources, MetadataBuildingContext buildingContext) {
+        contributions.contributeEntity(IdentityGrade.class);
+    }
+}
@@ -0,0 +1,44 @@
+package benchmarks;
+
+import dao.impl.GradeDAOImp;
+import dao.interfaces.GradeDAO;
+import models.Grade;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Consultas más usadas de GradeDAO
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 3)
+@Fork(1)
+@State(Scope.Benchmark)
+public class GradeDAOBenchmark {
+
+    private final GradeDAO gradeDAO = new GradeDAOImp();
+
+    @Benchmark
+    public List<Grade> findByStudentModule(SeededDatabase db) {
+        return gradeDAO.findByStudentModule(db.randomEnrollmentId());
+    }
+
+    @Benchmark
+    public BigDecimal calculateAverageGrade(SeededDatabase db) {
+        return gradeDAO.calculateAverageGrade(db.randomEnrollmentId());
+    }
+
+    @Benchmark
+    public List<Grade> findByModule(SeededDatabase db) {
+        return gradeDAO.findByModule(db.randomModuleId());
+    }
+
+    @Benchmark
+    public long countPassedByModule(SeededDatabase db) {
+        return gradeDAO.countPassedByModule(db.randomModuleId());
+    }
+}
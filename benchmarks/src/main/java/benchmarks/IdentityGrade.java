@@ -0,0 +1,47 @@
+package benchmarks;
+
+import jakarta.persistence.*;
+import models.StudentModule;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Las mismas columnas que models.Grade, con IDs AUTO_INCREMENT (GenerationType.IDENTITY) en lugar
+ * de la secuencia por bloques: la otra mitad de la comparación de BatchInsertBenchmark.
+ * Tabla propia (identity_grades, ver BenchmarkDatabase), registrada por BenchmarkMappings
+ */
+@Entity
+@Table(name = "identity_grades")
+public class IdentityGrade {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id")
+    private Integer id;
+
+    @Column(name = "grade", precision = 4, scale = 2)
+    private BigDecimal grade;
+
+    @Column(name = "notes", length = 500)
+    private String notes;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "id_student_module", nullable = false)
+    private StudentModule studentModule;
+
+    protected IdentityGrade() {
+    }
+
+    IdentityGrade(StudentModule studentModule, BigDecimal grade) {
+        this.studentModule = studentModule;
+        this.grade = grade;
+    }
+
+    Integer getId() {
+        return id;
+    }
+}
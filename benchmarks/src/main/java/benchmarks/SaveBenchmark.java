@@ -0,0 +1,48 @@
+package benchmarks;
+
+import dao.impl.GradeDAOImp;
+import dao.impl.ModuleDAOImp;
+import dao.interfaces.GradeDAO;
+import dao.interfaces.ModuleDAO;
+import models.Grade;
+import models.Module;
+import models.StudentModule;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Altas: GenericDAOImp.save tal cual (Module) y GradeDAOImp.save, que además actualiza el resumen de notas
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 3)
+@Fork(1)
+@State(Scope.Thread)
+public class SaveBenchmark {
+
+    private final ModuleDAO moduleDAO = new ModuleDAOImp();
+    private final GradeDAO gradeDAO = new GradeDAOImp();
+    private final Random random = new Random();
+    private long sequence;
+
+    // db no se usa, pero su @Setup es el que configura la base de datos del perfil embedded y la llena
+    @Benchmark
+    public Module saveModule(SeededDatabase db) {
+        Module module = new Module("Benchmark " + Thread.currentThread().threadId() + "-" + sequence++, "2º DAM", 4);
+        moduleDAO.save(module);
+        return module;
+    }
+
+    @Benchmark
+    public Grade saveGrade(SeededDatabase db) {
+        StudentModule enrollment = new StudentModule();
+        enrollment.setId(db.randomEnrollmentId());
+
+        Grade grade = new Grade(enrollment, BenchmarkDatabase.randomGrade(random));
+        gradeDAO.save(grade);
+        return grade;
+    }
+}
@@ -0,0 +1,63 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import util.HibernateUtil;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Estado compartido por los benchmarks: la base de datos rellenada con los tamaños indicados.
+ * Cada fork de JMH es una JVM nueva, así que cada combinación de tamaños parte de cero
+ */
+@State(Scope.Benchmark)
+public class SeededDatabase {
+
+    @Param("500")
+    public int students;
+
+    @Param("8")
+    public int modules;
+
+    @Param("10")
+    public int gradesPerEnrollment;
+
+    private BenchmarkDatabase.Dataset data;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        BenchmarkDatabase.configure();
+        data = BenchmarkDatabase.seed(students, modules, gradesPerEnrollment);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        HibernateUtil.shutdown();
+    }
+
+    int randomEnrollmentId() {
+        return pick(data.enrollmentIds());
+    }
+
+    int randomModuleId() {
+        return pick(data.moduleIds());
+    }
+
+    String randomUsername() {
+        String[] usernames = data.usernames();
+        return usernames[ThreadLocalRandom.current().nextInt(usernames.length)];
+    }
+
+    String randomSearchTerm() {
+        String[] terms = BenchmarkDatabase.SEARCH_TERMS;
+        return terms[ThreadLocalRandom.current().nextInt(terms.length)];
+    }
+
+    private static int pick(int[] ids) {
+        return ids[ThreadLocalRandom.current().nextInt(ids.length)];
+    }
+}
@@ -0,0 +1,43 @@
+package benchmarks;
+
+import dao.impl.UserDAOImp;
+import dao.interfaces.UserDAO;
+import models.User;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Inicio de sesión y búsqueda de usuarios por nombre: LIKE sobre toda la tabla (searchByName)
+ * frente al índice de texto completo (fullTextSearch; en H2, el índice en memoria)
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 3)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UserDAOBenchmark {
+
+    // Resultados que mostraría un buscador
+    private static final int SEARCH_LIMIT = 20;
+
+    private final UserDAO userDAO = new UserDAOImp();
+
+    @Benchmark
+    public User validateLogin(SeededDatabase db) {
+        String username = db.randomUsername();
+        return userDAO.validateLogin(username, BenchmarkDatabase.password(username));
+    }
+
+    @Benchmark
+    public List<User> searchByNameLike(SeededDatabase db) {
+        return userDAO.searchByName(db.randomSearchTerm());
+    }
+
+    @Benchmark
+    public List<User> fullTextSearch(SeededDatabase db) {
+        return userDAO.fullTextSearch(db.randomSearchTerm(), SEARCH_LIMIT);
+    }
+}
@@ -0,0 +1,109 @@
+package dao.async;
+
+import dao.dto.Page;
+import dao.interfaces.GenericDAO;
+import util.DatabaseExecutor;
+import util.HibernateUtil;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Versión asíncrona de un DAO: cada llamada se ejecuta en DatabaseExecutor
+ * y devuelve un CompletableFuture. Los futuros se completan en un hilo virtual,
+ * así que para tocar la interfaz hay que continuar en FxExecutor.
+ * @param <T> Tipo de entidad
+ * @param <ID> Tipo del identificador
+ * @param <D> DAO síncrono al que se delega
+ */
+public abstract class AsyncDAO<T, ID, D extends GenericDAO<T, ID>> {
+
+    protected final D dao;
+
+    protected AsyncDAO(D dao) {
+        this.dao = dao;
+    }
+
+    public CompletableFuture<Void> save(T entity) {
+        return run(d -> d.save(entity));
+    }
+
+    public CompletableFuture<Void> saveAll(Collection<? extends T> entities) {
+        return run(d -> d.saveAll(entities));
+    }
+
+    public CompletableFuture<Void> update(T entity) {
+        return run(d -> d.update(entity));
+    }
+
+    public CompletableFuture<Void> delete(T entity) {
+        return run(d -> d.delete(entity));
+    }
+
+    public CompletableFuture<Void> deleteById(ID id) {
+        return run(d -> d.deleteById(id));
+    }
+
+    public CompletableFuture<T> findById(ID id) {
+        return call(d -> d.findById(id));
+    }
+
+    public CompletableFuture<List<T>> findAll() {
+        return call(GenericDAO::findAll);
+    }
+
+    public CompletableFuture<Page<T>> findPage(String pageToken, int pageSize) {
+        return call(d -> d.findPage(pageToken, pageSize));
+    }
+
+    public CompletableFuture<Long> count() {
+        return call(GenericDAO::count);
+    }
+
+    /**
+     * Ejecuta en segundo plano cualquier operación del DAO síncrono
+     * @param operation Operación a ejecutar
+     * @return Futuro con su resultado
+     */
+    public <R> CompletableFuture<R> call(Function<D, R> operation) {
+        return DatabaseExecutor.supply(() -> operation.apply(dao));
+    }
+
+    /**
+     * Igual que call(Function) para operaciones sin resultado
+     */
+    public CompletableFuture<Void> run(Consumer<D> operation) {
+        return DatabaseExecutor.run(() -> operation.accept(dao));
+    }
+
+    /**
+     * Igual que call(Function), pero todas las operaciones de operation en una sola unidad de trabajo
+     * (ver HibernateUtil.inTransaction)
+     * @param operation Operaciones a ejecutar
+     * @return Futuro con su resultado
+     */
+    public <R> CompletableFuture<R> callInTransaction(Function<D, R> operation) {
+        return inTransaction(() -> operation.apply(dao));
+    }
+
+    /**
+     * Ejecuta varias operaciones de DAO (síncronos) en segundo plano como una
+     * sola unidad de trabajo (ver HibernateUtil.inTransaction)
+     * @param work Operaciones a ejecutar
+     * @return Futuro con el resultado de work
+     */
+    public static <R> CompletableFuture<R> inTransaction(Supplier<R> work) {
+        return DatabaseExecutor.supply(() -> HibernateUtil.inTransaction(work));
+    }
+
+    /**
+     * Igual que inTransaction(Supplier) para operaciones sin resultado
+     */
+    public static CompletableFuture<Void> inTransaction(Runnable work) {
+        return DatabaseExecutor.run(() -> HibernateUtil.inTransaction(work));
+    }
+}
@@ -0,0 +1,93 @@
+package dao.async;
+
+import dao.impl.GradeDAOImp;
+import dao.interfaces.GradeDAO;
+import dao.metrics.DaoMetrics;
+import models.Grade;
+import models.GradeAggregate;
+import models.StudentModule;
+import util.HibernateUtil;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Versión asíncrona de GradeDAO
+ */
+public class AsyncGradeDAO extends AsyncDAO<Grade, Integer, GradeDAO> {
+
+    public AsyncGradeDAO() {
+        this(DaoMetrics.instrument(GradeDAO.class, new GradeDAOImp()));
+    }
+
+    public AsyncGradeDAO(GradeDAO dao) {
+        super(dao);
+    }
+
+    public CompletableFuture<List<Grade>> findByStudentModule(Integer studentModuleId) {
+        return call(d -> d.findByStudentModule(studentModuleId));
+    }
+
+    public CompletableFuture<Void> deleteByStudentModule(Integer studentModuleId) {
+        return run(d -> d.deleteByStudentModule(studentModuleId));
+    }
+
+    // Escrituras que devuelven el resumen de la matrícula ya actualizado, leído en la misma transacción
+
+    /**
+     * Añade una nota a la matrícula
+     * @return Resumen de la matrícula con la nota nueva
+     */
+    public CompletableFuture<GradeAggregate> addGrade(Integer studentModuleId, BigDecimal value, String notes) {
+        return callInTransaction(d -> {
+            // Solo hace falta el ID de la matrícula: una referencia, sin leerla
+            StudentModule enrollment = HibernateUtil.getCurrentSession().getReference(StudentModule.class,
+                    studentModuleId);
+            Grade grade = new Grade(enrollment, value);
+            grade.setNotes(notes);
+            d.save(grade);
+            return d.findAggregate(studentModuleId);
+        });
+    }
+
+    /**
+     * Cambia el valor y las observaciones de una nota
+     * @return Resumen de la matrícula de la nota, o null si la nota ya no existe
+     */
+    public CompletableFuture<GradeAggregate> updateGrade(Integer gradeId, BigDecimal value, String notes) {
+        return callInTransaction(d -> {
+            // Leída en la misma sesión: el UPDATE no vuelve a leer la fila
+            Grade grade = d.findById(gradeId);
+            if (grade == null) {
+                return null;
+            }
+            grade.setGrade(value);
+            grade.setNotes(notes);
+            d.update(grade);
+            return d.findAggregate(grade.getStudentModule().getId());
+        });
+    }
+
+    /**
+     * Borra una nota de la matrícula
+     * @return Resumen de la matrícula sin esa nota
+     */
+    public CompletableFuture<GradeAggregate> deleteGrade(Integer gradeId, Integer studentModuleId) {
+        return callInTransaction(d -> {
+            d.deleteById(gradeId);
+            return d.findAggregate(studentModuleId);
+        });
+    }
+
+    /**
+     * Borra todas las notas de la matrícula
+     * @return Resumen de la matrícula, ya vacío
+     */
+    public CompletableFuture<GradeAggregate> deleteGrades(Integer studentModuleId) {
+        return callInTransaction(d -> {
+            d.deleteByStudentModule(studentModuleId);
+            return d.findAggregate(studentModuleId);
+        });
+    }
+}
@@ -0,0 +1,26 @@
+package dao.async;
+
+import dao.impl.StudentDAOImp;
+import dao.interfaces.StudentDAO;
+import dao.metrics.DaoMetrics;
+import models.Student;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Versión asíncrona de StudentDAO
+ */
+public class AsyncStudentDAO extends AsyncDAO<Student, Integer, StudentDAO> {
+
+    public AsyncStudentDAO() {
+        this(DaoMetrics.instrument(StudentDAO.class, new StudentDAOImp()));
+    }
+
+    public AsyncStudentDAO(StudentDAO dao) {
+        super(dao);
+    }
+
+    public CompletableFuture<Student> findByUserId(Integer userId) {
+        return call(d -> d.findByUserId(userId));
+    }
+}
@@ -0,0 +1,35 @@
+package dao.async;
+
+import dao.dto.GradebookEntry;
+import dao.dto.StudentGradesOverview;
+import dao.impl.StudentModuleDAOImp;
+import dao.interfaces.StudentModuleDAO;
+import dao.metrics.DaoMetrics;
+import models.StudentModule;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Versión asíncrona de StudentModuleDAO
+ */
+public class AsyncStudentModuleDAO extends AsyncDAO<StudentModule, Integer, StudentModuleDAO> {
+
+    public AsyncStudentModuleDAO() {
+        this(DaoMetrics.instrument(StudentModuleDAO.class, new StudentModuleDAOImp()));
+    }
+
+    public AsyncStudentModuleDAO(StudentModuleDAO dao) {
+        super(dao);
+    }
+
+    public CompletableFuture<List<GradebookEntry>> findGradebookByModule(Integer moduleId) {
+        return call(d -> d.findGradebookByModule(moduleId));
+    }
+
+    public CompletableFuture<StudentGradesOverview> findGradesOverviewByStudent(Integer studentId,
+                                                                               BigDecimal passingGrade) {
+        return call(d -> d.findGradesOverviewByStudent(studentId, passingGrade));
+    }
+}
@@ -0,0 +1,32 @@
+package dao.async;
+
+import dao.impl.TeacherDAOImp;
+import dao.interfaces.TeacherDAO;
+import dao.metrics.DaoMetrics;
+import models.Module;
+import models.Teacher;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Versión asíncrona de TeacherDAO
+ */
+public class AsyncTeacherDAO extends AsyncDAO<Teacher, Integer, TeacherDAO> {
+
+    public AsyncTeacherDAO() {
+        this(DaoMetrics.instrument(TeacherDAO.class, new TeacherDAOImp()));
+    }
+
+    public AsyncTeacherDAO(TeacherDAO dao) {
+        super(dao);
+    }
+
+    public CompletableFuture<Teacher> findByUserId(Integer userId) {
+        return call(d -> d.findByUserId(userId));
+    }
+
+    public CompletableFuture<List<Module>> getModulesByTeacher(Integer teacherId) {
+        return call(d -> d.getModulesByTeacher(teacherId));
+    }
+}
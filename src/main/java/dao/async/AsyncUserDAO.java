@@ -0,0 +1,31 @@
+package dao.async;
+
+import dao.dto.SessionPrincipal;
+import dao.impl.UserDAOImp;
+import dao.interfaces.UserDAO;
+import dao.metrics.DaoMetrics;
+import models.User;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Versión asíncrona de UserDAO
+ */
+public class AsyncUserDAO extends AsyncDAO<User, Integer, UserDAO> {
+
+    public AsyncUserDAO() {
+        this(DaoMetrics.instrument(UserDAO.class, new UserDAOImp()));
+    }
+
+    public AsyncUserDAO(UserDAO dao) {
+        super(dao);
+    }
+
+    public CompletableFuture<User> validateLogin(String username, String passwordHash) {
+        return call(d -> d.validateLogin(username, passwordHash));
+    }
+
+    public CompletableFuture<SessionPrincipal> login(String username, String passwordHash) {
+        return call(d -> d.login(username, passwordHash));
+    }
+}
@@ -0,0 +1,134 @@
+package dao.async;
+
+import dao.impl.GradeDAOImp;
+import dao.impl.StudentModuleDAOImp;
+import dao.impl.UserDAOImp;
+import dao.interfaces.GradeDAO;
+import dao.interfaces.StudentModuleDAO;
+import dao.interfaces.UserDAO;
+import dao.metrics.DaoMetrics;
+import util.HibernateUtil;
+
+import java.math.BigDecimal;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Arranque de la base de datos en segundo plano mientras se muestra la pantalla de inicio de sesión.
+ *
+ * En un hilo aparte construye el SessionFactory (metadatos, comprobación del esquema, conexión con el servidor)
+ * y avisa con ready(); después abre las conexiones mínimas del pool y lanza una vez, con IDs que no existen,
+ * las consultas del inicio de sesión y de las primeras pantallas para que Hibernate tenga ya traducido su HQL
+ * y el driver sus sentencias preparadas. Así, tras entrar, el tiempo se va en los datos y no en el arranque.
+ *
+ * El botón de entrar espera a ready() antes de validar el usuario. Si el arranque falla, ready() termina con
+ * la excepción (por ejemplo, el servidor de MySQL no está levantado).
+ */
+public final class DatabaseBootstrap {
+
+    // IDs y valores que no existen: las consultas se preparan sin traer datos
+    private static final int MISSING_ID = -1;
+    private static final BigDecimal PASS_GRADE = new BigDecimal("5.0");
+
+    private static final AtomicBoolean started = new AtomicBoolean();
+    private static final CompletableFuture<Void> ready = new CompletableFuture<>();
+
+    private DatabaseBootstrap() {
+    }
+
+    /**
+     * Empieza el arranque (una sola vez; las siguientes llamadas no hacen nada)
+     */
+    public static void start() {
+        if (!started.compareAndSet(false, true)) {
+            return;
+        }
+        Thread.ofPlatform()
+                .name("db-bootstrap")
+                .daemon(true)
+                .start(DatabaseBootstrap::bootstrap);
+    }
+
+    /**
+     * Futuro que se completa cuando el SessionFactory está listo (lo arranca si nadie lo había hecho).
+     * Se completa en el hilo de arranque: para tocar la interfaz hay que continuar en FxExecutor
+     */
+    public static CompletableFuture<Void> ready() {
+        start();
+        return ready;
+    }
+
+    public static boolean isReady() {
+        return ready.isDone() && !ready.isCompletedExceptionally();
+    }
+
+    /**
+     * Cierra el SessionFactory y el pool al salir de la aplicación, si se llegaron a crear
+     */
+    public static void shutdown() {
+        if (isReady()) {
+            HibernateUtil.shutdown();
+        }
+    }
+
+    private static void bootstrap() {
+        long start = System.nanoTime();
+        try {
+            HibernateUtil.getSessionFactory();
+        } catch (Throwable e) {
+            ready.completeExceptionally(new RuntimeException("Error al conectar con la base de datos: "
+                    + rootMessage(e), e));
+            return;
+        }
+        long factoryMillis = elapsedMillis(start);
+        ready.complete(null);
+
+        // A partir de aquí los fallos no impiden entrar: solo se pierde la preparación
+        long warmUpStart = System.nanoTime();
+        int connections = 0;
+        try {
+            connections = HibernateUtil.warmUpPool();
+        } catch (RuntimeException e) {
+            System.err.println("(Depuración) " + e.getMessage());
+        }
+        warmUpQueries();
+
+        System.out.println("Base de datos lista en " + factoryMillis + " ms (preparadas " + connections
+                + " conexiones y las consultas de inicio en " + elapsedMillis(warmUpStart) + " ms)");
+    }
+
+    // Las mismas consultas que lanzan el inicio de sesión y las primeras pantallas de profesor y alumno.
+    // Con los DAO instrumentados como en el resto de la aplicación: estas llamadas también salen en las métricas
+
+    private static void warmUpQueries() {
+        UserDAO userDAO = DaoMetrics.instrument(UserDAO.class, new UserDAOImp());
+        StudentModuleDAO studentModuleDAO = DaoMetrics.instrument(StudentModuleDAO.class, new StudentModuleDAOImp());
+        GradeDAO gradeDAO = DaoMetrics.instrument(GradeDAO.class, new GradeDAOImp());
+
+        warmUp(() -> userDAO.login("", ""));
+        warmUp(() -> studentModuleDAO.findGradebookByModule(MISSING_ID));
+        warmUp(() -> studentModuleDAO.findGradesOverviewByStudent(MISSING_ID, PASS_GRADE));
+        warmUp(() -> gradeDAO.findByStudentModule(MISSING_ID));
+    }
+
+    private static void warmUp(Runnable query) {
+        try {
+            query.run();
+        } catch (RuntimeException e) {
+            System.err.println("(Depuración) Error al preparar consulta: " + e.getMessage());
+        }
+    }
+
+    private static long elapsedMillis(long startNanos) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    }
+
+    private static String rootMessage(Throwable error) {
+        Throwable cause = error;
+        while (cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause.getMessage() == null ? cause.toString() : cause.getMessage();
+    }
+}
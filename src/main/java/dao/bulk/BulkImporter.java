@@ -0,0 +1,561 @@
+package dao.bulk;
+
+import dao.dto.ImportReport;
+import dao.impl.GradeDAOImp;
+import models.Grade;
+import models.GradeAggregate;
+import models.Module;
+import models.Student;
+import models.StudentModule;
+import models.User;
+import models.UserType;
+import org.hibernate.StatelessSession;
+import org.hibernate.Transaction;
+import util.HibernateUtil;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Importación masiva desde CSV de usuarios, alumnos, matrículas y notas.
+ *
+ * El fichero se lee fila a fila y se guarda por lotes de batchSize filas, cada lote en su propia
+ * transacción sobre una StatelessSession (sin contexto de persistencia ni caché, así que la memoria
+ * no crece con el tamaño del fichero). Los nombres de usuario y de módulo se traducen a IDs con mapas
+ * en memoria cargados al empezar, sin ninguna consulta por fila.
+ *
+ * Las filas incorrectas no detienen la importación: se anotan en el informe con su línea.
+ * Si un lote falla al guardarse se repite fila a fila, para saber cuáles fallan y guardar el resto.
+ * Importar otra vez el mismo fichero no duplica nada: se saltan los usuarios que ya existen
+ * (por username), los alumnos (por usuario), las matrículas (por alumno y módulo) y las notas (por import_key).
+ *
+ * Columnas de cada fichero (las que van entre corchetes son opcionales):
+ * <pre>
+ * usuarios:   username, password_hash, first_name, last_name, user_type (PROFESOR o ESTUDIANTE)
+ * alumnos:    username, course, grade_group
+ * matrículas: username, module_name, [course]
+ * notas:      username, module_name, [course], grade, [notes], [import_key]
+ * </pre>
+ * Las columnas que no son de la lista se ignoran, así que el CSV que exporta el cuaderno de notas
+ * (export.GradebookExporter) se puede importar tal cual; sus filas sin grade ni notes son matrículas
+ * sin notas y se saltan.
+ * course solo hace falta si hay varios módulos con el mismo nombre. Si las notas no traen import_key
+ * se calcula a partir del nombre del fichero y del contenido de la fila, así que el mismo fichero
+ * tampoco se duplica, y una fila igual en otro fichero (otra nota con el mismo valor) no se salta.
+ */
+public class BulkImporter {
+
+    // Filas por transacción; se puede cambiar con -Dapp.import.batchSize
+    public static final int DEFAULT_BATCH_SIZE = Integer.getInteger("app.import.batchSize", 1000);
+
+    private static final BigDecimal MAX_GRADE = new BigDecimal("10");
+
+    private final int batchSize;
+
+    public BulkImporter() {
+        this(DEFAULT_BATCH_SIZE);
+    }
+
+    public BulkImporter(int batchSize) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("El tamaño de lote debe ser mayor que 0: " + batchSize);
+        }
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Importar usuarios (profesores o alumnos, sin sus datos de alumno)
+     */
+    public ImportReport importUsers(Reader csv) {
+        List<String> columns = List.of("username", "password_hash", "first_name", "last_name", "user_type");
+        return this.<User>importRows("usuarios", csv, columns, session -> {
+            Set<String> usernames = new HashSet<>(session.createSelectionQuery(
+                    "SELECT u.username FROM User u", String.class).getResultList());
+
+            return new RowHandler<User>() {
+                @Override
+                public User toEntity(CsvReader.Row row) {
+                    String username = required(row, "username");
+                    if (usernames.contains(username)) {
+                        return null;
+                    }
+                    User user = new User(username, required(row, "password_hash"), required(row, "first_name"),
+                            required(row, "last_name"), userType(required(row, "user_type")));
+                    // Solo si la fila es válida: si no, otra fila posterior con el mismo username se importa
+                    usernames.add(username);
+                    return user;
+                }
+
+                @Override
+                public void failed(User user) {
+                    usernames.remove(user.getUsername());
+                }
+            };
+        });
+    }
+
+    /**
+     * Importar los datos de alumno de usuarios ya existentes de tipo ESTUDIANTE
+     */
+    public ImportReport importStudents(Reader csv) {
+        return this.<Student>importRows("alumnos", csv, List.of("username", "course", "grade_group"), session -> {
+            Map<String, Integer> studentUsers = new HashMap<>();
+            Set<String> withStudent = new HashSet<>();
+            for (Object[] user : session.createSelectionQuery(
+                    "SELECT u.username, u.id, s.id FROM User u LEFT JOIN u.student s "
+                            + "WHERE u.userType = :type", Object[].class)
+                    .setParameter("type", UserType.ESTUDIANTE)
+                    .getResultList()) {
+                studentUsers.put((String) user[0], (Integer) user[1]);
+                if (user[2] != null) {
+                    withStudent.add((String) user[0]);
+                }
+            }
+
+            return new RowHandler<Student>() {
+                @Override
+                public Student toEntity(CsvReader.Row row) {
+                    String username = required(row, "username");
+                    Integer userId = studentUsers.get(username);
+                    if (userId == null) {
+                        throw new InvalidRowException("No existe ningún usuario ESTUDIANTE con username " + username);
+                    }
+                    if (withStudent.contains(username)) {
+                        return null;
+                    }
+                    User user = new User();
+                    user.setId(userId);
+                    user.setUsername(username);
+                    Student student = new Student(user, required(row, "course"), required(row, "grade_group"));
+                    withStudent.add(username);
+                    return student;
+                }
+
+                @Override
+                public void failed(Student student) {
+                    withStudent.remove(student.getUser().getUsername());
+                }
+            };
+        });
+    }
+
+    /**
+     * Importar matrículas de alumnos en módulos. Cada matrícula se guarda con su resumen de notas
+     * (GradeAggregate, vacío) en la misma transacción
+     */
+    public ImportReport importEnrollments(Reader csv) {
+        return importRows("matrículas", csv, List.of("username", "module_name"), session -> {
+            Map<String, Integer> students = studentIds(session);
+            ModuleLookup modules = new ModuleLookup(session);
+            Set<Long> enrolled = new HashSet<>(enrollmentIds(session).keySet());
+
+            return new RowHandler<StudentModule>() {
+                @Override
+                public StudentModule toEntity(CsvReader.Row row) {
+                    int studentId = student(students, required(row, "username"));
+                    int moduleId = modules.resolve(required(row, "module_name"), row.get("course"));
+                    if (!enrolled.add(pair(studentId, moduleId))) {
+                        return null;
+                    }
+                    Student student = new Student();
+                    student.setId(studentId);
+                    Module module = new Module();
+                    module.setId(moduleId);
+                    return new StudentModule(student, module);
+                }
+
+                @Override
+                public void failed(StudentModule enrollment) {
+                    enrolled.remove(pair(enrollment.getStudent().getId(), enrollment.getModule().getId()));
+                }
+
+                @Override
+                public void insert(StatelessSession session, List<StudentModule> enrollments) {
+                    session.insertMultiple(enrollments);
+                    List<GradeAggregate> aggregates = new ArrayList<>(enrollments.size());
+                    for (StudentModule enrollment : enrollments) {
+                        GradeAggregate aggregate = new GradeAggregate(enrollment);
+                        aggregate.setStudentModuleId(enrollment.getId());
+                        aggregates.add(aggregate);
+                    }
+                    session.insertMultiple(aggregates);
+                }
+            };
+        });
+    }
+
+    /**
+     * Importar notas de alumnos ya matriculados. Los resúmenes de notas (GradeAggregate) de las matrículas
+     * afectadas se recalculan en la transacción de cada lote
+     * @param source Nombre del fichero: forma parte de la clave de las filas sin import_key,
+     *               así que hay que usar el mismo para volver a importar un fichero
+     */
+    public ImportReport importGrades(Reader csv, String source) {
+        if (source == null || source.isBlank()) {
+            throw new IllegalArgumentException("Falta el nombre del fichero de notas");
+        }
+        return importRows("notas", csv, List.of("username", "module_name", "grade"), session -> {
+            Map<String, Integer> students = studentIds(session);
+            ModuleLookup modules = new ModuleLookup(session);
+            Map<Long, Integer> enrollments = enrollmentIds(session);
+            Map<String, Integer> occurrences = new HashMap<>();
+            Set<String> keysInFile = new HashSet<>();
+
+            return new RowHandler<Grade>() {
+                @Override
+                public Grade toEntity(CsvReader.Row row) {
+                    String username = required(row, "username");
+                    String moduleName = required(row, "module_name");
+                    String course = row.get("course");
+                    int studentId = student(students, username);
+                    int moduleId = modules.resolve(moduleName, course);
+                    Integer enrollmentId = enrollments.get(pair(studentId, moduleId));
+                    if (enrollmentId == null) {
+                        throw new InvalidRowException("El alumno " + username + " no está matriculado en " + moduleName);
+                    }
+
+                    String notes = row.get("notes");
+                    if (row.get("grade") == null && notes == null) {
+                        // Matrícula sin notas, como las escribe la exportación: no hay nada que guardar
+                        return null;
+                    }
+                    BigDecimal value = grade(required(row, "grade"));
+                    if (notes != null && notes.length() > 500) {
+                        throw new InvalidRowException("Las observaciones no pueden pasar de 500 caracteres");
+                    }
+
+                    String importKey = row.get("import_key");
+                    if (importKey == null) {
+                        // Filas idénticas en el mismo fichero se distinguen por su número de aparición
+                        String content = String.join("\u001F", source, username, moduleName, String.valueOf(course),
+                                value.toPlainString(), String.valueOf(notes));
+                        int occurrence = occurrences.merge(content, 1, Integer::sum);
+                        importKey = hash(content + "\u001F" + occurrence);
+                    } else if (importKey.length() > 64) {
+                        throw new InvalidRowException("import_key no puede pasar de 64 caracteres");
+                    }
+                    if (!keysInFile.add(importKey)) {
+                        return null;
+                    }
+
+                    StudentModule enrollment = new StudentModule();
+                    enrollment.setId(enrollmentId);
+                    Grade grade = new Grade(enrollment, value, notes);
+                    grade.setImportKey(importKey);
+                    return grade;
+                }
+
+                @Override
+                public List<Pending<Grade>> notSavedYet(StatelessSession session, List<Pending<Grade>> chunk) {
+                    // Notas de una importación anterior del mismo fichero
+                    Set<String> existing = new HashSet<>(session.createSelectionQuery(
+                                    "SELECT g.importKey FROM Grade g WHERE g.importKey IN :keys", String.class)
+                            .setParameter("keys", chunk.stream().map(p -> p.entity().getImportKey()).toList())
+                            .getResultList());
+                    if (existing.isEmpty()) {
+                        return chunk;
+                    }
+                    return chunk.stream().filter(p -> !existing.contains(p.entity().getImportKey())).toList();
+                }
+
+                @Override
+                public void insert(StatelessSession session, List<Grade> grades) {
+                    session.insertMultiple(grades);
+                    // Los resúmenes de sus matrículas, en la misma transacción que las notas
+                    Set<Integer> enrollmentIds = new HashSet<>();
+                    for (Grade grade : grades) {
+                        enrollmentIds.add(grade.getStudentModule().getId());
+                    }
+                    GradeDAOImp.rebuildAggregates(session, enrollmentIds);
+                }
+
+                @Override
+                public void failed(Grade grade) {
+                    keysInFile.remove(grade.getImportKey());
+                }
+            };
+        });
+    }
+
+    /**
+     * Recorre el CSV y guarda sus filas por lotes
+     * @param kind Qué se importa (para el informe)
+     * @param input Contenido del CSV
+     * @param requiredColumns Columnas que debe tener la cabecera
+     * @param handlerFactory Crea el traductor de filas a entidades (con los mapas de búsqueda ya cargados)
+     * @return Informe de la importación
+     */
+    private <E> ImportReport importRows(String kind, Reader input, List<String> requiredColumns,
+                                        Function<StatelessSession, RowHandler<E>> handlerFactory) {
+        Report report = new Report(kind);
+        try (CsvReader csv = new CsvReader(input);
+             StatelessSession session = HibernateUtil.getSessionFactory().openStatelessSession()) {
+            List<String> missing = requiredColumns.stream().filter(column -> !csv.hasColumn(column)).toList();
+            if (!missing.isEmpty()) {
+                throw new IllegalArgumentException("Faltan columnas en la cabecera: " + String.join(", ", missing));
+            }
+
+            RowHandler<E> handler = handlerFactory.apply(session);
+            List<Pending<E>> chunk = new ArrayList<>(batchSize);
+            for (CsvReader.Row row : csv) {
+                report.read++;
+                try {
+                    E entity = handler.toEntity(row);
+                    if (entity == null) {
+                        report.skipped++;
+                    } else {
+                        chunk.add(new Pending<>(row.line(), entity));
+                    }
+                } catch (InvalidRowException e) {
+                    report.error(row.line(), e.getMessage());
+                }
+
+                if (chunk.size() == batchSize) {
+                    saveChunk(session, handler, chunk, report);
+                    chunk.clear();
+                }
+            }
+            saveChunk(session, handler, chunk, report);
+        } catch (IOException | UncheckedIOException e) {
+            throw new RuntimeException("Error al leer el fichero de " + kind + ": " + e.getMessage(), e);
+        } catch (RuntimeException e) {
+            throw new RuntimeException("Error al importar " + kind + ": " + e.getMessage(), e);
+        }
+        return report.build();
+    }
+
+    private <E> void saveChunk(StatelessSession session, RowHandler<E> handler, List<Pending<E>> chunk, Report report) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        List<Pending<E>> pending = handler.notSavedYet(session, chunk);
+        report.skipped += chunk.size() - pending.size();
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        List<E> entities = pending.stream().map(Pending::entity).toList();
+        try {
+            inTransaction(session, () -> handler.insert(session, entities));
+            report.inserted += entities.size();
+        } catch (RuntimeException chunkError) {
+            // Se repite fila a fila: solo se pierden las que fallan
+            for (Pending<E> row : pending) {
+                try {
+                    inTransaction(session, () -> handler.insert(session, List.of(row.entity())));
+                    report.inserted++;
+                } catch (RuntimeException rowError) {
+                    report.error(row.line(), "Error al guardar: " + rootMessage(rowError));
+                    handler.failed(row.entity());
+                }
+            }
+        }
+    }
+
+    private static void inTransaction(StatelessSession session, Runnable work) {
+        Transaction transaction = session.beginTransaction();
+        try {
+            work.run();
+            transaction.commit();
+        } catch (RuntimeException e) {
+            if (transaction.isActive()) {
+                transaction.rollback();
+            }
+            throw e;
+        }
+    }
+
+    // Mapas de búsqueda
+
+    private static Map<String, Integer> studentIds(StatelessSession session) {
+        Map<String, Integer> students = new HashMap<>();
+        for (Object[] student : session.createSelectionQuery(
+                "SELECT s.user.username, s.id FROM Student s", Object[].class).getResultList()) {
+            students.put((String) student[0], (Integer) student[1]);
+        }
+        return students;
+    }
+
+    private static Map<Long, Integer> enrollmentIds(StatelessSession session) {
+        Map<Long, Integer> enrollments = new HashMap<>();
+        for (Object[] enrollment : session.createSelectionQuery(
+                "SELECT sm.student.id, sm.module.id, sm.id FROM StudentModule sm", Object[].class).getResultList()) {
+            enrollments.put(pair((Integer) enrollment[0], (Integer) enrollment[1]), (Integer) enrollment[2]);
+        }
+        return enrollments;
+    }
+
+    private static long pair(int studentId, int moduleId) {
+        return ((long) studentId << 32) | (moduleId & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Módulos por nombre; el curso distingue los que se llaman igual
+     */
+    private static final class ModuleLookup {
+
+        private final Map<String, List<Object[]>> byName = new HashMap<>();
+
+        ModuleLookup(StatelessSession session) {
+            for (Object[] module : session.createSelectionQuery(
+                    "SELECT m.moduleName, m.course, m.id FROM Module m", Object[].class).getResultList()) {
+                byName.computeIfAbsent((String) module[0], _ -> new ArrayList<>()).add(module);
+            }
+        }
+
+        int resolve(String name, String course) {
+            List<Object[]> candidates = byName.getOrDefault(name, List.of());
+            if (course != null) {
+                candidates = candidates.stream().filter(module -> course.equals(module[1])).toList();
+            }
+            if (candidates.isEmpty()) {
+                throw new InvalidRowException("No existe el módulo " + name + (course == null ? "" : " de " + course));
+            }
+            if (candidates.size() > 1) {
+                throw new InvalidRowException("Hay varios módulos " + name + ": indica el curso en la columna course");
+            }
+            return (Integer) candidates.getFirst()[2];
+        }
+    }
+
+    // Validación de campos
+
+    private static String required(CsvReader.Row row, String column) {
+        String value = row.get(column);
+        if (value == null) {
+            throw new InvalidRowException("Falta " + column);
+        }
+        return value;
+    }
+
+    private static int student(Map<String, Integer> students, String username) {
+        Integer studentId = students.get(username);
+        if (studentId == null) {
+            throw new InvalidRowException("No existe ningún alumno con username " + username);
+        }
+        return studentId;
+    }
+
+    private static UserType userType(String value) {
+        try {
+            return UserType.valueOf(value.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidRowException("Tipo de usuario no válido: " + value + " (PROFESOR o ESTUDIANTE)");
+        }
+    }
+
+    private static BigDecimal grade(String value) {
+        BigDecimal grade;
+        try {
+            // Admite coma decimal (hojas de cálculo en español)
+            grade = new BigDecimal(value.replace(',', '.'));
+        } catch (NumberFormatException e) {
+            throw new InvalidRowException("Nota no válida: " + value);
+        }
+        if (grade.compareTo(BigDecimal.ZERO) < 0 || grade.compareTo(MAX_GRADE) > 0) {
+            throw new InvalidRowException("La nota debe estar entre 0 y 10: " + value);
+        }
+        if (grade.stripTrailingZeros().scale() > 2) {
+            throw new InvalidRowException("La nota no puede tener más de dos decimales: " + value);
+        }
+        return grade;
+    }
+
+    private static String hash(String content) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(content.getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String rootMessage(Throwable error) {
+        Throwable cause = error;
+        while (cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause.getMessage();
+    }
+
+    /**
+     * Traduce filas del CSV a entidades
+     */
+    @FunctionalInterface
+    private interface RowHandler<E> {
+
+        /**
+         * @return Entidad a guardar, o null si no hay nada que guardar (ya existe o la fila está vacía)
+         * @throws InvalidRowException Si la fila no es válida
+         */
+        E toEntity(CsvReader.Row row);
+
+        /**
+         * Guarda las entidades de un lote (o de una fila, si el lote falló), dentro de su transacción
+         */
+        default void insert(StatelessSession session, List<E> entities) {
+            session.insertMultiple(entities);
+        }
+
+        /**
+         * Quita del lote las filas que ya están guardadas (las que no se pueden saber con los mapas)
+         */
+        default List<Pending<E>> notSavedYet(StatelessSession session, List<Pending<E>> chunk) {
+            return chunk;
+        }
+
+        /**
+         * Se llama cuando una fila no se ha podido guardar: toEntity ya la había contado como importada
+         * (para saltar las repetidas), y una fila posterior igual tiene que volver a intentarse
+         */
+        default void failed(E entity) {
+        }
+    }
+
+    private record Pending<E>(long line, E entity) {
+    }
+
+    private static final class InvalidRowException extends RuntimeException {
+        InvalidRowException(String message) {
+            super(message);
+        }
+    }
+
+    private static final class Report {
+
+        private final String kind;
+        private final List<ImportReport.RowError> errors = new ArrayList<>();
+        private long read;
+        private long inserted;
+        private long skipped;
+
+        Report(String kind) {
+            this.kind = kind;
+        }
+
+        void error(long line, String message) {
+            errors.add(new ImportReport.RowError(line, message));
+        }
+
+        ImportReport build() {
+            // Los errores al guardar se conocen al final de su lote: se ordenan por línea
+            errors.sort(Comparator.comparingLong(ImportReport.RowError::line));
+            return new ImportReport(kind, read, inserted, skipped, List.copyOf(errors));
+        }
+    }
+}
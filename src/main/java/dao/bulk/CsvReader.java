@@ -0,0 +1,177 @@
+package dao.bulk;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * Lector de CSV fila a fila (no carga el fichero en memoria).
+ * La primera línea es la cabecera con los nombres de columna (sin distinguir mayúsculas).
+ * El separador es ',' o ';' (el de Excel en español), según cuál aparezca más en la cabecera.
+ * Admite campos entre comillas dobles, con "" para una comilla y saltos de línea dentro.
+ */
+final class CsvReader implements Iterable<CsvReader.Row>, Closeable {
+
+    private final BufferedReader reader;
+    private final char separator;
+    private final Map<String, Integer> columns = new HashMap<>();
+
+    // Línea física en la que empieza la siguiente fila
+    private long line = 1;
+
+    CsvReader(Reader reader) throws IOException {
+        this.reader = reader instanceof BufferedReader buffered ? buffered : new BufferedReader(reader);
+
+        String header = this.reader.readLine();
+        if (header == null) {
+            throw new IllegalArgumentException("El fichero está vacío");
+        }
+        if (header.startsWith("\uFEFF")) {
+            header = header.substring(1);
+        }
+        line++;
+
+        separator = count(header, ';') > count(header, ',') ? ';' : ',';
+        List<String> names = parse(header);
+        for (int i = 0; i < names.size(); i++) {
+            columns.put(names.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+    }
+
+    boolean hasColumn(String column) {
+        return columns.containsKey(column);
+    }
+
+    @Override
+    public Iterator<Row> iterator() {
+        return new Iterator<>() {
+            private Row next = readRow();
+
+            @Override
+            public boolean hasNext() {
+                return next != null;
+            }
+
+            @Override
+            public Row next() {
+                if (next == null) {
+                    throw new NoSuchElementException();
+                }
+                Row current = next;
+                next = readRow();
+                return current;
+            }
+        };
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private Row readRow() {
+        try {
+            while (true) {
+                String text = reader.readLine();
+                if (text == null) {
+                    return null;
+                }
+                long start = line++;
+                if (text.isBlank()) {
+                    continue;
+                }
+                // Un campo entre comillas puede seguir en la línea siguiente
+                while (count(text, '"') % 2 != 0) {
+                    String more = reader.readLine();
+                    if (more == null) {
+                        throw new IllegalArgumentException("Línea " + start + ": comillas sin cerrar");
+                    }
+                    line++;
+                    text = text + "\n" + more;
+                }
+                return new Row(start, parse(text));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private List<String> parse(String text) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < text.length() && text.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == separator) {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private static int count(String text, char c) {
+        int count = 0;
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) == c) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Una fila de datos
+     */
+    final class Row {
+
+        private final long line;
+        private final List<String> fields;
+
+        private Row(long line, List<String> fields) {
+            this.line = line;
+            this.fields = fields;
+        }
+
+        long line() {
+            return line;
+        }
+
+        /**
+         * Valor de una columna, sin espacios alrededor
+         * @return Valor o null si la columna no existe o está vacía
+         */
+        String get(String column) {
+            Integer index = columns.get(column);
+            if (index == null || index >= fields.size()) {
+                return null;
+            }
+            String value = fields.get(index).trim();
+            return value.isEmpty() ? null : value;
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package dao.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * Fila plana del cuaderno de notas para exportar: una nota con su alumno y su módulo.
+ * Las matrículas sin notas salen en una fila con grade y notes a null
+ * @param moduleName Nombre del módulo
+ * @param moduleCourse Curso del módulo
+ * @param lastName Apellidos del alumno
+ * @param firstName Nombre del alumno
+ * @param username Usuario del alumno
+ * @param course Curso del alumno
+ * @param gradeGroup Grupo del alumno
+ * @param grade Nota o null si la matrícula no tiene notas
+ * @param notes Observaciones de la nota
+ */
+public record GradeExportRow(String moduleName, String moduleCourse, String lastName, String firstName,
+                             String username, String course, String gradeGroup, BigDecimal grade, String notes) {
+}
@@ -0,0 +1,37 @@
+package dao.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * Fila del cuaderno de notas de un módulo: una matrícula con su resumen de notas.
+ * Se obtiene con una única consulta agrupada (ver StudentModuleDAO#findGradebookByModule)
+ * @param enrollmentId ID de la matrícula
+ * @param firstName Nombre del alumno
+ * @param lastName Apellidos del alumno
+ * @param course Curso del alumno
+ * @param gradeGroup Grupo del alumno
+ * @param lastGrade Última nota registrada o null si no hay notas
+ * @param average Nota media o null si no hay notas
+ * @param gradeCount Número de notas registradas
+ */
+public record GradebookEntry(Integer enrollmentId, String firstName, String lastName, String course,
+                             String gradeGroup, BigDecimal lastGrade, BigDecimal average, long gradeCount) {
+
+    /**
+     * Constructor usado por la consulta HQL (AVG devuelve Double y COUNT devuelve Long)
+     */
+    public GradebookEntry(Integer enrollmentId, String firstName, String lastName, String course,
+                          String gradeGroup, BigDecimal lastGrade, Double average, Long gradeCount) {
+        this(enrollmentId, firstName, lastName, course, gradeGroup, lastGrade,
+                average == null ? null : BigDecimal.valueOf(average),
+                gradeCount == null ? 0 : gradeCount);
+    }
+
+    public String studentName() {
+        return firstName + " " + lastName;
+    }
+
+    public boolean hasGrades() {
+        return gradeCount > 0;
+    }
+}
@@ -0,0 +1,16 @@
+package dao.dto;
+
+/**
+ * Orden de las filas del cuaderno de notas leído por páginas (ver StudentModuleDAO#findGradebookPage).
+ * Con cualquier orden, los empates se resuelven por apellidos, nombre e ID de matrícula,
+ * así cada fila tiene siempre la misma posición y la clave de la última fila de una página
+ * dice dónde empieza la siguiente
+ */
+public enum GradebookSort {
+    // Apellidos y nombre del alumno
+    NAME,
+    // Nota media (las matrículas sin notas al final)
+    AVERAGE,
+    // Última nota registrada (las matrículas sin notas al final)
+    LAST_GRADE
+}
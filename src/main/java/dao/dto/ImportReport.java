@@ -0,0 +1,38 @@
+package dao.dto;
+
+import java.util.List;
+
+/**
+ * Resultado de una importación masiva desde CSV
+ * @param kind Qué se importó (usuarios, alumnos, matrículas o notas)
+ * @param read Filas de datos leídas
+ * @param inserted Filas guardadas
+ * @param skipped Filas que ya existían (se ignoran: importar dos veces el mismo fichero no duplica nada)
+ *                o que no tienen nada que guardar (notas de una exportación de matrículas sin notas)
+ * @param errors Filas rechazadas, con su línea y el motivo
+ */
+public record ImportReport(String kind, long read, long inserted, long skipped, List<RowError> errors) {
+
+    public boolean hasErrors() {
+        return !errors.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return "Importación de " + kind + ": " + read + " filas leídas, " + inserted + " guardadas, "
+                + skipped + " omitidas, " + errors.size() + " con errores";
+    }
+
+    /**
+     * Fila rechazada
+     * @param line Línea del fichero (la cabecera es la 1)
+     * @param message Motivo
+     */
+    public record RowError(long line, String message) {
+
+        @Override
+        public String toString() {
+            return "Línea " + line + ": " + message;
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package dao.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * Resumen de notas de un alumno en uno de sus módulos
+ * @param enrollmentId ID de la matrícula
+ * @param moduleId ID del módulo
+ * @param moduleName Nombre del módulo
+ * @param lastGrade Última nota registrada o null si no hay notas
+ * @param average Nota media o null si no hay notas
+ * @param gradeCount Número de notas registradas
+ * @param passed true si la media alcanza la nota de aprobado, null si no hay notas
+ */
+public record ModuleGradeSummary(Integer enrollmentId, Integer moduleId, String moduleName,
+                                 BigDecimal lastGrade, BigDecimal average, long gradeCount, Boolean passed) {
+
+    public boolean hasGrades() {
+        return gradeCount > 0;
+    }
+}
@@ -0,0 +1,15 @@
+package dao.dto;
+
+import java.util.List;
+
+/**
+ * Una página de resultados de una consulta paginada por clave
+ * @param items Elementos de la página (como mucho el tamaño pedido)
+ * @param nextPageToken Token para pedir la siguiente página o null si es la última
+ */
+public record Page<T>(List<T> items, String nextPageToken) {
+
+    public boolean hasNext() {
+        return nextPageToken != null;
+    }
+}
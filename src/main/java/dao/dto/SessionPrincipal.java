@@ -0,0 +1,40 @@
+package dao.dto;
+
+import models.Module;
+import models.Student;
+import models.Teacher;
+import models.User;
+import models.UserType;
+
+import java.util.List;
+
+/**
+ * Usuario que ha iniciado sesión, con su perfil ya cargado: el profesor y sus módulos, o el alumno.
+ * Se obtiene con una única consulta (ver UserDAO#login) y las ventanas lo usan sin volver a la base de datos
+ * @param user Usuario
+ * @param teacher Perfil de profesor o null si es alumno
+ * @param student Perfil de alumno o null si es profesor
+ * @param modules Módulos que imparte el profesor (vacío para los alumnos)
+ */
+public record SessionPrincipal(User user, Teacher teacher, Student student, List<Module> modules) {
+
+    public SessionPrincipal {
+        modules = List.copyOf(modules);
+    }
+
+    public UserType userType() {
+        return user.getUserType();
+    }
+
+    public boolean isTeacher() {
+        return teacher != null;
+    }
+
+    public boolean isStudent() {
+        return student != null;
+    }
+
+    public String fullName() {
+        return user.getFirstName() + " " + user.getLastName();
+    }
+}
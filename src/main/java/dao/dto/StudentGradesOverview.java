@@ -0,0 +1,12 @@
+package dao.dto;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Resumen completo de las notas de un alumno: un resumen por módulo y la media general
+ * @param modules Resumen de cada matrícula del alumno
+ * @param overallAverage Media de todas sus notas o null si no tiene ninguna
+ */
+public record StudentGradesOverview(List<ModuleGradeSummary> modules, BigDecimal overallAverage) {
+}
@@ -1,22 +1,46 @@
 package dao.impl;
 
+import dao.dto.Page;
 import dao.interfaces.GenericDAO;
-import util.HibernateUtil;
-import org.hibernate.Session;
-import org.hibernate.Transaction;
 import jakarta.persistence.criteria.CriteriaBuilder;
 import jakarta.persistence.criteria.CriteriaQuery;
 import jakarta.persistence.criteria.Root;
+import jakarta.persistence.metamodel.EntityType;
+import org.hibernate.CacheMode;
+import org.hibernate.FlushMode;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+import org.hibernate.query.MutationQuery;
+import org.hibernate.query.NativeQuery;
+import org.hibernate.query.Query;
+import util.HibernateUtil;
+import util.SqlStatementCounter;
+import util.jfr.SessionEvent;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Implementación base de GenericDAO para Hibernate 6.x
  * Todos los DAO específicos heredan de esta clase
+ *
+ * Cada operación se une a la unidad de trabajo activa en el hilo (HibernateUtil.inTransaction);
+ * si no hay ninguna, abre su propia sesión (y transacción si escribe) solo para esa llamada.
  */
 public abstract class GenericDAOImp<T, ID> implements GenericDAO<T, ID> {
 
+    // Filas que se piden a la base de datos en cada viaje al recorrer con cursor
+    // (y cada cuántas se vacía la sesión); se puede cambiar con -Dapp.stream.fetchSize
+    protected static final int STREAM_FETCH_SIZE = Integer.getInteger("app.stream.fetchSize", 500);
+
     private final Class<T> entityClass;
 
     protected GenericDAOImp(Class<T> entityClass) {
@@ -25,89 +49,57 @@ public abstract class GenericDAOImp<T, ID> implements GenericDAO<T, ID> {
 
     @Override
     public void save(T entity) {
-        Transaction transaction = null;
-        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
-            transaction = session.beginTransaction();
+        runInTransaction("Error al guardar", session -> {
             session.persist(entity);
-            transaction.commit();
-        } catch (Exception e) {
-            if (transaction != null) {
-                transaction.rollback();
+        });
+    }
+
+    @Override
+    public void saveAll(Collection<? extends T> entities) {
+        runInTransaction("Error al guardar en lote", session -> {
+            // persist solo reserva el ID; los INSERT se agrupan al hacer flush (al confirmar)
+            for (T entity : entities) {
+                session.persist(entity);
             }
-            throw new RuntimeException("Error al guardar: " + e.getMessage(), e);
-        }
+        });
     }
 
     @Override
     public void update(T entity) {
-        Transaction transaction = null;
-        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
-            transaction = session.beginTransaction();
+        runInTransaction("Error al actualizar", session -> {
             session.merge(entity);
-            transaction.commit();
-        } catch (Exception e) {
-            if (transaction != null) {
-                transaction.rollback();
-            }
-            throw new RuntimeException("Error al actualizar: " + e.getMessage(), e);
-        }
+        });
     }
 
     @Override
     public void saveOrUpdate(T entity) {
-        Transaction transaction = null;
-        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
-            transaction = session.beginTransaction();
+        runInTransaction("Error al guardar/actualizar", session -> {
             session.merge(entity);  // ← merge hace save o update automáticamente
-            transaction.commit();
-        } catch (Exception e) {
-            if (transaction != null) {
-                transaction.rollback();
-            }
-            throw new RuntimeException("Error al guardar/actualizar: " + e.getMessage(), e);
-        }
+        });
     }
 
     @Override
     public void delete(T entity) {
-        Transaction transaction = null;
-        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
-            transaction = session.beginTransaction();
+        runInTransaction("Error al eliminar", session -> {
             session.remove(entity);
-            transaction.commit();
-        } catch (Exception e) {
-            if (transaction != null) {
-                transaction.rollback();
-            }
-            throw new RuntimeException("Error al eliminar: " + e.getMessage(), e);
-        }
+        });
     }
 
     @Override
     public void deleteById(ID id) {
-        Transaction transaction = null;
-        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
-            transaction = session.beginTransaction();
+        runInTransaction("Error al eliminar por ID", session -> {
             T entity = session.find(entityClass, id);
             if (entity != null) {
                 session.remove(entity);
             }
-            transaction.commit();
-        } catch (Exception e) {
-            if (transaction != null) {
-                transaction.rollback();
-            }
-            throw new RuntimeException("Error al eliminar por ID: " + e.getMessage(), e);
-        }
+        });
     }
 
     @Override
     public T findById(ID id) {
-        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
+        return inSession("Error al buscar por ID", session -> {
             return session.find(entityClass, id);
-        } catch (Exception e) {
-            throw new RuntimeException("Error al buscar por ID: " + e.getMessage(), e);
-        }
+        });
     }
 
     @Override
@@ -117,41 +109,219 @@ public abstract class GenericDAOImp<T, ID> implements GenericDAO<T, ID> {
 
     @Override
     public List<T> findAll() {
-        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
+        return inSession("Error al obtener todos", session -> {
             CriteriaBuilder cb = session.getCriteriaBuilder();
             CriteriaQuery<T> cq = cb.createQuery(entityClass);
             Root<T> root = cq.from(entityClass);
             cq.select(root);
             return session.createQuery(cq).getResultList();
-        } catch (Exception e) {
-            throw new RuntimeException("Error al obtener todos: " + e.getMessage(), e);
-        }
+        });
+    }
+
+    @Override
+    public Page<T> findPage(String pageToken, int pageSize) {
+        checkPageSize(pageSize);
+        return inSession("Error al obtener página", session -> {
+            EntityType<T> entityType = session.getMetamodel().entity(entityClass);
+            String hql = "FROM " + entityType.getName() + " e"
+                    + (pageToken == null ? "" : " WHERE e.id > :afterId")
+                    + " ORDER BY e.id";
+
+            Query<T> query = session.createQuery(hql, entityClass);
+            if (pageToken != null) {
+                query.setParameter("afterId", PageTokens.decode(pageToken, entityType.getIdType().getJavaType())[0]);
+            }
+
+            List<T> rows = query.setMaxResults(pageSize + 1).getResultList();
+            return toPage(rows, pageSize, entity -> new Object[]{session.getIdentifier(entity)});
+        });
+    }
+
+    @Override
+    public long forEach(Consumer<? super T> action) {
+        return streamAll(stream -> consume(stream, action));
+    }
+
+    @Override
+    public <R> R streamAll(Function<Stream<T>, R> work) {
+        return scroll("Error al recorrer", session -> {
+            String entityName = session.getMetamodel().entity(entityClass).getName();
+            return session.createQuery("FROM " + entityName + " e ORDER BY e.id", entityClass);
+        }, work);
     }
 
     @Override
     public long count() {
-        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
+        return inSession("Error al contar", session -> {
             CriteriaBuilder cb = session.getCriteriaBuilder();
             CriteriaQuery<Long> cq = cb.createQuery(Long.class);
             Root<T> root = cq.from(entityClass);
             cq.select(cb.count(root));
             return session.createQuery(cq).getSingleResult();
-        } catch (Exception e) {
-            throw new RuntimeException("Error al contar: " + e.getMessage(), e);
-        }
+        });
     }
 
     @Override
     public boolean existsById(ID id) {
-        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
+        return inSession("Error al verificar existencia", session -> {
             CriteriaBuilder cb = session.getCriteriaBuilder();
             CriteriaQuery<Long> cq = cb.createQuery(Long.class);
             Root<T> root = cq.from(entityClass);
             cq.select(cb.count(root));
             cq.where(cb.equal(root.get("id"), id));
             return session.createQuery(cq).getSingleResult() > 0;
+        });
+    }
+
+    /**
+     * Recorre el resultado de una consulta con un cursor de solo avance.
+     * Usa una sesión propia de solo lectura (no la de la unidad de trabajo del hilo)
+     * y la vacía cada STREAM_FETCH_SIZE filas, así la memoria no crece con el número de filas
+     * @param errorMessage Mensaje de la excepción si algo falla
+     * @param queryFactory Crea la consulta en la sesión del cursor
+     * @param work Operación que consume las filas (el Stream solo es válido dentro de work)
+     * @return Resultado de work
+     */
+    protected <E, R> R scroll(String errorMessage, Function<Session, Query<E>> queryFactory,
+                              Function<Stream<E>, R> work) {
+        SessionEvent event = new SessionEvent();
+        event.begin();
+        long statementsBefore = SqlStatementCounter.currentThreadCount();
+        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
+            session.setDefaultReadOnly(true);
+            session.setCacheMode(CacheMode.IGNORE);
+            session.setHibernateFlushMode(FlushMode.MANUAL);
+
+            Query<E> query = queryFactory.apply(session)
+                    .setFetchSize(STREAM_FETCH_SIZE)
+                    .setReadOnly(true);
+
+            try (ScrollableResults<E> results = query.scroll(ScrollMode.FORWARD_ONLY);
+                 Stream<E> stream = StreamSupport.stream(new ClearingSpliterator<>(session, results), false)) {
+                return work.apply(stream);
+            }
         } catch (Exception e) {
-            throw new RuntimeException("Error al verificar existencia: " + e.getMessage(), e);
+            throw new RuntimeException(errorMessage + ": " + e.getMessage(), e);
+        } finally {
+            event.kind = SessionEvent.CURSOR;
+            event.statements = SqlStatementCounter.currentThreadCount() - statementsBefore;
+            event.commit();
+        }
+    }
+
+    /**
+     * Aplica action a cada elemento de stream
+     * @return Número de elementos recorridos
+     */
+    protected static <E> long consume(Stream<E> stream, Consumer<? super E> action) {
+        long[] count = {0};
+        stream.forEachOrdered(row -> {
+            action.accept(row);
+            count[0]++;
+        });
+        return count[0];
+    }
+
+    /**
+     * Construye una página a partir de una consulta que pidió pageSize + 1 filas:
+     * si llegó la fila extra hay página siguiente, y su token es la clave de la última fila mostrada
+     * @param rows Resultado de la consulta
+     * @param pageSize Tamaño de página pedido
+     * @param keyOf Valores de la clave de ordenación de una fila
+     * @return Página con como mucho pageSize filas
+     */
+    protected static <E> Page<E> toPage(List<E> rows, int pageSize, Function<E, Object[]> keyOf) {
+        if (rows.size() <= pageSize) {
+            return new Page<>(rows, null);
+        }
+        List<E> items = List.copyOf(rows.subList(0, pageSize));
+        return new Page<>(items, PageTokens.encode(keyOf.apply(items.getLast())));
+    }
+
+    protected static void checkPageSize(int pageSize) {
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("El tamaño de página debe ser mayor que 0: " + pageSize);
+        }
+    }
+
+    /**
+     * Ejecuta una consulta en la sesión actual del hilo o en una nueva
+     * @param errorMessage Mensaje de la excepción si algo falla
+     * @param work Operación a ejecutar con la sesión
+     * @return Resultado de la operación
+     */
+    protected <R> R inSession(String errorMessage, Function<Session, R> work) {
+        try {
+            return HibernateUtil.withSession(work);
+        } catch (Exception e) {
+            throw new RuntimeException(errorMessage + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Ejecuta una escritura dentro de la transacción actual o de una nueva
+     * @param errorMessage Mensaje de la excepción si algo falla
+     * @param work Operación a ejecutar con la sesión
+     * @return Resultado de la operación
+     */
+    protected <R> R inTransaction(String errorMessage, Function<Session, R> work) {
+        try {
+            return HibernateUtil.transactional(work);
+        } catch (Exception e) {
+            throw new RuntimeException(errorMessage + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Igual que inTransaction pero para operaciones sin resultado
+     */
+    protected void runInTransaction(String errorMessage, Consumer<Session> work) {
+        inTransaction(errorMessage, session -> {
+            work.accept(session);
+            return null;
+        });
+    }
+
+    /**
+     * Crea una sentencia SQL nativa de modificación declarando las tablas que toca.
+     * Sin esa declaración Hibernate vacía toda la caché de segundo nivel al ejecutarla
+     * @param session Sesión actual
+     * @param sql Sentencia INSERT/UPDATE/DELETE
+     * @param querySpaces Tablas afectadas
+     * @return Sentencia lista para asignar parámetros y ejecutar
+     */
+    protected MutationQuery nativeMutation(Session session, String sql, String... querySpaces) {
+        NativeQuery<?> query = (NativeQuery<?>) session.createNativeMutationQuery(sql);
+        for (String querySpace : querySpaces) {
+            query.addSynchronizedQuerySpace(querySpace);
+        }
+        return query;
+    }
+
+    // Avanza el cursor fila a fila y vacía la sesión cada STREAM_FETCH_SIZE filas ya entregadas
+
+    private static final class ClearingSpliterator<E> extends Spliterators.AbstractSpliterator<E> {
+
+        private final Session session;
+        private final ScrollableResults<E> results;
+        private long delivered;
+
+        ClearingSpliterator(Session session, ScrollableResults<E> results) {
+            super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+            this.session = session;
+            this.results = results;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super E> action) {
+            if (!results.next()) {
+                return false;
+            }
+            action.accept(results.get());
+            if (++delivered % STREAM_FETCH_SIZE == 0) {
+                session.clear();
+            }
+            return true;
         }
     }
-}
\ No newline at end of file
+}
@@ -1,131 +1,199 @@
 package dao.impl;
 
+import dao.dto.Page;
 import dao.interfaces.GradeDAO;
+import jakarta.persistence.LockModeType;
 import jakarta.persistence.TypedQuery;
 import models.Grade;
+import models.GradeAggregate;
+import models.StudentModule;
 import org.hibernate.Session;
-import org.hibernate.Transaction;
-import util.HibernateUtil;
+import org.hibernate.SharedSessionContract;
+import org.hibernate.query.MutationQuery;
+import org.hibernate.query.NativeQuery;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
 public class GradeDAOImp extends GenericDAOImp<Grade, Integer> implements GradeDAO {
+    // Completa la última nota y los IDs de la máxima y la mínima de los resúmenes insertados con SQL.
+    // Mismo criterio que computeAggregate: la última es la de mayor created_at (y mayor ID si coinciden),
+    // y en caso de empate en la máxima o la mínima, la de menor ID. Son dos sentencias porque MySQL ve en
+    // cada asignación de un UPDATE los valores ya cambiados por las anteriores, y H2 no
+    private static final String FILL_LATEST_GRADE_ID = """
+            UPDATE grade_aggregates SET
+                latest_grade_id = (SELECT g.id FROM grades g
+                                   WHERE g.id_student_module = grade_aggregates.id_student_module
+                                   ORDER BY g.created_at DESC, g.id DESC LIMIT 1)
+            """;
+    private static final String FILL_GRADE_IDS = """
+            UPDATE grade_aggregates SET
+                latest_grade = (SELECT g.grade FROM grades g WHERE g.id = grade_aggregates.latest_grade_id),
+                latest_grade_at = (SELECT g.created_at FROM grades g WHERE g.id = grade_aggregates.latest_grade_id),
+                highest_grade_id = (SELECT MIN(g.id) FROM grades g
+                                    WHERE g.id_student_module = grade_aggregates.id_student_module
+                                      AND g.grade = grade_aggregates.max_grade),
+                lowest_grade_id = (SELECT MIN(g.id) FROM grades g
+                                   WHERE g.id_student_module = grade_aggregates.id_student_module
+                                     AND g.grade = grade_aggregates.min_grade)
+            """;
+
     public GradeDAOImp() {
         super(Grade.class);
     }
 
+    // Las escrituras actualizan el resumen de la matrícula (GradeAggregate) en la misma transacción
+
+    @Override
+    public void save(Grade grade) {
+        runInTransaction("Error al guardar", session -> {
+            // Secuencia: persist ya asigna el ID y la fecha de alta (el INSERT se envía al hacer flush)
+            session.persist(grade);
+            includeInAggregate(session, grade.getStudentModule().getId(), List.of(grade));
+        });
+    }
+
+    @Override
+    public void saveAll(Collection<? extends Grade> grades) {
+        runInTransaction("Error al guardar en lote", session -> {
+            // Ordenadas por matrícula: los resúmenes se bloquean siempre en el mismo orden
+            Map<Integer, List<Grade>> byEnrollment = new TreeMap<>();
+            for (Grade grade : grades) {
+                session.persist(grade);
+                byEnrollment.computeIfAbsent(grade.getStudentModule().getId(), _ -> new ArrayList<>()).add(grade);
+            }
+            byEnrollment.forEach((studentModuleId, enrollmentGrades) ->
+                    includeInAggregate(session, studentModuleId, enrollmentGrades));
+        });
+    }
+
+    @Override
+    public void update(Grade grade) {
+        runInTransaction("Error al actualizar", session -> {
+            Grade merged = session.merge(grade);
+            // La nota cambiada puede haber sido la mínima o la máxima: se recalcula su matrícula
+            recomputeAggregate(session, merged.getStudentModule().getId());
+        });
+    }
+
+    @Override
+    public void saveOrUpdate(Grade grade) {
+        if (grade.getId() == null) {
+            save(grade);
+        } else {
+            update(grade);
+        }
+    }
+
+    @Override
+    public void delete(Grade grade) {
+        runInTransaction("Error al eliminar", session -> {
+            Integer studentModuleId = grade.getStudentModule().getId();
+            session.remove(grade);
+            recomputeAggregate(session, studentModuleId);
+        });
+    }
+
+    @Override
+    public void deleteById(Integer id) {
+        runInTransaction("Error al eliminar por ID", session -> {
+            Grade grade = session.find(Grade.class, id);
+            if (grade != null) {
+                Integer studentModuleId = grade.getStudentModule().getId();
+                session.remove(grade);
+                recomputeAggregate(session, studentModuleId);
+            }
+        });
+    }
+
     @Override
     public List<Grade> findByStudentModule(Integer studentModuleId) {
-        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
+        return inSession("Error al buscar notas por matrícula", session -> {
             TypedQuery<Grade> query = session.createQuery(
-                    "FROM Grade WHERE studentModule.id = :smId ORDER BY id DESC",
+                    "FROM Grade WHERE studentModule.id = :smId ORDER BY createdAt DESC, id DESC",
                     Grade.class
             );
             query.setParameter("smId", studentModuleId);
             return query.getResultList();
-        } catch (Exception e) {
-            throw new RuntimeException("Error al buscar notas por matrícula: " + e.getMessage(), e);
-        }
+        });
     }
 
     @Override
     public List<Grade> findByStudent(Integer studentId) {
-        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
+        return inSession("Error al buscar notas por estudiante", session -> {
             TypedQuery<Grade> query = session.createQuery(
-                    "FROM Grade g WHERE g.studentModule.student.id = :studentId ORDER BY g.id DESC",
+                    "FROM Grade g WHERE g.studentModule.student.id = :studentId ORDER BY g.createdAt DESC, g.id DESC",
                     Grade.class
             );
             query.setParameter("studentId", studentId);
             return query.getResultList();
-        } catch (Exception e) {
-            throw new RuntimeException("Error al buscar notas por estudiante: " + e.getMessage(), e);
-        }
+        });
     }
 
     @Override
     public List<Grade> findByModule(Integer moduleId) {
-        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
+        return inSession("Error al buscar notas por módulo", session -> {
             TypedQuery<Grade> query = session.createQuery(
-                    "FROM Grade g WHERE g.studentModule.module.id = :moduleId ORDER BY g.id DESC",
+                    "FROM Grade g WHERE g.studentModule.module.id = :moduleId ORDER BY g.createdAt DESC, g.id DESC",
                     Grade.class
             );
             query.setParameter("moduleId", moduleId);
             return query.getResultList();
-        } catch (Exception e) {
-            throw new RuntimeException("Error al buscar notas por módulo: " + e.getMessage(), e);
-        }
+        });
     }
 
     @Override
-    public BigDecimal calculateAverageGrade(Integer studentModuleId) {
-        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
-            TypedQuery<Double> query = session.createQuery(
-                    "SELECT AVG(g.grade) FROM Grade g WHERE g.studentModule.id = :smId",
-                    Double.class
-            );
-            query.setParameter("smId", studentModuleId);
-            Double average = query.getSingleResult();
-            if (average == null) return BigDecimal.ZERO;
+    public long forEachByModule(Integer moduleId, Consumer<? super Grade> action) {
+        return streamByModule(moduleId, stream -> consume(stream, action));
+    }
 
-            return BigDecimal.valueOf(average);
-        } catch (Exception e) {
-            throw new RuntimeException("Error al calcular la nota media: " + e.getMessage(), e);
-        }
+    @Override
+    public <R> R streamByModule(Integer moduleId, Function<Stream<Grade>, R> work) {
+        return scroll("Error al recorrer notas por módulo", session ->
+                session.createQuery(
+                        "FROM Grade g WHERE g.studentModule.module.id = :moduleId ORDER BY g.createdAt, g.id",
+                        Grade.class
+                ).setParameter("moduleId", moduleId), work);
+    }
+
+    @Override
+    public BigDecimal calculateAverageGrade(Integer studentModuleId) {
+        return inSession("Error al calcular la nota media", session -> {
+            BigDecimal average = aggregateOf(session, studentModuleId).getAverage();
+            return average == null ? BigDecimal.ZERO : average;
+        });
     }
 
     @Override
     public Grade findLatestGrade(Integer studentModuleId) {
-        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
-            TypedQuery<Grade> query = session.createQuery(
-                    "FROM Grade WHERE studentModule.id = :smId ORDER BY id DESC",
-                    Grade.class
-            );
-            query.setParameter("smId", studentModuleId);
-            query.setMaxResults(1);
-            List<Grade> results = query.getResultList();
-            return results.isEmpty() ? null : results.getFirst();
-        } catch (Exception e) {
-            throw new RuntimeException("Error al buscar última nota: " + e.getMessage(), e);
-        }
+        return inSession("Error al buscar última nota", session ->
+                findGrade(session, aggregateOf(session, studentModuleId).getLatestGradeId()));
     }
 
     @Override
     public Grade findHighestGrade(Integer studentModuleId) {
-        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
-            TypedQuery<Grade> query = session.createQuery(
-                    "FROM Grade WHERE studentModule.id = :smId ORDER BY grade DESC",
-                    Grade.class
-            );
-            query.setParameter("smId", studentModuleId);
-            query.setMaxResults(1);
-            List<Grade> results = query.getResultList();
-            return results.isEmpty() ? null : results.getFirst();
-        } catch (Exception e) {
-            throw new RuntimeException("Error al buscar nota más alta: " + e.getMessage(), e);
-        }
+        return inSession("Error al buscar nota más alta", session ->
+                findGrade(session, aggregateOf(session, studentModuleId).getHighestGradeId()));
     }
 
     @Override
     public Grade findLowestGrade(Integer studentModuleId) {
-        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
-            TypedQuery<Grade> query = session.createQuery(
-                    "FROM Grade WHERE studentModule.id = :smId ORDER BY grade ASC",
-                    Grade.class
-            );
-            query.setParameter("smId", studentModuleId);
-            query.setMaxResults(1);
-            List<Grade> results = query.getResultList();
-            return results.isEmpty() ? null : results.getFirst();
-        } catch (Exception e) {
-            throw new RuntimeException("Error al buscar nota más baja: " + e.getMessage(), e);
-        }
+        return inSession("Error al buscar nota más baja", session ->
+                findGrade(session, aggregateOf(session, studentModuleId).getLowestGradeId()));
     }
 
     @Override
     public List<Grade> findByGradeRange(BigDecimal minGrade, BigDecimal maxGrade) {
-        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
+        return inSession("Error al buscar notas por rango", session -> {
             TypedQuery<Grade> query = session.createQuery(
                     "FROM Grade WHERE grade BETWEEN :min AND :max ORDER BY grade DESC",
                     Grade.class
@@ -133,9 +201,30 @@ public class GradeDAOImp extends GenericDAOImp<Grade, Integer> implements GradeD
             query.setParameter("min", minGrade);
             query.setParameter("max", maxGrade);
             return query.getResultList();
-        } catch (Exception e) {
-            throw new RuntimeException("Error al buscar notas por rango: " + e.getMessage(), e);
-        }
+        });
+    }
+
+    @Override
+    public Page<Grade> findByGradeRangePage(BigDecimal minGrade, BigDecimal maxGrade, String pageToken, int pageSize) {
+        checkPageSize(pageSize);
+        return inSession("Error al buscar notas por rango", session -> {
+            // Mismo orden que findByGradeRange; el id desempata las notas iguales
+            String hql = "FROM Grade WHERE grade BETWEEN :min AND :max"
+                    + (pageToken == null ? "" : " AND (grade < :lastGrade OR (grade = :lastGrade AND id < :lastId))")
+                    + " ORDER BY grade DESC, id DESC";
+
+            TypedQuery<Grade> query = session.createQuery(hql, Grade.class);
+            query.setParameter("min", minGrade);
+            query.setParameter("max", maxGrade);
+            if (pageToken != null) {
+                Object[] last = PageTokens.decode(pageToken, BigDecimal.class, Integer.class);
+                query.setParameter("lastGrade", last[0]);
+                query.setParameter("lastId", last[1]);
+            }
+            query.setMaxResults(pageSize + 1);
+
+            return toPage(query.getResultList(), pageSize, g -> new Object[]{g.getGrade(), g.getId()});
+        });
     }
 
     @Override
@@ -146,30 +235,26 @@ public class GradeDAOImp extends GenericDAOImp<Grade, Integer> implements GradeD
 
     @Override
     public long countPassedByModule(Integer moduleId) {
-        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
+        return inSession("Error al contar aprobados", session -> {
             TypedQuery<Long> query = session.createQuery(
                     "SELECT COUNT(DISTINCT g.studentModule) FROM Grade g WHERE g.studentModule.module.id = :moduleId AND g.grade >= 5.0",
                     Long.class
             );
             query.setParameter("moduleId", moduleId);
             return query.getSingleResult();
-        } catch (Exception e) {
-            throw new RuntimeException("Error al contar aprobados: " + e.getMessage(), e);
-        }
+        });
     }
 
     @Override
     public long countFailedByModule(Integer moduleId) {
-        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
+        return inSession("Error al contar suspensos", session -> {
             TypedQuery<Long> query = session.createQuery(
                     "SELECT COUNT(DISTINCT g.studentModule) FROM Grade g WHERE g.studentModule.module.id = :moduleId AND g.grade < 5.0",
                     Long.class
             );
             query.setParameter("moduleId", moduleId);
             return query.getSingleResult();
-        } catch (Exception e) {
-            throw new RuntimeException("Error al contar suspensos: " + e.getMessage(), e);
-        }
+        });
     }
 
     @Override
@@ -180,35 +265,31 @@ public class GradeDAOImp extends GenericDAOImp<Grade, Integer> implements GradeD
 
     @Override
     public List<Grade> findPassedGradesByModule(Integer moduleId) {
-        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
+        return inSession("Error al buscar notas aprobadas", session -> {
             TypedQuery<Grade> query = session.createQuery(
                     "FROM Grade g WHERE g.studentModule.module.id = :moduleId AND g.grade >= 5.0 ORDER BY g.grade DESC",
                     Grade.class
             );
             query.setParameter("moduleId", moduleId);
             return query.getResultList();
-        } catch (Exception e) {
-            throw new RuntimeException("Error al buscar notas aprobadas: " + e.getMessage(), e);
-        }
+        });
     }
 
     @Override
     public List<Grade> findFailedGradesByModule(Integer moduleId) {
-        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
+        return inSession("Error al buscar notas suspensas", session -> {
             TypedQuery<Grade> query = session.createQuery(
                     "FROM Grade g WHERE g.studentModule.module.id = :moduleId AND g.grade < 5.0 ORDER BY g.grade ASC",
                     Grade.class
             );
             query.setParameter("moduleId", moduleId);
             return query.getResultList();
-        } catch (Exception e) {
-            throw new RuntimeException("Error al buscar notas suspensas: " + e.getMessage(), e);
-        }
+        });
     }
 
     @Override
     public BigDecimal calculateOverallAverageByStudent(Integer studentId) {
-        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
+        return inSession("Error al calcular media general", session -> {
             TypedQuery<Double> query = session.createQuery(
                     "SELECT AVG(g.grade) FROM Grade g WHERE g.studentModule.student.id = :studentId",
                     Double.class
@@ -218,14 +299,12 @@ public class GradeDAOImp extends GenericDAOImp<Grade, Integer> implements GradeD
             if (average == null) return BigDecimal.ZERO;
 
             return BigDecimal.valueOf(average);
-        } catch (Exception e) {
-            throw new RuntimeException("Error al calcular media general: " + e.getMessage(), e);
-        }
+        });
     }
 
     @Override
     public BigDecimal calculateAverageGradeByModule(Integer moduleId) {
-        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
+        return inSession("Error al calcular media del módulo", session -> {
             TypedQuery<Double> query = session.createQuery(
                     "SELECT AVG(g.grade) FROM Grade g WHERE g.studentModule.module.id = :moduleId",
                     Double.class
@@ -234,41 +313,180 @@ public class GradeDAOImp extends GenericDAOImp<Grade, Integer> implements GradeD
             Double average = query.getSingleResult();
             if (average == null) return BigDecimal.ZERO;
             return BigDecimal.valueOf(average);
-        } catch (Exception e) {
-            throw new RuntimeException("Error al calcular media del módulo: " + e.getMessage(), e);
-        }
+        });
     }
 
     @Override
     public long countByStudentModule(Integer studentModuleId) {
-        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
-            TypedQuery<Long> query = session.createQuery(
-                    "SELECT COUNT(g) FROM Grade g WHERE g.studentModule.id = :smId",
-                    Long.class
-            );
-            query.setParameter("smId", studentModuleId);
-            return query.getSingleResult();
-        } catch (Exception e) {
-            throw new RuntimeException("Error al contar notas: " + e.getMessage(), e);
-        }
+        return inSession("Error al contar notas", session ->
+                aggregateOf(session, studentModuleId).getGradeCount());
     }
 
     @Override
-    public void deleteByStudentModule(Integer studentModuleId) {
-        Transaction transaction = null;
-        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
-            transaction = session.beginTransaction();
+    public GradeAggregate findAggregate(Integer studentModuleId) {
+        return inSession("Error al obtener el resumen de notas", session ->
+                aggregateOf(session, studentModuleId));
+    }
 
-            session.createNativeMutationQuery("DELETE FROM grades WHERE id_student_module = :smId")
+    @Override
+    public void deleteByStudentModule(Integer studentModuleId) {
+        runInTransaction("Error al eliminar notas", session -> {
+            nativeMutation(session, "DELETE FROM grades WHERE id_student_module = :smId", "grades")
                     .setParameter("smId", studentModuleId)
                     .executeUpdate();
 
-            transaction.commit();
-        } catch (Exception e) {
-            if (transaction != null) {
-                transaction.rollback();
+            GradeAggregate aggregate = session.find(GradeAggregate.class, studentModuleId,
+                    LockModeType.PESSIMISTIC_WRITE);
+            if (aggregate != null) {
+                aggregate.copyFrom(new GradeAggregate());
             }
-            throw new RuntimeException("Error al eliminar notas: " + e.getMessage(), e);
+        });
+    }
+
+    @Override
+    public int rebuildAggregates() {
+        return inTransaction("Error al reconstruir los resúmenes de notas", session ->
+                rebuildAggregates(session, null));
+    }
+
+    /**
+     * Recalcula con SQL los resúmenes de notas de unas matrículas, en la transacción ya abierta de session.
+     * Para las notas que se insertan sin pasar por este DAO (la importación masiva, con StatelessSession):
+     * el resumen queda confirmado junto con las notas
+     * @param session Sesión (normal o StatelessSession) con una transacción activa
+     * @param studentModuleIds IDs de las matrículas, o null para todas
+     * @return Número de matrículas recalculadas
+     */
+    public static int rebuildAggregates(SharedSessionContract session, Collection<Integer> studentModuleIds) {
+        if (studentModuleIds != null && studentModuleIds.isEmpty()) {
+            return 0;
         }
+        // En orden de ID: los resúmenes se bloquean siempre en el mismo orden
+        List<Integer> ids = studentModuleIds == null ? null : List.copyOf(new TreeSet<>(studentModuleIds));
+        String only = ids == null ? "" : " WHERE id_student_module IN (:ids)";
+        String withGrades = (ids == null ? " WHERE" : only + " AND") + " grade_count > 0";
+
+        aggregateMutation(session, "DELETE FROM grade_aggregates" + only, ids).executeUpdate();
+
+        int rebuilt = aggregateMutation(session, """
+                INSERT INTO grade_aggregates (id_student_module, grade_count, grade_sum, min_grade, max_grade)
+                SELECT sm.id, COUNT(g.id), COALESCE(SUM(g.grade), 0), MIN(g.grade), MAX(g.grade)
+                FROM student_module sm
+                LEFT JOIN grades g ON g.id_student_module = sm.id
+                """ + (ids == null ? "" : "WHERE sm.id IN (:ids) ") + "GROUP BY sm.id", ids).executeUpdate();
+
+        aggregateMutation(session, FILL_LATEST_GRADE_ID + withGrades, ids).executeUpdate();
+        aggregateMutation(session, FILL_GRADE_IDS + withGrades, ids).executeUpdate();
+
+        return rebuilt;
+    }
+
+    private static MutationQuery aggregateMutation(SharedSessionContract session, String sql, List<Integer> ids) {
+        NativeQuery<?> query = (NativeQuery<?>) session.createNativeMutationQuery(sql);
+        query.addSynchronizedQuerySpace("grade_aggregates");
+        if (ids != null) {
+            query.setParameterList("ids", ids);
+        }
+        return query;
+    }
+
+    /**
+     * Resumen guardado de una matrícula o, si aún no existe, calculado a partir de sus notas
+     */
+    private GradeAggregate aggregateOf(Session session, Integer studentModuleId) {
+        GradeAggregate aggregate = session.find(GradeAggregate.class, studentModuleId);
+        return aggregate != null ? aggregate : computeAggregate(session, studentModuleId);
+    }
+
+    private Grade findGrade(Session session, Integer gradeId) {
+        return gradeId == null ? null : session.find(Grade.class, gradeId);
+    }
+
+    /**
+     * Suma al resumen de una matrícula sus notas nuevas (ya persistidas)
+     */
+    private void includeInAggregate(Session session, Integer studentModuleId, List<Grade> newGrades) {
+        GradeAggregate aggregate = session.find(GradeAggregate.class, studentModuleId,
+                LockModeType.PESSIMISTIC_WRITE);
+        if (aggregate == null) {
+            // Primera vez: se calcula entero (ya incluye las notas nuevas)
+            recomputeAggregate(session, studentModuleId);
+        } else {
+            newGrades.forEach(aggregate::include);
+        }
+    }
+
+    /**
+     * Recalcula el resumen de una matrícula desde sus notas y lo guarda (creándolo si no existe)
+     */
+    private void recomputeAggregate(Session session, Integer studentModuleId) {
+        GradeAggregate aggregate = session.find(GradeAggregate.class, studentModuleId,
+                LockModeType.PESSIMISTIC_WRITE);
+        if (aggregate == null) {
+            // Se bloquea la matrícula para que dos transacciones no creen la misma fila a la vez
+            StudentModule enrollment = session.find(StudentModule.class, studentModuleId,
+                    LockModeType.PESSIMISTIC_WRITE);
+            if (enrollment == null) {
+                return;
+            }
+            aggregate = session.find(GradeAggregate.class, studentModuleId, LockModeType.PESSIMISTIC_WRITE);
+            if (aggregate == null) {
+                aggregate = new GradeAggregate(enrollment);
+                session.persist(aggregate);
+            }
+        }
+        aggregate.copyFrom(computeAggregate(session, studentModuleId));
+    }
+
+    /**
+     * Calcula el resumen de una matrícula recorriendo sus notas (sin guardarlo)
+     */
+    private GradeAggregate computeAggregate(Session session, Integer studentModuleId) {
+        GradeAggregate aggregate = new GradeAggregate();
+
+        Object[] totals = session.createQuery(
+                        "SELECT COUNT(g), SUM(g.grade), MIN(g.grade), MAX(g.grade) " +
+                                "FROM Grade g WHERE g.studentModule.id = :smId",
+                        Object[].class
+                )
+                .setParameter("smId", studentModuleId)
+                .getSingleResult();
+
+        long count = (Long) totals[0];
+        if (count == 0) {
+            return aggregate;
+        }
+        aggregate.setGradeCount(count);
+        aggregate.setGradeSum((BigDecimal) totals[1]);
+        aggregate.setMinGrade((BigDecimal) totals[2]);
+        aggregate.setMaxGrade((BigDecimal) totals[3]);
+
+        // En caso de empate en la máxima o la mínima se toma la de menor ID
+        Object[] ids = session.createQuery(
+                        "SELECT MIN(CASE WHEN g.grade = :max THEN g.id END), " +
+                                "MIN(CASE WHEN g.grade = :min THEN g.id END) " +
+                                "FROM Grade g WHERE g.studentModule.id = :smId",
+                        Object[].class
+                )
+                .setParameter("max", aggregate.getMaxGrade())
+                .setParameter("min", aggregate.getMinGrade())
+                .setParameter("smId", studentModuleId)
+                .getSingleResult();
+
+        aggregate.setHighestGradeId((Integer) ids[0]);
+        aggregate.setLowestGradeId((Integer) ids[1]);
+
+        Grade latest = session.createQuery(
+                        "FROM Grade g WHERE g.studentModule.id = :smId ORDER BY g.createdAt DESC, g.id DESC",
+                        Grade.class
+                )
+                .setParameter("smId", studentModuleId)
+                .setMaxResults(1)
+                .getSingleResult();
+
+        aggregate.setLatestGradeId(latest.getId());
+        aggregate.setLatestGrade(latest.getGrade());
+        aggregate.setLatestGradeAt(latest.getCreatedAt());
+        return aggregate;
     }
 }
\ No newline at end of file
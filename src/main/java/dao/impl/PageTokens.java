@@ -0,0 +1,74 @@
+package dao.impl;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Base64;
+
+/**
+ * Codifica la clave de la última fila de una página como token opaco.
+ * La siguiente página se pide con "clave > última clave" (sin OFFSET),
+ * así que cuesta lo mismo la primera página que la milésima.
+ */
+final class PageTokens {
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+    // Valor null (no es un carácter de Base64, así que no se confunde con ningún valor codificado)
+    private static final String NULL = "~";
+
+    private PageTokens() {
+    }
+
+    /**
+     * @param key Valores de la clave de ordenación de la última fila (pueden ser null)
+     * @return Token con esos valores
+     */
+    static String encode(Object... key) {
+        StringBuilder token = new StringBuilder();
+        for (Object value : key) {
+            if (!token.isEmpty()) {
+                token.append('.');
+            }
+            if (value == null) {
+                token.append(NULL);
+                continue;
+            }
+            String text = value instanceof BigDecimal decimal ? decimal.toPlainString() : String.valueOf(value);
+            token.append(ENCODER.encodeToString(text.getBytes(StandardCharsets.UTF_8)));
+        }
+        return token.toString();
+    }
+
+    /**
+     * @param token Token devuelto por encode
+     * @param types Tipo de cada valor de la clave
+     * @return Valores de la clave, en el mismo orden
+     */
+    static Object[] decode(String token, Class<?>... types) {
+        String[] parts = token.split("\\.", -1);
+        if (parts.length != types.length) {
+            throw new IllegalArgumentException("Token de página no válido: " + token);
+        }
+
+        Object[] key = new Object[types.length];
+        try {
+            for (int i = 0; i < types.length; i++) {
+                key[i] = parts[i].equals(NULL) ? null
+                        : parse(new String(DECODER.decode(parts[i]), StandardCharsets.UTF_8), types[i]);
+            }
+        } catch (IllegalArgumentException | java.time.DateTimeException e) {
+            throw new IllegalArgumentException("Token de página no válido: " + token, e);
+        }
+        return key;
+    }
+
+    private static Object parse(String text, Class<?> type) {
+        if (type == Integer.class) return Integer.valueOf(text);
+        if (type == Long.class) return Long.valueOf(text);
+        if (type == BigDecimal.class) return new BigDecimal(text);
+        if (type == LocalDate.class) return LocalDate.parse(text);
+        if (type == String.class) return text;
+        throw new IllegalArgumentException("Tipo de clave no soportado: " + type.getName());
+    }
+}
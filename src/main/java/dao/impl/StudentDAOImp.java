@@ -5,8 +5,6 @@ import jakarta.persistence.TypedQuery;
 import models.Module;
 import models.Student;
 import models.StudentModule;
-import org.hibernate.Session;
-import util.HibernateUtil;
 
 import java.util.List;
 import java.util.Optional;
@@ -18,7 +16,7 @@ public class StudentDAOImp extends GenericDAOImp<Student, Integer> implements St
 
     @Override
     public Student findByUserId(Integer userId) {
-        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
+        return inSession("Error al buscar estudiante por userId", session -> {
             TypedQuery<Student> query = session.createQuery(
                     "FROM Student WHERE user.id = :userId",
                     Student.class
@@ -26,9 +24,7 @@ public class StudentDAOImp extends GenericDAOImp<Student, Integer> implements St
             query.setParameter("userId", userId);
             List<Student> results = query.getResultList();
             return results.isEmpty() ? null : results.getFirst();
-        } catch (Exception e) {
-            throw new RuntimeException("Error al buscar estudiante por userId: " + e.getMessage(), e);
-        }
+        });
     }
 
     @Override
@@ -38,35 +34,31 @@ public class StudentDAOImp extends GenericDAOImp<Student, Integer> implements St
 
     @Override
     public List<Student> findByCourse(String course) {
-        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
+        return inSession("Error al buscar estudiantes por curso", session -> {
             TypedQuery<Student> query = session.createQuery(
                     "FROM Student WHERE course = :course",
                     Student.class
             );
             query.setParameter("course", course);
             return query.getResultList();
-        } catch (Exception e) {
-            throw new RuntimeException("Error al buscar estudiantes por curso: " + e.getMessage(), e);
-        }
+        });
     }
 
     @Override
     public List<Student> findByGradeGroup(String gradeGroup) {
-        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
+        return inSession("Error al buscar estudiantes por grupo", session -> {
             TypedQuery<Student> query = session.createQuery(
                     "FROM Student WHERE gradeGroup = :gradeGroup",
                     Student.class
             );
             query.setParameter("gradeGroup", gradeGroup);
             return query.getResultList();
-        } catch (Exception e) {
-            throw new RuntimeException("Error al buscar estudiantes por grupo: " + e.getMessage(), e);
-        }
+        });
     }
 
     @Override
     public List<Student> findByCourseAndGradeGroup(String course, String gradeGroup) {
-        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
+        return inSession("Error al buscar estudiantes por curso y grupo", session -> {
             TypedQuery<Student> query = session.createQuery(
                     "FROM Student WHERE course = :course AND gradeGroup = :gradeGroup",
                     Student.class
@@ -74,56 +66,48 @@ public class StudentDAOImp extends GenericDAOImp<Student, Integer> implements St
             query.setParameter("course", course);
             query.setParameter("gradeGroup", gradeGroup);
             return query.getResultList();
-        } catch (Exception e) {
-            throw new RuntimeException("Error al buscar estudiantes por curso y grupo: " + e.getMessage(), e);
-        }
+        });
     }
 
     @Override
     public List<Module> getModulesByStudent(Integer studentId) {
-        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
+        return inSession("Error al obtener módulos del estudiante", session -> {
             TypedQuery<Module> query = session.createQuery(
                     "SELECT sm.module FROM StudentModule sm WHERE sm.student.id = :studentId",
                     Module.class
             );
             query.setParameter("studentId", studentId);
             return query.getResultList();
-        } catch (Exception e) {
-            throw new RuntimeException("Error al obtener módulos del estudiante: " + e.getMessage(), e);
-        }
+        });
     }
 
     @Override
     public List<StudentModule> getEnrollmentsByStudent(Integer studentId) {
-        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
+        return inSession("Error al obtener matrículas del estudiante", session -> {
             TypedQuery<StudentModule> query = session.createQuery(
                     "FROM StudentModule WHERE student.id = :studentId",
                     StudentModule.class
             );
             query.setParameter("studentId", studentId);
             return query.getResultList();
-        } catch (Exception e) {
-            throw new RuntimeException("Error al obtener matrículas del estudiante: " + e.getMessage(), e);
-        }
+        });
     }
 
     @Override
     public List<Student> findByModule(Integer moduleId) {
-        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
+        return inSession("Error al buscar estudiantes por módulo", session -> {
             TypedQuery<Student> query = session.createQuery(
                     "SELECT sm.student FROM StudentModule sm WHERE sm.module.id = :moduleId",
                     Student.class
             );
             query.setParameter("moduleId", moduleId);
             return query.getResultList();
-        } catch (Exception e) {
-            throw new RuntimeException("Error al buscar estudiantes por módulo: " + e.getMessage(), e);
-        }
+        });
     }
 
     @Override
     public boolean isEnrolledInModule(Integer studentId, Integer moduleId) {
-        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
+        return inSession("Error al verificar la matrícula", session -> {
             TypedQuery<Long> query = session.createQuery(
                     "SELECT COUNT(sm) FROM StudentModule sm WHERE sm.student.id = :studentId AND sm.module.id = :moduleId",
                     Long.class
@@ -131,48 +115,40 @@ public class StudentDAOImp extends GenericDAOImp<Student, Integer> implements St
             query.setParameter("studentId", studentId);
             query.setParameter("moduleId", moduleId);
             return query.getSingleResult() > 0;
-        } catch (Exception e) {
-            throw new RuntimeException("Error al verificar la matrícula: " + e.getMessage(), e);
-        }
+        });
     }
 
     @Override
     public long countModulesByStudent(Integer studentId) {
-        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
+        return inSession("Error al contar módulos del estudiante", session -> {
             TypedQuery<Long> query = session.createQuery(
                     "SELECT COUNT(sm) FROM StudentModule sm WHERE sm.student.id = :studentId",
                     Long.class
             );
             query.setParameter("studentId", studentId);
             return query.getSingleResult();
-        } catch (Exception e) {
-            throw new RuntimeException("Error al contar módulos del estudiante: " + e.getMessage(), e);
-        }
+        });
     }
 
     @Override
     public List<String> findAllCourses() {
-        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
+        return inSession("Error al obtener cursos", session -> {
             TypedQuery<String> query = session.createQuery(
                     "SELECT DISTINCT s.course FROM Student s ORDER BY s.course",
                     String.class
             );
             return query.getResultList();
-        } catch (Exception e) {
-            throw new RuntimeException("Error al obtener cursos: " + e.getMessage(), e);
-        }
+        });
     }
 
     @Override
     public List<String> findAllGradeGroups() {
-        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
+        return inSession("Error al obtener grupos", session -> {
             TypedQuery<String> query = session.createQuery(
                     "SELECT DISTINCT s.gradeGroup FROM Student s ORDER BY s.gradeGroup",
                     String.class
             );
             return query.getResultList();
-        } catch (Exception e) {
-            throw new RuntimeException("Error al obtener grupos: " + e.getMessage(), e);
-        }
+        });
     }
 }
\ No newline at end of file
@@ -1,18 +1,30 @@
 package dao.impl;
 
+import dao.dto.GradeExportRow;
+import dao.dto.GradebookEntry;
+import dao.dto.GradebookSort;
+import dao.dto.ModuleGradeSummary;
+import dao.dto.Page;
+import dao.dto.StudentGradesOverview;
 import dao.interfaces.StudentModuleDAO;
 import jakarta.persistence.TypedQuery;
 import models.Grade;
+import models.GradeAggregate;
 import models.Student;
 import models.Module;
 import models.StudentModule;
 import org.hibernate.Session;
-import org.hibernate.Transaction;
-import util.HibernateUtil;
+import org.hibernate.query.Query;
+import util.SearchIndex;
 
 import java.math.BigDecimal;
+import java.math.MathContext;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
 public class StudentModuleDAOImp extends GenericDAOImp<StudentModule, Integer> implements StudentModuleDAO {
 
@@ -20,9 +32,39 @@ public class StudentModuleDAOImp extends GenericDAOImp<StudentModule, Integer> i
         super(StudentModule.class);
     }
 
+    // Las altas guardan el resumen de notas (GradeAggregate) de cada matrícula en la misma transacción:
+    // el cuaderno de notas por páginas ordena y filtra sobre grade_aggregates
+
+    @Override
+    public void save(StudentModule enrollment) {
+        runInTransaction("Error al guardar", session -> {
+            session.persist(enrollment);
+            createAggregate(session, enrollment);
+        });
+    }
+
+    @Override
+    public void saveAll(Collection<? extends StudentModule> enrollments) {
+        runInTransaction("Error al guardar en lote", session -> {
+            for (StudentModule enrollment : enrollments) {
+                session.persist(enrollment);
+                createAggregate(session, enrollment);
+            }
+        });
+    }
+
+    @Override
+    public void saveOrUpdate(StudentModule enrollment) {
+        if (enrollment.getId() == null) {
+            save(enrollment);
+        } else {
+            update(enrollment);
+        }
+    }
+
     @Override
     public StudentModule findByStudentAndModule(Integer studentId, Integer moduleId) {
-        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
+        return inSession("Error al buscar matrícula", session -> {
             TypedQuery<StudentModule> query = session.createQuery(
                     "FROM StudentModule WHERE student.id = :studentId AND module.id = :moduleId",
                     StudentModule.class
@@ -31,9 +73,7 @@ public class StudentModuleDAOImp extends GenericDAOImp<StudentModule, Integer> i
             query.setParameter("moduleId", moduleId);
             List<StudentModule> results = query.getResultList();
             return results.isEmpty() ? null : results.getFirst();
-        } catch (Exception e) {
-            throw new RuntimeException("Error al buscar matrícula: " + e.getMessage(), e);
-        }
+        });
     }
 
     @Override
@@ -43,49 +83,306 @@ public class StudentModuleDAOImp extends GenericDAOImp<StudentModule, Integer> i
 
     @Override
     public List<StudentModule> findByStudent(Integer studentId) {
-        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
+        return inSession("Error al buscar matrículas por estudiante", session -> {
             TypedQuery<StudentModule> query = session.createQuery(
                     "FROM StudentModule WHERE student.id = :studentId",
                     StudentModule.class
             );
             query.setParameter("studentId", studentId);
             return query.getResultList();
-        } catch (Exception e) {
-            throw new RuntimeException("Error al buscar matrículas por estudiante: " + e.getMessage(), e);
-        }
+        });
     }
 
     @Override
     public List<StudentModule> findByModule(Integer moduleId) {
-        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
+        return inSession("Error al buscar matrículas por módulo", session -> {
             TypedQuery<StudentModule> query = session.createQuery(
                     "FROM StudentModule WHERE module.id = :moduleId",
                     StudentModule.class
             );
             query.setParameter("moduleId", moduleId);
             return query.getResultList();
-        } catch (Exception e) {
-            throw new RuntimeException("Error al buscar matrículas por módulo: " + e.getMessage(), e);
+        });
+    }
+
+    @Override
+    public Page<StudentModule> findByModulePage(Integer moduleId, String pageToken, int pageSize) {
+        checkPageSize(pageSize);
+        return inSession("Error al buscar matrículas por módulo", session -> {
+            String hql = "FROM StudentModule WHERE module.id = :moduleId"
+                    + (pageToken == null ? "" : " AND id > :afterId")
+                    + " ORDER BY id";
+
+            TypedQuery<StudentModule> query = session.createQuery(hql, StudentModule.class);
+            query.setParameter("moduleId", moduleId);
+            if (pageToken != null) {
+                query.setParameter("afterId", PageTokens.decode(pageToken, Integer.class)[0]);
+            }
+            query.setMaxResults(pageSize + 1);
+
+            return toPage(query.getResultList(), pageSize, sm -> new Object[]{sm.getId()});
+        });
+    }
+
+    @Override
+    public List<GradebookEntry> findGradebookByModule(Integer moduleId) {
+        return inSession("Error al obtener el cuaderno de notas", session -> {
+            // Una fila por matrícula: la última nota es la de mayor createdAt (y mayor ID si coinciden)
+            TypedQuery<GradebookEntry> query = session.createQuery(
+                    "SELECT new dao.dto.GradebookEntry(sm.id, u.firstName, u.lastName, s.course, s.gradeGroup, " +
+                            "gl.grade, AVG(g.grade), COUNT(g.id)) " +
+                            "FROM StudentModule sm " +
+                            "JOIN sm.student s " +
+                            "JOIN s.user u " +
+                            "LEFT JOIN sm.grades g " +
+                            "LEFT JOIN Grade gl ON gl.id = " +
+                            "(SELECT g2.id FROM Grade g2 WHERE g2.studentModule.id = sm.id " +
+                            "ORDER BY g2.createdAt DESC, g2.id DESC LIMIT 1) " +
+                            "WHERE sm.module.id = :moduleId " +
+                            "GROUP BY sm.id, u.firstName, u.lastName, s.course, s.gradeGroup, gl.grade " +
+                            "ORDER BY u.lastName, u.firstName, sm.id",
+                    GradebookEntry.class
+            );
+            query.setParameter("moduleId", moduleId);
+            return query.getResultList();
+        });
+    }
+
+    @Override
+    public Page<GradebookEntry> findGradebookPage(Integer moduleId, String nameFilter, GradebookSort sort,
+                                                  boolean ascending, String pageToken, int pageSize) {
+        checkPageSize(pageSize);
+        return inSession("Error al obtener el cuaderno de notas", session -> {
+            // Sin agrupar las notas: el resumen de cada matrícula es una fila de grade_aggregates
+            String sortKey = switch (sort) {
+                case NAME -> null;
+                case AVERAGE -> "CASE WHEN ga.gradeCount > 0 THEN ga.gradeSum / ga.gradeCount END";
+                case LAST_GRADE -> "ga.latestGrade";
+            };
+            // Por nombre, en el sentido pedido; con otro orden los empates van por nombre ascendente
+            boolean namesAscending = sort != GradebookSort.NAME || ascending;
+            String nameDirection = namesAscending ? "ASC" : "DESC";
+            String order = (sortKey == null ? "" : sortKey + (ascending ? " ASC" : " DESC") + " NULLS LAST, ")
+                    + "u.lastName " + nameDirection + ", u.firstName " + nameDirection + ", sm.id " + nameDirection;
+
+            // Clave de la última fila de la página anterior: valor ordenado (null si no tiene), apellidos,
+            // nombre e ID. La página empieza justo después, sin OFFSET
+            Object[] last = pageToken == null ? null
+                    : PageTokens.decode(pageToken, BigDecimal.class, String.class, String.class, Integer.class);
+            String seek = "";
+            if (last != null) {
+                String after = namesAscending ? " > " : " < ";
+                String namesAfter = "(u.lastName" + after + ":lastName OR (u.lastName = :lastName AND "
+                        + "(u.firstName" + after + ":firstName OR (u.firstName = :firstName AND sm.id" + after
+                        + ":lastId))))";
+                if (sortKey == null) {
+                    seek = " AND " + namesAfter;
+                } else if (last[0] == null) {
+                    // Ya en las filas sin valor, que van al final
+                    seek = " AND " + sortKey + " IS NULL AND " + namesAfter;
+                } else {
+                    seek = " AND (" + sortKey + (ascending ? " > " : " < ") + ":lastValue OR (" + sortKey
+                            + " = :lastValue AND " + namesAfter + ") OR " + sortKey + " IS NULL)";
+                }
+            }
+
+            TypedQuery<Object[]> query = session.createQuery(
+                    "SELECT sm.id, u.firstName, u.lastName, s.course, s.gradeGroup, " +
+                            "ga.latestGrade, ga.gradeSum, ga.gradeCount" + (sortKey == null ? "" : ", " + sortKey) + " " +
+                            "FROM StudentModule sm " +
+                            "JOIN sm.student s " +
+                            "JOIN s.user u " +
+                            "LEFT JOIN GradeAggregate ga ON ga.studentModuleId = sm.id " +
+                            "WHERE sm.module.id = :moduleId" + nameCondition(nameFilter) + seek + " " +
+                            "ORDER BY " + order,
+                    Object[].class
+            );
+            query.setParameter("moduleId", moduleId);
+            if (nameFilter != null) {
+                query.setParameter("name", namePattern(nameFilter));
+            }
+            if (last != null) {
+                if (sortKey != null && last[0] != null) {
+                    query.setParameter("lastValue", last[0]);
+                }
+                query.setParameter("lastName", last[1]);
+                query.setParameter("firstName", last[2]);
+                query.setParameter("lastId", last[3]);
+            }
+            query.setMaxResults(pageSize + 1);
+
+            // La clave lleva el valor tal como lo calculó la base de datos, para que el = de la siguiente
+            // página lo encuentre (la media que se muestra se calcula aquí)
+            Page<Object[]> rows = toPage(query.getResultList(), pageSize,
+                    row -> new Object[]{sortKey == null ? null : row[8], row[2], row[1], row[0]});
+
+            List<GradebookEntry> entries = new ArrayList<>();
+            for (Object[] row : rows.items()) {
+                long count = row[7] == null ? 0 : (Long) row[7];
+                BigDecimal average = count == 0 ? null
+                        : ((BigDecimal) row[6]).divide(BigDecimal.valueOf(count), MathContext.DECIMAL64);
+                entries.add(new GradebookEntry(
+                        (Integer) row[0],
+                        (String) row[1],
+                        (String) row[2],
+                        (String) row[3],
+                        (String) row[4],
+                        (BigDecimal) row[5],
+                        average,
+                        count
+                ));
+            }
+            return new Page<>(entries, rows.nextPageToken());
+        });
+    }
+
+    @Override
+    public long countGradebookByModule(Integer moduleId, String nameFilter) {
+        return inSession("Error al contar matrículas", session -> {
+            TypedQuery<Long> query = session.createQuery(
+                    "SELECT COUNT(sm) FROM StudentModule sm " +
+                            "JOIN sm.student s " +
+                            "JOIN s.user u " +
+                            "WHERE sm.module.id = :moduleId" + nameCondition(nameFilter),
+                    Long.class
+            );
+            query.setParameter("moduleId", moduleId);
+            if (nameFilter != null) {
+                query.setParameter("name", namePattern(nameFilter));
+            }
+            return query.getSingleResult();
+        });
+    }
+
+    // Filtro por nombre completo del alumno u (parámetro :name). Compara igual que SearchIndex en la lista
+    // en memoria: en minúsculas y sin acentos, y los % y _ que escriba el usuario no son comodines
+
+    private static final String ACCENTED = "áàâäãåéèêëíìîïóòôöõúùûüýÿñç";
+    private static final String UNACCENTED = "aaaaaaeeeeiiiiooooouuuuyync";
+    private static final String FOLDED_NAME = foldAccents("LOWER(CONCAT(u.firstName, ' ', u.lastName))");
+
+    private static String nameCondition(String nameFilter) {
+        return nameFilter == null ? "" : " AND " + FOLDED_NAME + " LIKE :name ESCAPE '!'";
+    }
+
+    private static String namePattern(String nameFilter) {
+        String escaped = SearchIndex.normalize(nameFilter)
+                .replace("!", "!!")
+                .replace("%", "!%")
+                .replace("_", "!_");
+        return "%" + escaped + "%";
+    }
+
+    private static String foldAccents(String expression) {
+        String folded = expression;
+        for (int i = 0; i < ACCENTED.length(); i++) {
+            folded = "REPLACE(" + folded + ", '" + ACCENTED.charAt(i) + "', '" + UNACCENTED.charAt(i) + "')";
         }
+        return folded;
+    }
+
+    @Override
+    public <R> R streamGradebookByModule(Integer moduleId, Function<Stream<GradeExportRow>, R> work) {
+        return streamGradebook("m.id = :value", moduleId, work);
+    }
+
+    @Override
+    public <R> R streamGradebookByCourse(String course, Function<Stream<GradeExportRow>, R> work) {
+        return streamGradebook("m.course = :value", course, work);
+    }
+
+    @Override
+    public <R> R streamGradebook(Function<Stream<GradeExportRow>, R> work) {
+        return streamGradebook(null, null, work);
+    }
+
+    /**
+     * Proyección plana (sin entidades ni proxies) del cuaderno de notas, leída con cursor
+     * @param condition Filtro sobre el módulo m con el parámetro :value, o null para todos
+     */
+    private <R> R streamGradebook(String condition, Object value, Function<Stream<GradeExportRow>, R> work) {
+        return scroll("Error al exportar el cuaderno de notas", session -> {
+            Query<GradeExportRow> query = session.createQuery(
+                    "SELECT new dao.dto.GradeExportRow(m.moduleName, m.course, u.lastName, u.firstName, " +
+                            "u.username, s.course, s.gradeGroup, g.grade, g.notes) " +
+                            "FROM StudentModule sm " +
+                            "JOIN sm.module m " +
+                            "JOIN sm.student s " +
+                            "JOIN s.user u " +
+                            "LEFT JOIN sm.grades g " +
+                            (condition == null ? "" : "WHERE " + condition + " ") +
+                            "ORDER BY m.moduleName, m.id, u.lastName, u.firstName, sm.id, g.createdAt, g.id",
+                    GradeExportRow.class
+            );
+            return condition == null ? query : query.setParameter("value", value);
+        }, work);
+    }
+
+    @Override
+    public StudentGradesOverview findGradesOverviewByStudent(Integer studentId, BigDecimal passingGrade) {
+        return inSession("Error al obtener el resumen de notas del alumno", session -> {
+            TypedQuery<Object[]> query = session.createQuery(
+                    "SELECT sm.id, m.id, m.moduleName, gl.grade, AVG(g.grade), SUM(g.grade), COUNT(g.id) " +
+                            "FROM StudentModule sm " +
+                            "JOIN sm.module m " +
+                            "LEFT JOIN sm.grades g " +
+                            "LEFT JOIN Grade gl ON gl.id = " +
+                            "(SELECT g2.id FROM Grade g2 WHERE g2.studentModule.id = sm.id " +
+                            "ORDER BY g2.createdAt DESC, g2.id DESC LIMIT 1) " +
+                            "WHERE sm.student.id = :studentId " +
+                            "GROUP BY sm.id, m.id, m.moduleName, gl.grade " +
+                            "ORDER BY m.moduleName",
+                    Object[].class
+            );
+            query.setParameter("studentId", studentId);
+
+            List<ModuleGradeSummary> modules = new ArrayList<>();
+            BigDecimal totalSum = BigDecimal.ZERO;
+            long totalCount = 0;
+
+            for (Object[] row : query.getResultList()) {
+                long count = (Long) row[6];
+                BigDecimal average = row[4] == null ? null : BigDecimal.valueOf((Double) row[4]);
+                Boolean passed = average == null ? null : average.compareTo(passingGrade) >= 0;
+
+                modules.add(new ModuleGradeSummary(
+                        (Integer) row[0],
+                        (Integer) row[1],
+                        (String) row[2],
+                        (BigDecimal) row[3],
+                        average,
+                        count,
+                        passed
+                ));
+
+                // La media general es la de todas las notas, no la media de las medias
+                if (row[5] != null) {
+                    totalSum = totalSum.add((BigDecimal) row[5]);
+                    totalCount += count;
+                }
+            }
+
+            BigDecimal overallAverage = totalCount == 0 ? null
+                    : totalSum.divide(BigDecimal.valueOf(totalCount), MathContext.DECIMAL64);
+            return new StudentGradesOverview(modules, overallAverage);
+        });
     }
 
     @Override
     public List<Grade> getGradesByEnrollment(Integer studentModuleId) {
-        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
+        return inSession("Error al obtener notas", session -> {
             TypedQuery<Grade> query = session.createQuery(
-                    "FROM Grade WHERE studentModule.id = :smId ORDER BY id DESC",
+                    "FROM Grade WHERE studentModule.id = :smId ORDER BY createdAt DESC, id DESC",
                     Grade.class
             );
             query.setParameter("smId", studentModuleId);
             return query.getResultList();
-        } catch (Exception e) {
-            throw new RuntimeException("Error al obtener notas: " + e.getMessage(), e);
-        }
+        });
     }
 
     @Override
     public boolean existsEnrollment(Integer studentId, Integer moduleId) {
-        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
+        return inSession("Error al verificar matrícula", session -> {
             TypedQuery<Long> query = session.createQuery(
                     "SELECT COUNT(sm) FROM StudentModule sm WHERE sm.student.id = :studentId AND sm.module.id = :moduleId",
                     Long.class
@@ -93,17 +390,12 @@ public class StudentModuleDAOImp extends GenericDAOImp<StudentModule, Integer> i
             query.setParameter("studentId", studentId);
             query.setParameter("moduleId", moduleId);
             return query.getSingleResult() > 0;
-        } catch (Exception e) {
-            throw new RuntimeException("Error al verificar matrícula: " + e.getMessage(), e);
-        }
+        });
     }
 
     @Override
     public StudentModule enrollStudent(Integer studentId, Integer moduleId) {
-        Transaction transaction = null;
-        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
-            transaction = session.beginTransaction();
-
+        return inTransaction("Error al matricular estudiante", session -> {
             Student student = session.find(Student.class, studentId);
             Module module = session.find(Module.class, moduleId);
 
@@ -116,54 +408,37 @@ public class StudentModuleDAOImp extends GenericDAOImp<StudentModule, Integer> i
 
             StudentModule enrollment = new StudentModule(student, module);
             session.persist(enrollment);
+            createAggregate(session, enrollment);
 
-            transaction.commit();
             return enrollment;
-        } catch (Exception e) {
-            if (transaction != null) {
-                transaction.rollback();
-            }
-            throw new RuntimeException("Error al matricular estudiante: " + e.getMessage(), e);
-        }
+        });
     }
 
     @Override
     public void unenrollStudent(Integer studentId, Integer moduleId) {
-        Transaction transaction = null;
-        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
-            transaction = session.beginTransaction();
-
+        runInTransaction("Error al desmatricular estudiante", session -> {
             StudentModule enrollment = findByStudentAndModule(studentId, moduleId);
             if (enrollment != null) {
                 session.remove(enrollment);
             }
-
-            transaction.commit();
-        } catch (Exception e) {
-            if (transaction != null) {
-                transaction.rollback();
-            }
-            throw new RuntimeException("Error al desmatricular estudiante: " + e.getMessage(), e);
-        }
+        });
     }
 
     @Override
     public List<StudentModule> findByStudentWithGrades(Integer studentId) {
-        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
+        return inSession("Error al buscar matrículas con notas", session -> {
             TypedQuery<StudentModule> query = session.createQuery(
                     "SELECT DISTINCT sm FROM StudentModule sm LEFT JOIN FETCH sm.grades WHERE sm.student.id = :studentId",
                     StudentModule.class
             );
             query.setParameter("studentId", studentId);
             return query.getResultList();
-        } catch (Exception e) {
-            throw new RuntimeException("Error al buscar matrículas con notas: " + e.getMessage(), e);
-        }
+        });
     }
 
     @Override
     public BigDecimal calculateAverageGrade(Integer studentModuleId) {
-        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
+        return inSession("Error al calcular nota media", session -> {
             TypedQuery<BigDecimal> query = session.createQuery(
                     "SELECT AVG(g.grade) FROM Grade g WHERE g.studentModule.id = :smId",
                     BigDecimal.class
@@ -171,14 +446,12 @@ public class StudentModuleDAOImp extends GenericDAOImp<StudentModule, Integer> i
             query.setParameter("smId", studentModuleId);
             BigDecimal average = query.getSingleResult();
             return average != null ? average : BigDecimal.ZERO;
-        } catch (Exception e) {
-            throw new RuntimeException("Error al calcular nota media: " + e.getMessage(), e);
-        }
+        });
     }
 
     @Override
     public StudentModule findByIdWithGrades(Integer studentModuleId) {
-        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
+        return inSession("Error al buscar matrícula con notas", session -> {
             TypedQuery<StudentModule> query = session.createQuery(
                     "SELECT DISTINCT sm FROM StudentModule sm LEFT JOIN FETCH sm.grades WHERE sm.id = :id",
                     StudentModule.class
@@ -186,36 +459,40 @@ public class StudentModuleDAOImp extends GenericDAOImp<StudentModule, Integer> i
             query.setParameter("id", studentModuleId);
             List<StudentModule> results = query.getResultList();
             return results.isEmpty() ? null : results.getFirst();
-        } catch (Exception e) {
-            throw new RuntimeException("Error al buscar matrícula con notas: " + e.getMessage(), e);
-        }
+        });
     }
 
     @Override
     public long countByStudent(Integer studentId) {
-        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
+        return inSession("Error al contar matrículas", session -> {
             TypedQuery<Long> query = session.createQuery(
                     "SELECT COUNT(sm) FROM StudentModule sm WHERE sm.student.id = :studentId",
                     Long.class
             );
             query.setParameter("studentId", studentId);
             return query.getSingleResult();
-        } catch (Exception e) {
-            throw new RuntimeException("Error al contar matrículas: " + e.getMessage(), e);
-        }
+        });
     }
 
     @Override
     public long countByModule(Integer moduleId) {
-        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
+        return inSession("Error al contar matrículas", session -> {
             TypedQuery<Long> query = session.createQuery(
                     "SELECT COUNT(sm) FROM StudentModule sm WHERE sm.module.id = :moduleId",
                     Long.class
             );
             query.setParameter("moduleId", moduleId);
             return query.getSingleResult();
-        } catch (Exception e) {
-            throw new RuntimeException("Error al contar matrículas: " + e.getMessage(), e);
-        }
+        });
+    }
+
+    /**
+     * Crea el resumen de notas de una matrícula recién persistida (con las notas que traiga, si las hay)
+     */
+    private void createAggregate(Session session, StudentModule enrollment) {
+        GradeAggregate aggregate = new GradeAggregate(enrollment);
+        // include da lo mismo que al recalcularlo, en cualquier orden
+        enrollment.getGrades().forEach(aggregate::include);
+        session.persist(aggregate);
     }
-}
\ No newline at end of file
+}
@@ -5,8 +5,6 @@ import jakarta.persistence.TypedQuery;
 import models.Module;
 import models.Teacher;
 import org.hibernate.Session;
-import org.hibernate.Transaction;
-import util.HibernateUtil;
 
 import java.util.List;
 import java.util.Optional;
@@ -19,8 +17,7 @@ public class TeacherDAOImp extends GenericDAOImp<Teacher, Integer> implements Te
 
     @Override
     public Teacher findByUserId(Integer userId) {
-        try (Session session = HibernateUtil.getSessionFactory().openSession()){
-
+        return inSession("Error al buscar profesor por userId", session -> {
             TypedQuery<Teacher> query = session.createQuery(
                     "FROM Teacher WHERE user.id = :userId",
                     Teacher.class
@@ -28,9 +25,7 @@ public class TeacherDAOImp extends GenericDAOImp<Teacher, Integer> implements Te
             query.setParameter("userId", userId);
             List<Teacher> results = query.getResultList();
             return results.isEmpty() ? null : results.getFirst();
-        } catch (Exception e){
-            throw new RuntimeException("Error al buscar profesor por userId: " + e.getMessage(), e);
-        }
+        });
     }
 
     @Override
@@ -40,63 +35,55 @@ public class TeacherDAOImp extends GenericDAOImp<Teacher, Integer> implements Te
 
     @Override
     public List<Teacher> findByDepartment(String department) {
-        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
+        return inSession("Error al buscar profesores por departamento", session -> {
             TypedQuery<Teacher> query = session.createQuery(
                     "FROM Teacher WHERE department = :dept",
                     Teacher.class
             );
             query.setParameter("dept", department);
             return query.getResultList();
-        } catch (Exception e) {
-            throw new RuntimeException("Error al buscar profesores por departamento: " + e.getMessage(), e);
-        }
+        });
     }
 
     @Override
     public List<Teacher> findBySpecialty(String specialty) {
-        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
+        return inSession("Error al buscar profesores por especialidad", session -> {
             TypedQuery<Teacher> query = session.createQuery(
                     "FROM Teacher WHERE specialty = :spec",
                     Teacher.class
             );
             query.setParameter("spec", specialty);
             return query.getResultList();
-        } catch (Exception e) {
-            throw new RuntimeException("Error al buscar profesores por especialidad: " + e.getMessage(), e);
-        }
+        });
     }
 
     @Override
     public List<Module> getModulesByTeacher(Integer teacherId) {
-        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
+        return inSession("Error al obtener módulos del profesor", session -> {
             TypedQuery<Module> query = session.createQuery(
                     "SELECT m FROM Module m JOIN m.teachers t WHERE t.id = :teacherId",
                     Module.class
             );
             query.setParameter("teacherId", teacherId);
             return query.getResultList();
-        } catch (Exception e) {
-            throw new RuntimeException("Error al obtener módulos del profesor: " + e.getMessage(), e);
-        }
+        });
     }
 
     @Override
     public List<Teacher> findByModule(Integer moduleId) {
-        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
+        return inSession("Error al buscar profesores por módulo", session -> {
             TypedQuery<Teacher> query = session.createQuery(
                     "SELECT t FROM Teacher t JOIN t.modules m WHERE m.id = :moduleId",
                     Teacher.class
             );
             query.setParameter("moduleId", moduleId);
             return query.getResultList();
-        } catch (Exception e) {
-            throw new RuntimeException("Error al buscar profesores por módulo: " + e.getMessage(), e);
-        }
+        });
     }
 
     @Override
     public boolean teachesModule(Integer teacherId, Integer moduleId) {
-        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
+        return inSession("Error al verificar si profesor imparte módulo", session -> {
             TypedQuery<Long> query = session.createQuery(
                     "SELECT COUNT(t) FROM Teacher t JOIN t.modules m WHERE t.id = :teacherId AND m.id = :moduleId",
                     Long.class
@@ -104,66 +91,54 @@ public class TeacherDAOImp extends GenericDAOImp<Teacher, Integer> implements Te
             query.setParameter("teacherId", teacherId);
             query.setParameter("moduleId", moduleId);
             return query.getSingleResult() > 0;
-        } catch (Exception e) {
-            throw new RuntimeException("Error al verificar si profesor imparte módulo: " + e.getMessage(), e);
-        }
+        });
     }
 
     @Override
     public void assignModule(Integer teacherId, Integer moduleId) {
-        Transaction transaction = null;
-        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
-            transaction = session.beginTransaction();
-
-            session.createNativeMutationQuery(
-                            "INSERT INTO teacher_module (teacher_id, module_id) VALUES (:teacherId, :moduleId)"
+        runInTransaction("Error al asignar módulo a profesor", session -> {
+            // Declarar teacher_module evita que Hibernate vacíe toda la caché de segundo nivel
+            nativeMutation(session,
+                            "INSERT INTO teacher_module (teacher_id, module_id) VALUES (:teacherId, :moduleId)",
+                            "teacher_module"
                     )
                     .setParameter("teacherId", teacherId)
                     .setParameter("moduleId", moduleId)
                     .executeUpdate();
-
-            transaction.commit();
-        } catch (Exception e) {
-            if (transaction != null) {
-                transaction.rollback();
-            }
-            throw new RuntimeException("Error al asignar módulo a profesor: " + e.getMessage(), e);
-        }
+            evictModules(session, teacherId);
+        });
     }
 
     @Override
     public void unassignModule(Integer teacherId, Integer moduleId) {
-        Transaction transaction = null;
-        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
-            transaction = session.beginTransaction();
-
-            session.createNativeMutationQuery(
-                            "DELETE FROM teacher_module WHERE teacher_id = :teacherId AND module_id = :moduleId"
+        runInTransaction("Error al desasignar módulo de profesor", session -> {
+            nativeMutation(session,
+                            "DELETE FROM teacher_module WHERE teacher_id = :teacherId AND module_id = :moduleId",
+                            "teacher_module"
                     )
                     .setParameter("teacherId", teacherId)
                     .setParameter("moduleId", moduleId)
                     .executeUpdate();
-
-            transaction.commit();
-        } catch (Exception e) {
-            if (transaction != null) {
-                transaction.rollback();
-            }
-            throw new RuntimeException("Error al desasignar módulo de profesor: " + e.getMessage(), e);
-        }
+            evictModules(session, teacherId);
+        });
     }
 
     @Override
     public long countModulesByTeacher(Integer teacherId) {
-        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
+        return inSession("Error al contar módulos del profesor", session -> {
             TypedQuery<Long> query = session.createQuery(
                     "SELECT COUNT(m) FROM Module m JOIN m.teachers t WHERE t.id = :teacherId",
                     Long.class
             );
             query.setParameter("teacherId", teacherId);
             return query.getSingleResult();
-        } catch (Exception e) {
-            throw new RuntimeException("Error al contar módulos del profesor: " + e.getMessage(), e);
-        }
+        });
+    }
+
+    // Una consulta nativa no actualiza la colección cacheada: se descarta solo la de este profesor
+
+    private void evictModules(Session session, Integer teacherId) {
+        session.getSessionFactory().getCache()
+                .evictCollectionData(Teacher.class.getName() + ".modules", teacherId);
     }
-}
\ No newline at end of file
+}
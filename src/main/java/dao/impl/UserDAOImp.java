@@ -1,25 +1,42 @@
 package dao.impl;
 
+import dao.dto.SessionPrincipal;
 import dao.interfaces.UserDAO;
+import models.Module;
+import models.Teacher;
 import models.User;
 import models.UserType;
-import org.hibernate.Session;
-import org.hibernate.Transaction;
 import jakarta.persistence.TypedQuery;
-import util.HibernateUtil;
+import org.hibernate.Session;
+import org.hibernate.dialect.MySQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.query.NativeQuery;
+import util.SearchIndex;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 
 public class UserDAOImp extends GenericDAOImp <User, Integer> implements UserDAO {
 
+    // Con -Dapp.search.fullText=false se usa el índice en memoria también en MySQL (para comparar)
+    private static final boolean fullTextEnabled =
+            Boolean.parseBoolean(System.getProperty("app.search.fullText", "true"));
+
+    // innodb_ft_min_token_size por defecto: las palabras más cortas no están en el índice FULLTEXT
+    private static final int FULLTEXT_MIN_WORD = 3;
+
     public UserDAOImp() {
         super(User.class);
     }
 
     @Override
     public User findByUsername(String username) {
-        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
+        return inSession("Error al buscar usuario por username", session -> {
             TypedQuery<User> query = session.createQuery(
                     "FROM User WHERE username = :username",
                     User.class
@@ -27,9 +44,7 @@ public class UserDAOImp extends GenericDAOImp <User, Integer> implements UserDAO
             query.setParameter("username", username);
             List<User> results = query.getResultList();
             return results.isEmpty() ? null : results.getFirst();
-        } catch (Exception e) {
-            throw new RuntimeException("Error al buscar usuario por username: " + e.getMessage(), e);
-        }
+        });
     }
 
     @Override
@@ -39,7 +54,7 @@ public class UserDAOImp extends GenericDAOImp <User, Integer> implements UserDAO
 
     @Override
     public User validateLogin(String username, String passwordHash) {
-        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
+        return inSession("Error al validar login", session -> {
             TypedQuery<User> query = session.createQuery(
                     "FROM User WHERE username = :username AND passwordHash = :passwordHash",
                     User.class
@@ -48,59 +63,181 @@ public class UserDAOImp extends GenericDAOImp <User, Integer> implements UserDAO
             query.setParameter("passwordHash", passwordHash);
             List<User> results = query.getResultList();
             return results.isEmpty() ? null : results.getFirst();
-        } catch (Exception e) {
-            throw new RuntimeException("Error al validar login: " + e.getMessage(), e);
-        }
+        });
+    }
+
+    @Override
+    public SessionPrincipal login(String username, String passwordHash) {
+        return inSession("Error al iniciar sesión", session -> {
+            // Los perfiles son 1:1 inversos (mappedBy): sin traerlos en la consulta Hibernate lanza
+            // un SELECT por cada lado al cargar el usuario. El profesor trae también sus módulos
+            TypedQuery<User> query = session.createQuery(
+                    "SELECT u FROM User u " +
+                    "LEFT JOIN FETCH u.teacher t " +
+                    "LEFT JOIN FETCH t.modules " +
+                    "LEFT JOIN FETCH u.student " +
+                    "WHERE u.username = :username AND u.passwordHash = :passwordHash",
+                    User.class
+            );
+            query.setParameter("username", username);
+            query.setParameter("passwordHash", passwordHash);
+            List<User> results = query.getResultList();
+            if (results.isEmpty()) {
+                return null;
+            }
+
+            User user = results.getFirst();
+            Teacher teacher = user.getTeacher();
+            List<Module> modules = teacher == null ? List.of() : teacher.getModules().stream()
+                    .sorted(Comparator.comparing(Module::getId))
+                    .toList();
+            return new SessionPrincipal(user, teacher, user.getStudent(), modules);
+        });
     }
 
     @Override
     public List<User> findByUserType(UserType userType) {
-        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
+        return inSession("Error al buscar usuarios por tipo", session -> {
             TypedQuery<User> query = session.createQuery(
                     "FROM User WHERE userType = :userType",
                     User.class
             );
             query.setParameter("userType", userType);
             return query.getResultList();
-        } catch (Exception e) {
-            throw new RuntimeException("Error al buscar usuarios por tipo: " + e.getMessage(), e);
-        }
+        });
     }
 
     @Override
     public boolean existsUsername(String username) {
-        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
+        return inSession("Error al verificar username", session -> {
             TypedQuery<Long> query = session.createQuery(
                     "SELECT COUNT(u) FROM User u WHERE u.username = :username",
                     Long.class
             );
             query.setParameter("username", username);
             return query.getSingleResult() > 0;
-        } catch (Exception e) {
-            throw new RuntimeException("Error al verificar username: " + e.getMessage(), e);
-        }
+        });
     }
 
     @Override
     public List<User> searchByName(String searchTerm) {
-        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
+        return inSession("Error al buscar usuarios por nombre", session -> {
             TypedQuery<User> query = session.createQuery(
                     "FROM User WHERE LOWER(firstName) LIKE LOWER(:term) OR LOWER(lastName) LIKE LOWER(:term)",
                     User.class
             );
             query.setParameter("term", "%" + searchTerm + "%");
             return query.getResultList();
-        } catch (Exception e) {
-            throw new RuntimeException("Error al buscar usuarios por nombre: " + e.getMessage(), e);
+        });
+    }
+
+    @Override
+    public List<User> fullTextSearch(String query, int maxResults) {
+        if (maxResults <= 0) {
+            throw new IllegalArgumentException("El número máximo de resultados debe ser mayor que 0: " + maxResults);
         }
+        // Sin acentos ni mayúsculas, y sin los operadores de MATCH ... AGAINST (+, -, *, comillas...)
+        List<String> words = Arrays.stream(SearchIndex.normalize(query).split("[^\\p{L}\\p{N}]+"))
+                .filter(word -> !word.isEmpty())
+                .distinct()
+                .toList();
+        if (words.isEmpty()) {
+            return List.of();
+        }
+
+        return inSession("Error en la búsqueda de usuarios", session -> {
+            if (fullTextEnabled && hasFullTextIndex(session)) {
+                return searchFullTextIndex(session, words, maxResults);
+            }
+            List<Integer> ids = UserNameIndex.search(session, words, maxResults);
+            // findMultiple devuelve en el orden de ids (y pasa por la caché de segundo nivel)
+            return session.findMultiple(User.class, ids).stream()
+                    .filter(Objects::nonNull)
+                    .toList();
+        });
+    }
+
+    // El índice FULLTEXT lo crea la migración V4 solo en MySQL
+
+    private static boolean hasFullTextIndex(Session session) {
+        SessionFactoryImplementor factory = session.getSessionFactory().unwrap(SessionFactoryImplementor.class);
+        return factory.getJdbcServices().getDialect() instanceof MySQLDialect;
     }
 
+    private static List<User> searchFullTextIndex(Session session, List<String> words, int maxResults) {
+        // Cada palabra larga es obligatoria y vale como prefijo; las cortas no están en el índice
+        // y se comprueban con LIKE sobre las filas que ya encontró MATCH
+        StringBuilder terms = new StringBuilder();
+        List<String> shortWords = new ArrayList<>();
+        for (String word : words) {
+            if (word.length() >= FULLTEXT_MIN_WORD) {
+                terms.append(terms.isEmpty() ? "" : " ").append('+').append(word).append('*');
+            } else {
+                shortWords.add(word);
+            }
+        }
+
+        String match = "MATCH(first_name, last_name) AGAINST(:terms IN BOOLEAN MODE)";
+        StringBuilder sql = new StringBuilder("SELECT * FROM users WHERE ");
+        sql.append(terms.isEmpty() ? "1 = 1" : match);
+        for (int i = 0; i < shortWords.size(); i++) {
+            sql.append(" AND (LOWER(first_name) LIKE :w").append(i)
+                    .append(" OR LOWER(last_name) LIKE :w").append(i).append(')');
+        }
+        sql.append(" ORDER BY ").append(terms.isEmpty() ? "" : match + " DESC, ")
+                .append("last_name, first_name, id");
+
+        NativeQuery<User> query = session.createNativeQuery(sql.toString(), User.class);
+        if (!terms.isEmpty()) {
+            query.setParameter("terms", terms.toString());
+        }
+        for (int i = 0; i < shortWords.size(); i++) {
+            query.setParameter("w" + i, "%" + shortWords.get(i) + "%");
+        }
+        return query.setMaxResults(maxResults).getResultList();
+    }
+
+    // Las escrituras de usuarios invalidan el índice en memoria de fullTextSearch
+
     @Override
-    public void changePassword(Integer userId, String newPasswordHash) {
-        Transaction transaction = null;
-        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
-            transaction = session.beginTransaction();
+    public void save(User entity) {
+        super.save(entity);
+        UserNameIndex.invalidate();
+    }
+
+    @Override
+    public void saveAll(Collection<? extends User> entities) {
+        super.saveAll(entities);
+        UserNameIndex.invalidate();
+    }
+
+    @Override
+    public void update(User entity) {
+        super.update(entity);
+        UserNameIndex.invalidate();
+    }
+
+    @Override
+    public void saveOrUpdate(User entity) {
+        super.saveOrUpdate(entity);
+        UserNameIndex.invalidate();
+    }
 
+    @Override
+    public void delete(User entity) {
+        super.delete(entity);
+        UserNameIndex.invalidate();
+    }
+
+    @Override
+    public void deleteById(Integer id) {
+        super.deleteById(id);
+        UserNameIndex.invalidate();
+    }
+
+    @Override
+    public void changePassword(Integer userId, String newPasswordHash) {
+        runInTransaction("Error al cambiar contraseña", session -> {
             User user = session.find(User.class, userId);
             if (user != null) {
                 user.setPasswordHash(newPasswordHash);
@@ -108,13 +245,6 @@ public class UserDAOImp extends GenericDAOImp <User, Integer> implements UserDAO
             } else {
                 throw new RuntimeException("Usuario no encontrado con ID: " + userId);
             }
-
-            transaction.commit();
-        } catch (Exception e) {
-            if (transaction != null) {
-                transaction.rollback();
-            }
-            throw new RuntimeException("Error al cambiar contraseña: " + e.getMessage(), e);
-        }
+        });
     }
 }
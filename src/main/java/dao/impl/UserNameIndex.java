@@ -0,0 +1,138 @@
+package dao.impl;
+
+import org.hibernate.Session;
+import util.SearchIndex;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Índice en memoria de los nombres de usuario para UserDAOImp.fullTextSearch en bases de datos
+ * sin índices de texto completo (H2). Guarda solo ID, nombre y apellidos de cada usuario y se
+ * construye con una consulta la primera vez que se busca.
+ *
+ * Lo invalidan las escrituras de UserDAOImp; los usuarios creados o cambiados por otro camino
+ * (SQL, importaciones, otra instancia) aparecen como mucho a los -Dapp.search.indexTtlMs (30 s por defecto).
+ * Como MATCH ... AGAINST, cada palabra buscada tiene que aparecer en el nombre o los apellidos
+ * y se ordena por relevancia: palabra exacta, después principio de palabra y después dentro de una palabra.
+ */
+final class UserNameIndex {
+
+    private static final long maxAgeNanos =
+            TimeUnit.MILLISECONDS.toNanos(Long.getLong("app.search.indexTtlMs", 30_000));
+
+    private static final Comparator<Match> BY_RELEVANCE = Comparator.comparingInt(Match::score).reversed()
+            .thenComparing(match -> match.entry().lastName())
+            .thenComparing(match -> match.entry().firstName())
+            .thenComparingInt(match -> match.entry().id());
+
+    private static volatile Snapshot snapshot;
+
+    private UserNameIndex() {
+    }
+
+    /**
+     * IDs de los usuarios que coinciden con words, de más a menos relevante
+     * @param session Sesión con la que se construye el índice si hace falta
+     * @param words Palabras buscadas, ya normalizadas (SearchIndex.normalize)
+     * @param maxResults Número máximo de IDs
+     */
+    static List<Integer> search(Session session, List<String> words, int maxResults) {
+        Snapshot current = current(session);
+
+        // Se parte de las filas que tienen la palabra más larga (la más selectiva)
+        String longest = words.stream().max(Comparator.comparingInt(String::length)).orElse("");
+        List<Match> matches = new ArrayList<>();
+        for (Entry entry : current.index().find(longest)) {
+            int score = score(entry, words);
+            if (score > 0) {
+                matches.add(new Match(entry, score));
+            }
+        }
+
+        matches.sort(BY_RELEVANCE);
+        List<Integer> ids = new ArrayList<>(Math.min(matches.size(), maxResults));
+        for (int i = 0; i < matches.size() && i < maxResults; i++) {
+            ids.add(matches.get(i).entry().id());
+        }
+        return ids;
+    }
+
+    /**
+     * Descarta el índice: se vuelve a construir en la siguiente búsqueda
+     */
+    static void invalidate() {
+        snapshot = null;
+    }
+
+    private static Snapshot current(Session session) {
+        Snapshot current = snapshot;
+        if (current != null && !current.isExpired()) {
+            return current;
+        }
+        synchronized (UserNameIndex.class) {
+            current = snapshot;
+            if (current == null || current.isExpired()) {
+                current = build(session);
+                snapshot = current;
+            }
+            return current;
+        }
+    }
+
+    private static Snapshot build(Session session) {
+        List<Object[]> rows = session.createQuery(
+                "SELECT u.id, u.firstName, u.lastName FROM User u", Object[].class
+        ).getResultList();
+
+        List<Entry> entries = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            String firstName = row[1] == null ? "" : (String) row[1];
+            String lastName = row[2] == null ? "" : (String) row[2];
+            String[] nameWords = SearchIndex.normalize(firstName + " " + lastName).split(" ");
+            entries.add(new Entry((Integer) row[0], firstName, lastName, nameWords));
+        }
+        SearchIndex<Entry> index = SearchIndex.build(entries, entry -> entry.firstName() + " " + entry.lastName());
+        return new Snapshot(index, System.nanoTime());
+    }
+
+    // Suma de la mejor coincidencia de cada palabra buscada; 0 si alguna no aparece
+
+    private static int score(Entry entry, List<String> words) {
+        int total = 0;
+        for (String word : words) {
+            int best = 0;
+            for (String nameWord : entry.nameWords()) {
+                if (nameWord.equals(word)) {
+                    best = 3;
+                    break;
+                }
+                if (nameWord.startsWith(word)) {
+                    best = Math.max(best, 2);
+                } else if (nameWord.contains(word)) {
+                    best = Math.max(best, 1);
+                }
+            }
+            if (best == 0) {
+                return 0;
+            }
+            total += best;
+        }
+        return total;
+    }
+
+    private record Entry(int id, String firstName, String lastName, String[] nameWords) {
+    }
+
+    private record Match(Entry entry, int score) {
+    }
+
+    private record Snapshot(SearchIndex<Entry> index, long builtAt) {
+
+        boolean isExpired() {
+            return System.nanoTime() - builtAt > maxAgeNanos;
+        }
+    }
+}
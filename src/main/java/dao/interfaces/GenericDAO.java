@@ -1,7 +1,13 @@
 package dao.interfaces;
 
+import dao.dto.Page;
+
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
 /**
  * Interfaz genérica para operaciones CRUD básicas
@@ -16,6 +22,13 @@ public interface GenericDAO<T, ID> {
      */
     void save(T entity);
 
+    /**
+     * Guardar varias entidades nuevas en una sola transacción.
+     * Si la entidad usa IDs de secuencia (models.IdGenerators) los INSERT se envían en lotes JDBC
+     * @param entities Entidades a guardar
+     */
+    void saveAll(Collection<? extends T> entities);
+
     /**
      * Actualizar una entidad existente
      * @param entity Entidad a actualizar
@@ -60,6 +73,31 @@ public interface GenericDAO<T, ID> {
      */
     List<T> findAll();
 
+    /**
+     * Obtener entidades por páginas, ordenadas por ID.
+     * Pagina por clave (id > último id) en lugar de OFFSET: todas las páginas cuestan lo mismo
+     * @param pageToken Token de la página anterior (null para la primera)
+     * @param pageSize Número máximo de entidades de la página
+     * @return Página con las entidades y el token de la siguiente
+     */
+    Page<T> findPage(String pageToken, int pageSize);
+
+    /**
+     * Recorrer todas las entidades (ordenadas por ID) sin cargarlas a la vez en memoria.
+     * Se leen con un cursor en una sesión propia que se vacía periódicamente:
+     * action no debe guardar las entidades ni navegar relaciones perezosas
+     * @param action Operación a aplicar a cada entidad
+     * @return Número de entidades recorridas
+     */
+    long forEach(Consumer<? super T> action);
+
+    /**
+     * Igual que forEach, pero como Stream. El Stream solo es válido dentro de work
+     * @param work Operación que consume el Stream
+     * @return Resultado de work
+     */
+    <R> R streamAll(Function<Stream<T>, R> work);
+
     /**
      * Contar total de registros
      * @return Total de registros
@@ -1,11 +1,18 @@
 package dao.interfaces;
+import dao.dto.Page;
 import models.Grade;
+import models.GradeAggregate;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 
 /**
  * DAO para la entidad Grade (notas)
+ * La media, la cuenta y las notas última/más alta/más baja de una matrícula se leen
+ * de su resumen (GradeAggregate), que save/update/delete mantienen al día
  */
 public interface GradeDAO extends GenericDAO<Grade, Integer> {
 
@@ -30,6 +37,22 @@ public interface GradeDAO extends GenericDAO<Grade, Integer> {
      */
     List<Grade> findByModule(Integer moduleId);
 
+    /**
+     * Recorrer todas las notas de un módulo sin cargarlas a la vez en memoria (ver GenericDAO.forEach)
+     * @param moduleId ID del módulo
+     * @param action Operación a aplicar a cada nota
+     * @return Número de notas recorridas
+     */
+    long forEachByModule(Integer moduleId, Consumer<? super Grade> action);
+
+    /**
+     * Igual que forEachByModule, pero como Stream. El Stream solo es válido dentro de work
+     * @param moduleId ID del módulo
+     * @param work Operación que consume el Stream
+     * @return Resultado de work
+     */
+    <R> R streamByModule(Integer moduleId, Function<Stream<Grade>, R> work);
+
     /**
      * Calcular nota media de un alumno en un módulo
      * @param studentModuleId ID de la matrícula
@@ -66,6 +89,16 @@ public interface GradeDAO extends GenericDAO<Grade, Integer> {
      */
     List<Grade> findByGradeRange(BigDecimal minGrade, BigDecimal maxGrade);
 
+    /**
+     * Buscar notas por rango de calificación, por páginas (de mayor a menor nota)
+     * @param minGrade Nota mínima
+     * @param maxGrade Nota máxima
+     * @param pageToken Token de la página anterior (null para la primera)
+     * @param pageSize Número máximo de notas de la página
+     * @return Página de notas en ese rango
+     */
+    Page<Grade> findByGradeRangePage(BigDecimal minGrade, BigDecimal maxGrade, String pageToken, int pageSize);
+
     /**
      * Buscar notas por rango de fechas
      * @param startDate Fecha inicial
@@ -136,4 +169,18 @@ public interface GradeDAO extends GenericDAO<Grade, Integer> {
      * @param studentModuleId ID de la matrícula
      */
     void deleteByStudentModule(Integer studentModuleId);
-}
\ No newline at end of file
+
+    /**
+     * Obtener el resumen de notas de una matrícula (número, suma, mínima, máxima y última)
+     * @param studentModuleId ID de la matrícula
+     * @return Resumen (vacío si no hay notas)
+     */
+    GradeAggregate findAggregate(Integer studentModuleId);
+
+    /**
+     * Recalcular desde cero los resúmenes de todas las matrículas.
+     * Sirve para corregirlos si las notas o las matrículas se han creado o cambiado sin pasar por los DAO
+     * @return Número de matrículas recalculadas
+     */
+    int rebuildAggregates();
+}
@@ -1,8 +1,15 @@
 package dao.interfaces;
+import dao.dto.GradeExportRow;
+import dao.dto.GradebookEntry;
+import dao.dto.GradebookSort;
+import dao.dto.Page;
+import dao.dto.StudentGradesOverview;
 import models.StudentModule;
 import models.Grade;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Stream;
 import java.math.BigDecimal;
 
 /**
@@ -40,6 +47,77 @@ public interface StudentModuleDAO extends GenericDAO<StudentModule, Integer> {
      */
     List<StudentModule> findByModule(Integer moduleId);
 
+    /**
+     * Obtener las matrículas de un módulo por páginas, ordenadas por ID
+     * @param moduleId ID del módulo
+     * @param pageToken Token de la página anterior (null para la primera)
+     * @param pageSize Número máximo de matrículas de la página
+     * @return Página de matrículas
+     */
+    Page<StudentModule> findByModulePage(Integer moduleId, String pageToken, int pageSize);
+
+    /**
+     * Obtener el cuaderno de notas de un módulo en una sola consulta
+     * (alumno, curso, grupo, última nota, nota media y número de notas de cada matrícula)
+     * @param moduleId ID del módulo
+     * @return Lista de filas ordenada por apellidos y nombre
+     */
+    List<GradebookEntry> findGradebookByModule(Integer moduleId);
+
+    /**
+     * Obtener una página del cuaderno de notas de un módulo, ordenado en la base de datos.
+     * Para tablas que leen las filas por páginas según se desplazan (módulos con muchas matrículas).
+     * Paginación por clave: cada página empieza después de la última fila de la anterior (sin OFFSET).
+     * El resumen de cada matrícula sale de grade_aggregates, que se rellena al dar de alta la matrícula
+     * (las creadas con SQL necesitan GradeDAO#rebuildAggregates)
+     * @param moduleId ID del módulo
+     * @param nameFilter Texto que debe contener el nombre completo del alumno (sin distinguir mayúsculas ni acentos), o null para todos
+     * @param sort Orden de las filas
+     * @param ascending true para orden ascendente
+     * @param pageToken Token de la página anterior o null para la primera
+     * @param pageSize Número máximo de filas
+     * @return Filas de la página y token de la siguiente
+     */
+    Page<GradebookEntry> findGradebookPage(Integer moduleId, String nameFilter, GradebookSort sort,
+                                           boolean ascending, String pageToken, int pageSize);
+
+    /**
+     * Contar las filas del cuaderno de notas de un módulo (las que recorre findGradebookPage)
+     * @param moduleId ID del módulo
+     * @param nameFilter Texto que debe contener el nombre completo del alumno (sin distinguir mayúsculas ni acentos), o null para todos
+     * @return Número de matrículas
+     */
+    long countGradebookByModule(Integer moduleId, String nameFilter);
+
+    /**
+     * Recorrer el cuaderno de notas completo de un módulo, nota a nota, con un cursor
+     * (la memoria no depende del número de filas). El Stream solo es válido dentro de work
+     * @param moduleId ID del módulo
+     * @param work Operación que consume las filas, ordenadas por alumno y nota
+     * @return Resultado de work
+     */
+    <R> R streamGradebookByModule(Integer moduleId, Function<Stream<GradeExportRow>, R> work);
+
+    /**
+     * Igual que streamGradebookByModule para todos los módulos de un curso
+     * @param course Curso de los módulos (ej: "2º DAM")
+     */
+    <R> R streamGradebookByCourse(String course, Function<Stream<GradeExportRow>, R> work);
+
+    /**
+     * Igual que streamGradebookByModule para todos los módulos del centro
+     */
+    <R> R streamGradebook(Function<Stream<GradeExportRow>, R> work);
+
+    /**
+     * Obtener en una sola consulta el resumen de notas de un alumno:
+     * última nota, media y aprobado/suspenso de cada módulo, más la media general
+     * @param studentId ID del alumno
+     * @param passingGrade Nota mínima para aprobar (ej: 5.0)
+     * @return Resumen de notas del alumno
+     */
+    StudentGradesOverview findGradesOverviewByStudent(Integer studentId, BigDecimal passingGrade);
+
     /**
      * Obtener notas de una matrícula específica
      * @param studentModuleId ID de la matrícula
@@ -1,4 +1,5 @@
 package dao.interfaces;
+import dao.dto.SessionPrincipal;
 import models.User;
 import models.UserType;
 import java.util.List;
@@ -31,6 +32,15 @@ public interface UserDAO extends GenericDAO<User, Integer> {
      */
     User validateLogin(String username, String passwordHash);
 
+    /**
+     * Iniciar sesión: valida las credenciales y trae en la misma consulta el perfil del usuario
+     * (profesor con sus módulos, o alumno)
+     * @param username Nombre de usuario
+     * @param passwordHash Hash de la contraseña
+     * @return Usuario con su perfil si las credenciales son correctas, null si no
+     */
+    SessionPrincipal login(String username, String passwordHash);
+
     /**
      * Buscar usuarios por tipo
      * @param userType Tipo de usuario (PROFESOR o ALUMNO)
@@ -52,6 +62,16 @@ public interface UserDAO extends GenericDAO<User, Integer> {
      */
     List<User> searchByName(String searchTerm);
 
+    /**
+     * Buscar usuarios por palabras del nombre o los apellidos, de más a menos relevante.
+     * Usa el índice de texto completo de la base de datos (MySQL) o, si no lo tiene, uno en memoria:
+     * a diferencia de searchByName no recorre toda la tabla en cada búsqueda
+     * @param query Palabras buscadas (tienen que aparecer todas; basta con el principio de cada palabra)
+     * @param maxResults Número máximo de usuarios
+     * @return Usuarios encontrados, los más relevantes primero
+     */
+    List<User> fullTextSearch(String query, int maxResults);
+
     /**
      * Cambiar contraseña de un usuario
      * @param userId ID del usuario
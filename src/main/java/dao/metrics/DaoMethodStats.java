@@ -0,0 +1,34 @@
+package dao.metrics;
+
+import util.LatencyHistogram;
+
+/**
+ * Métricas acumuladas de un método de DAO
+ * @param dao Interfaz del DAO (ej: GradeDAO)
+ * @param method Nombre del método
+ * @param calls Llamadas terminadas
+ * @param errors Llamadas que lanzaron una excepción
+ * @param statements Sentencias SQL preparadas durante las llamadas
+ * @param rows Filas devueltas (tamaño de la lista o página, 1 por entidad encontrada)
+ * @param latency Histograma de la duración de las llamadas
+ */
+public record DaoMethodStats(String dao, String method, long calls, long errors, long statements, long rows,
+                             LatencyHistogram.Snapshot latency) {
+
+    public double statementsPerCall() {
+        return calls == 0 ? 0 : (double) statements / calls;
+    }
+
+    public double rowsPerCall() {
+        return calls == 0 ? 0 : (double) rows / calls;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s.%s: llamadas=%d errores=%d sql/llamada=%.1f filas/llamada=%.1f " +
+                        "p50=%.3fms p95=%.3fms p99=%.3fms max=%.3fms",
+                dao, method, calls, errors, statementsPerCall(), rowsPerCall(),
+                latency.percentileMillis(0.50), latency.percentileMillis(0.95),
+                latency.percentileMillis(0.99), latency.maxMillis());
+    }
+}
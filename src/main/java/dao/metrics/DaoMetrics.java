@@ -0,0 +1,186 @@
+package dao.metrics;
+
+import dao.dto.Page;
+import util.LatencyHistogram;
+import util.SlowQueryLog;
+import util.SqlStatementCounter;
+import util.jfr.DaoCallEvent;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Métricas de cada método de los DAO: llamadas, errores, latencia (p50/p95/p99),
+ * sentencias SQL lanzadas y filas devueltas.
+ *
+ * Los DAO se envuelven con instrument(), que devuelve un proxy de la interfaz:
+ * <pre>
+ *     GradeDAO gradeDAO = DaoMetrics.instrument(GradeDAO.class, new GradeDAOImp());
+ * </pre>
+ * Las sentencias se cuentan con util.SqlStatementCounter en el hilo de la llamada: cuentan las que se
+ * envían mientras dura la llamada, no las que la llamada deja pendientes.
+ * Una llamada que abre su propia transacción confirma antes de volver, así que se lleva todas sus escrituras.
+ * Pero dentro de HibernateUtil.inTransaction los INSERT/UPDATE/DELETE quedan en la sesión hasta el flush:
+ * si lo provoca una consulta de otra llamada (auto-flush) se cuentan en esa otra llamada, y los que se envían
+ * al confirmar no se cuentan en ningún método (solo en el total de sentencias y en el evento JFR de la transacción).
+ * El método en curso también se anota en util.SlowQueryLog para las consultas lentas,
+ * y cada llamada se emite como evento JFR (util.jfr.DaoCallEvent).
+ * Se desactiva con -Dapp.metrics=false (instrument devuelve el DAO tal cual).
+ */
+public final class DaoMetrics {
+
+    private static final boolean enabled = Boolean.parseBoolean(System.getProperty("app.metrics", "true"));
+
+    // Clave "GradeDAO.findById"
+    private static final ConcurrentMap<String, MethodMetrics> methods = new ConcurrentHashMap<>();
+
+    private DaoMetrics() {
+    }
+
+    /**
+     * Envuelve un DAO para que registre las métricas de cada llamada
+     * @param daoInterface Interfaz que se expone (da nombre a las métricas)
+     * @param dao Implementación a la que se delega
+     * @return Proxy de daoInterface, o dao si las métricas están desactivadas
+     */
+    public static <D> D instrument(Class<D> daoInterface, D dao) {
+        if (!enabled) {
+            return dao;
+        }
+        Object proxy = Proxy.newProxyInstance(daoInterface.getClassLoader(), new Class<?>[]{daoInterface},
+                new Handler(daoInterface.getSimpleName(), dao));
+        return daoInterface.cast(proxy);
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Valores actuales de todos los métodos llamados al menos una vez, ordenados por DAO y método
+     */
+    public static List<DaoMethodStats> snapshot() {
+        List<DaoMethodStats> stats = new ArrayList<>();
+        for (MethodMetrics metrics : methods.values()) {
+            stats.add(metrics.snapshot());
+        }
+        stats.sort(Comparator.comparing(DaoMethodStats::dao).thenComparing(DaoMethodStats::method));
+        return stats;
+    }
+
+    /**
+     * Vaciar todas las métricas
+     */
+    public static void reset() {
+        methods.clear();
+    }
+
+    // Filas que devuelve una llamada: los contadores (count, existsById...) no son filas
+
+    private static long rowsOf(Object result) {
+        return switch (result) {
+            case null -> 0;
+            case Collection<?> collection -> collection.size();
+            case Page<?> page -> page.items().size();
+            case Optional<?> optional -> optional.isPresent() ? 1 : 0;
+            case Number _ -> 0;
+            case Boolean _ -> 0;
+            default -> 1;
+        };
+    }
+
+    private static final class Handler implements InvocationHandler {
+
+        private final String daoName;
+        private final Object target;
+
+        Handler(String daoName, Object target) {
+            this.daoName = daoName;
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (method.getDeclaringClass() == Object.class) {
+                return invokeTarget(method, args);
+            }
+
+            String name = daoName + "." + method.getName();
+            MethodMetrics metrics = methods.computeIfAbsent(name, _ -> new MethodMetrics(daoName, method.getName()));
+            String previousCaller = SlowQueryLog.setCaller(name);
+            DaoCallEvent event = new DaoCallEvent();
+            event.begin();
+            long statementsBefore = SqlStatementCounter.currentThreadCount();
+            long start = System.nanoTime();
+            boolean failed = true;
+            long rows = 0;
+            try {
+                Object result = invokeTarget(method, args);
+                rows = rowsOf(result);
+                failed = false;
+                return result;
+            } finally {
+                long statements = SqlStatementCounter.currentThreadCount() - statementsBefore;
+                SlowQueryLog.setCaller(previousCaller);
+                metrics.record(System.nanoTime() - start, statements, rows, failed);
+
+                event.dao = daoName;
+                event.method = method.getName();
+                event.statements = statements;
+                event.rows = rows;
+                event.failed = failed;
+                event.commit();
+            }
+        }
+
+        // Sin el envoltorio InvocationTargetException: quien llama ve la excepción original del DAO
+        private Object invokeTarget(Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+
+    private static final class MethodMetrics {
+
+        private final String dao;
+        private final String method;
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder statements = new LongAdder();
+        private final LongAdder rows = new LongAdder();
+        private final LatencyHistogram latency = new LatencyHistogram();
+
+        MethodMetrics(String dao, String method) {
+            this.dao = dao;
+            this.method = method;
+        }
+
+        void record(long nanos, long statementCount, long rowCount, boolean failed) {
+            latency.record(nanos);
+            statements.add(statementCount);
+            rows.add(rowCount);
+            if (failed) {
+                errors.increment();
+            }
+            calls.increment();
+        }
+
+        DaoMethodStats snapshot() {
+            return new DaoMethodStats(dao, method, calls.sum(), errors.sum(), statements.sum(), rows.sum(),
+                    latency.snapshot());
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package dao.metrics;
+
+import org.hibernate.stat.QueryStatistics;
+import org.hibernate.stat.Statistics;
+import util.CacheRegionStats;
+import util.HibernateUtil;
+import util.LatencyHistogram;
+import util.PoolMetrics;
+import util.SlowQueryLog;
+import util.SqlStatementCounter;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Vuelca las métricas en el formato de texto de Prometheus (versión 0.0.4):
+ * métodos de DAO (DaoMetrics), pool de conexiones y estadísticas de Hibernate
+ * (sentencias, consultas, entidades, transacciones, caché de segundo nivel y cada consulta HQL).
+ * El fichero se puede dejar donde lo lea el textfile collector de node_exporter.
+ */
+public final class PrometheusExporter {
+
+    private static final String PREFIX = "studentgrades_";
+    private static final double[] QUANTILES = {0.5, 0.95, 0.99};
+
+    private PrometheusExporter() {
+    }
+
+    /**
+     * Escribe las métricas en file (primero en un temporal que luego se renombra,
+     * así quien lo lea nunca ve un volcado a medias)
+     */
+    public static void writeTo(Path file) {
+        Path partial = file.resolveSibling(file.getFileName() + ".part");
+        try {
+            try (Writer out = Files.newBufferedWriter(partial, StandardCharsets.UTF_8)) {
+                write(out);
+            }
+            Files.move(partial, file, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            throw new RuntimeException("Error al escribir las métricas en " + file + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Escribe las métricas actuales en out
+     */
+    public static void write(Writer out) throws IOException {
+        writeDaoMetrics(out, DaoMetrics.snapshot());
+        writePoolMetrics(out, HibernateUtil.getPoolMetrics());
+        writeHibernateStatistics(out, HibernateUtil.getSessionFactory().getStatistics());
+    }
+
+    private static void writeDaoMetrics(Writer out, List<DaoMethodStats> stats) throws IOException {
+        header(out, "dao_calls_total", "counter", "Llamadas a cada método de DAO");
+        for (DaoMethodStats s : stats) {
+            sample(out, "dao_calls_total", labels(s), s.calls());
+        }
+        header(out, "dao_errors_total", "counter", "Llamadas a DAO que lanzaron una excepción");
+        for (DaoMethodStats s : stats) {
+            sample(out, "dao_errors_total", labels(s), s.errors());
+        }
+        header(out, "dao_statements_total", "counter", "Sentencias SQL preparadas durante las llamadas a DAO");
+        for (DaoMethodStats s : stats) {
+            sample(out, "dao_statements_total", labels(s), s.statements());
+        }
+        header(out, "dao_rows_total", "counter", "Filas devueltas por las llamadas a DAO");
+        for (DaoMethodStats s : stats) {
+            sample(out, "dao_rows_total", labels(s), s.rows());
+        }
+
+        header(out, "dao_call_duration_seconds", "summary", "Duración de las llamadas a DAO");
+        for (DaoMethodStats s : stats) {
+            LatencyHistogram.Snapshot latency = s.latency();
+            for (double quantile : QUANTILES) {
+                sample(out, "dao_call_duration_seconds",
+                        labels(s) + ",quantile=\"" + quantile + "\"", latency.percentileMillis(quantile) / 1000);
+            }
+            sample(out, "dao_call_duration_seconds_sum", labels(s), latency.totalNanos() / 1e9);
+            sample(out, "dao_call_duration_seconds_count", labels(s), latency.count());
+        }
+    }
+
+    private static void writePoolMetrics(Writer out, PoolMetrics pool) throws IOException {
+        header(out, "pool_connections", "gauge", "Conexiones del pool por estado");
+        sample(out, "pool_connections", "state=\"active\"", pool.active());
+        sample(out, "pool_connections", "state=\"idle\"", pool.idle());
+        header(out, "pool_max_connections", "gauge", "Tamaño máximo del pool");
+        sample(out, "pool_max_connections", null, pool.maxSize());
+        header(out, "pool_waiting_threads", "gauge", "Hilos esperando una conexión");
+        sample(out, "pool_waiting_threads", null, pool.waitingThreads());
+        header(out, "pool_acquire_timeouts_total", "counter", "Veces que se agotó la espera de una conexión");
+        sample(out, "pool_acquire_timeouts_total", null, pool.acquireTimeouts());
+
+        LatencyHistogram.Snapshot acquire = pool.acquireTime();
+        header(out, "pool_acquire_duration_seconds", "summary", "Tiempo para obtener una conexión del pool");
+        for (double quantile : QUANTILES) {
+            sample(out, "pool_acquire_duration_seconds", "quantile=\"" + quantile + "\"",
+                    acquire.percentileMillis(quantile) / 1000);
+        }
+        sample(out, "pool_acquire_duration_seconds_sum", null, acquire.totalNanos() / 1e9);
+        sample(out, "pool_acquire_duration_seconds_count", null, acquire.count());
+    }
+
+    private static void writeHibernateStatistics(Writer out, Statistics statistics) throws IOException {
+        header(out, "sql_statements_total", "counter", "Sentencias SQL preparadas (StatementInspector)");
+        sample(out, "sql_statements_total", null, SqlStatementCounter.totalCount());
+        header(out, "slow_queries_total", "counter", "Consultas que superaron el umbral de SlowQueryLog");
+        sample(out, "slow_queries_total", null, SlowQueryLog.slowQueryCount());
+        header(out, "slow_query_log_dropped_total", "counter", "Consultas lentas que no llegaron al fichero de log");
+        sample(out, "slow_query_log_dropped_total", null, SlowQueryLog.droppedCount());
+
+        header(out, "hibernate_statements_prepared_total", "counter", "Sentencias JDBC preparadas por Hibernate");
+        sample(out, "hibernate_statements_prepared_total", null, statistics.getPrepareStatementCount());
+        header(out, "hibernate_queries_executed_total", "counter", "Consultas HQL/SQL ejecutadas");
+        sample(out, "hibernate_queries_executed_total", null, statistics.getQueryExecutionCount());
+        header(out, "hibernate_query_max_duration_seconds", "gauge", "Consulta más lenta hasta ahora");
+        sample(out, "hibernate_query_max_duration_seconds", null, statistics.getQueryExecutionMaxTime() / 1000.0);
+        header(out, "hibernate_entities_total", "counter", "Operaciones sobre entidades");
+        sample(out, "hibernate_entities_total", "operation=\"load\"", statistics.getEntityLoadCount());
+        sample(out, "hibernate_entities_total", "operation=\"fetch\"", statistics.getEntityFetchCount());
+        sample(out, "hibernate_entities_total", "operation=\"insert\"", statistics.getEntityInsertCount());
+        sample(out, "hibernate_entities_total", "operation=\"update\"", statistics.getEntityUpdateCount());
+        sample(out, "hibernate_entities_total", "operation=\"delete\"", statistics.getEntityDeleteCount());
+        header(out, "hibernate_collections_fetched_total", "counter", "Colecciones perezosas cargadas aparte");
+        sample(out, "hibernate_collections_fetched_total", null, statistics.getCollectionFetchCount());
+        header(out, "hibernate_transactions_total", "counter", "Transacciones terminadas");
+        sample(out, "hibernate_transactions_total", null, statistics.getTransactionCount());
+        header(out, "hibernate_flushes_total", "counter", "Flushes de sesión");
+        sample(out, "hibernate_flushes_total", null, statistics.getFlushCount());
+
+        List<CacheRegionStats> regions = HibernateUtil.getCacheStatistics();
+        header(out, "hibernate_cache_requests_total", "counter", "Lecturas de la caché de segundo nivel");
+        for (CacheRegionStats region : regions) {
+            String name = "region=\"" + escape(region.region()) + "\"";
+            sample(out, "hibernate_cache_requests_total", name + ",result=\"hit\"", region.hits());
+            sample(out, "hibernate_cache_requests_total", name + ",result=\"miss\"", region.misses());
+        }
+
+        String[] queries = statistics.getQueries();
+        header(out, "hibernate_query_executions_total", "counter", "Ejecuciones de cada consulta");
+        for (String query : queries) {
+            QueryStatistics stats = statistics.getQueryStatistics(query);
+            sample(out, "hibernate_query_executions_total", queryLabel(query), stats.getExecutionCount());
+        }
+        header(out, "hibernate_query_rows_total", "counter", "Filas devueltas por cada consulta");
+        for (String query : queries) {
+            QueryStatistics stats = statistics.getQueryStatistics(query);
+            sample(out, "hibernate_query_rows_total", queryLabel(query), stats.getExecutionRowCount());
+        }
+        header(out, "hibernate_query_duration_seconds_total", "counter", "Tiempo total de cada consulta");
+        for (String query : queries) {
+            QueryStatistics stats = statistics.getQueryStatistics(query);
+            sample(out, "hibernate_query_duration_seconds_total", queryLabel(query),
+                    stats.getExecutionTotalTime() / 1000.0);
+        }
+    }
+
+    private static String labels(DaoMethodStats stats) {
+        return "dao=\"" + escape(stats.dao()) + "\",method=\"" + escape(stats.method()) + "\"";
+    }
+
+    private static String queryLabel(String query) {
+        // Una sola línea: las consultas largas vienen formateadas con saltos y sangrías
+        return "query=\"" + escape(query.replaceAll("\\s+", " ").trim()) + "\"";
+    }
+
+    private static void header(Writer out, String name, String type, String help) throws IOException {
+        out.write("# HELP " + PREFIX + name + " " + help + "\n");
+        out.write("# TYPE " + PREFIX + name + " " + type + "\n");
+    }
+
+    private static void sample(Writer out, String name, String labels, double value) throws IOException {
+        out.write(PREFIX + name);
+        if (labels != null) {
+            out.write("{" + labels + "}");
+        }
+        out.write(" ");
+        out.write(value == Math.rint(value) && !Double.isInfinite(value)
+                ? Long.toString((long) value)
+                : String.format(Locale.ROOT, "%.6f", value));
+        out.write("\n");
+    }
+
+    // Valores de etiqueta: barra invertida, comillas y saltos de línea escapados
+
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+}
@@ -0,0 +1,24 @@
+package export;
+
+/**
+ * Formatos de exportación del cuaderno de notas
+ */
+public enum ExportFormat {
+
+    // Separado por comas, UTF-8. La importación de notas lo lee tal cual: las matrículas sin notas
+    // (grade vacío) se ignoran
+    CSV("csv"),
+
+    // Hoja de cálculo de Excel / LibreOffice (una hoja)
+    XLSX("xlsx");
+
+    private final String extension;
+
+    ExportFormat(String extension) {
+        this.extension = extension;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+}
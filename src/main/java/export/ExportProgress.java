@@ -0,0 +1,20 @@
+package export;
+
+import java.nio.file.Path;
+
+/**
+ * Avance de una exportación. En la exportación en paralelo se llama desde varios hilos a la vez
+ * (y nunca desde el de JavaFX: para tocar la interfaz hay que pasar por FxExecutor)
+ */
+@FunctionalInterface
+public interface ExportProgress {
+
+    ExportProgress NONE = (_, _, _) -> { };
+
+    /**
+     * @param file Fichero que se está escribiendo
+     * @param rowsWritten Filas escritas hasta ahora
+     * @param finished true en la última llamada de ese fichero
+     */
+    void update(Path file, long rowsWritten, boolean finished);
+}
@@ -0,0 +1,11 @@
+package export;
+
+import java.nio.file.Path;
+
+/**
+ * Fichero exportado
+ * @param file Ruta del fichero
+ * @param rows Filas de notas escritas (sin la cabecera)
+ */
+public record ExportResult(Path file, long rows) {
+}
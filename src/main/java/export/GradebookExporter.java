@@ -0,0 +1,186 @@
+package export;
+
+import dao.dto.GradeExportRow;
+import dao.impl.ModuleDAOImp;
+import dao.impl.StudentModuleDAOImp;
+import dao.interfaces.ModuleDAO;
+import dao.interfaces.StudentModuleDAO;
+import dao.metrics.DaoMetrics;
+import models.Module;
+import util.DatabaseExecutor;
+import util.HibernateUtil;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Exporta el cuaderno de notas (de un módulo, de un curso o del centro entero) a CSV o XLSX.
+ * Las filas salen de un cursor de la base de datos (StudentModuleDAO.streamGradebook*) y se escriben
+ * directamente al fichero, así que la memoria usada no depende del número de notas.
+ * El fichero se escribe primero como .part y se renombra al terminar: si algo falla no queda a medias.
+ */
+public class GradebookExporter {
+
+    // Cada cuántas filas se avisa del avance
+    private static final int PROGRESS_INTERVAL = 1000;
+
+    private final StudentModuleDAO studentModuleDAO;
+    private final ModuleDAO moduleDAO;
+
+    public GradebookExporter() {
+        this(DaoMetrics.instrument(StudentModuleDAO.class, new StudentModuleDAOImp()),
+                DaoMetrics.instrument(ModuleDAO.class, new ModuleDAOImp()));
+    }
+
+    public GradebookExporter(StudentModuleDAO studentModuleDAO, ModuleDAO moduleDAO) {
+        this.studentModuleDAO = studentModuleDAO;
+        this.moduleDAO = moduleDAO;
+    }
+
+    public ExportResult exportModule(Integer moduleId, Path file, ExportFormat format, ExportProgress progress) {
+        return export(file, format, progress, work -> studentModuleDAO.streamGradebookByModule(moduleId, work));
+    }
+
+    public ExportResult exportCourse(String course, Path file, ExportFormat format, ExportProgress progress) {
+        return export(file, format, progress, work -> studentModuleDAO.streamGradebookByCourse(course, work));
+    }
+
+    public ExportResult exportAll(Path file, ExportFormat format, ExportProgress progress) {
+        return export(file, format, progress, studentModuleDAO::streamGradebook);
+    }
+
+    /**
+     * Exporta cada módulo a su propio fichero (ID y nombre del módulo) dentro de directory,
+     * varios a la vez. Las exportaciones se lanzan en DatabaseExecutor, como el resto de operaciones
+     * de base de datos: parallelism tareas que van cogiendo módulos de la lista, y cada una ocupa
+     * una conexión del pool mientras dura. Espera a que terminen todas (no llamar desde el hilo de JavaFX)
+     * @param moduleIds Módulos a exportar
+     * @param directory Carpeta de destino (se crea si no existe)
+     * @param parallelism Exportaciones simultáneas (ver defaultParallelism)
+     * @return Un resultado por módulo, en el mismo orden que moduleIds
+     */
+    public List<ExportResult> exportModules(List<Integer> moduleIds, Path directory, ExportFormat format,
+                                            int parallelism, ExportProgress progress) {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("El número de exportaciones simultáneas debe ser mayor que 0: "
+                    + parallelism);
+        }
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new RuntimeException("Error al crear la carpeta " + directory + ": " + e.getMessage(), e);
+        }
+
+        ExportResult[] results = new ExportResult[moduleIds.size()];
+        AtomicInteger next = new AtomicInteger();
+        AtomicBoolean failed = new AtomicBoolean();
+        List<CompletableFuture<Void>> tasks = new ArrayList<>();
+        for (int i = 0; i < Math.min(parallelism, moduleIds.size()); i++) {
+            tasks.add(DatabaseExecutor.run(() -> {
+                int index;
+                // Tras un fallo no se empiezan más módulos
+                while (!failed.get() && (index = next.getAndIncrement()) < moduleIds.size()) {
+                    Integer moduleId = moduleIds.get(index);
+                    try {
+                        results[index] = exportModule(moduleId, directory.resolve(fileName(moduleId, format)),
+                                format, progress);
+                    } catch (RuntimeException | Error e) {
+                        failed.set(true);
+                        throw e;
+                    }
+                }
+            }));
+        }
+
+        try {
+            CompletableFuture.allOf(tasks.toArray(CompletableFuture[]::new)).join();
+        } catch (CompletionException e) {
+            Throwable cause = DatabaseExecutor.unwrap(e);
+            throw cause instanceof RuntimeException runtime ? runtime : new RuntimeException(cause);
+        }
+        return List.of(results);
+    }
+
+    /**
+     * Exportaciones simultáneas por defecto: la mitad del pool, para que la aplicación siga respondiendo
+     */
+    public static int defaultParallelism() {
+        return Math.max(1, HibernateUtil.getPoolMetrics().maxSize() / 2);
+    }
+
+    private String fileName(Integer moduleId, ExportFormat format) {
+        Module module = moduleDAO.findById(moduleId);
+        if (module == null) {
+            throw new IllegalArgumentException("No existe el módulo " + moduleId);
+        }
+        // Sin tildes ni caracteres raros: "Acceso a Datos" -> "acceso-a-datos"
+        String name = Normalizer.normalize(module.getModuleName(), Normalizer.Form.NFD)
+                .replaceAll("\\p{M}", "")
+                .replaceAll("[^A-Za-z0-9]+", "-")
+                .replaceAll("(^-|-$)", "")
+                .toLowerCase(Locale.ROOT);
+        return moduleId + "-" + name + "." + format.getExtension();
+    }
+
+    private ExportResult export(Path file, ExportFormat format, ExportProgress progress, RowSource source) {
+        Path partial = file.resolveSibling(file.getFileName() + ".part");
+        long rows;
+        try {
+            try (GradebookWriter writer = GradebookWriter.open(format, partial)) {
+                rows = source.read(stream -> {
+                    long written = 0;
+                    for (GradeExportRow row : (Iterable<GradeExportRow>) stream::iterator) {
+                        try {
+                            writer.write(row);
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                        if (++written % PROGRESS_INTERVAL == 0) {
+                            progress.update(file, written, false);
+                        }
+                    }
+                    return written;
+                });
+            }
+            Files.move(partial, file, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            deletePartial(partial);
+            throw new RuntimeException("Error al escribir " + file + ": " + e.getMessage(), e);
+        } catch (RuntimeException e) {
+            deletePartial(partial);
+            throw e;
+        }
+
+        progress.update(file, rows, true);
+        return new ExportResult(file, rows);
+    }
+
+    private static void deletePartial(Path partial) {
+        try {
+            Files.deleteIfExists(partial);
+        } catch (IOException e) {
+            System.err.println("No se pudo borrar " + partial + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Consulta que entrega las filas a work (una de StudentModuleDAO.streamGradebook*)
+     */
+    @FunctionalInterface
+    private interface RowSource {
+        long read(Function<Stream<GradeExportRow>, Long> work);
+    }
+}
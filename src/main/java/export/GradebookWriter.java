@@ -0,0 +1,34 @@
+package export;
+
+import dao.dto.GradeExportRow;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Escribe filas del cuaderno de notas en un fichero a medida que llegan (nada se acumula en memoria)
+ */
+interface GradebookWriter extends AutoCloseable {
+
+    // Las columnas de la importación de notas (BulkImporter.importGrades) tienen sus mismos nombres:
+    // course es el curso del módulo, y el del alumno va en student_course
+    String[] HEADER = {"module_name", "course", "last_name", "first_name", "username",
+            "student_course", "grade_group", "grade", "notes"};
+
+    void write(GradeExportRow row) throws IOException;
+
+    @Override
+    void close() throws IOException;
+
+    static GradebookWriter open(ExportFormat format, Path file) throws IOException {
+        return switch (format) {
+            case CSV -> new CsvGradebookWriter(file);
+            case XLSX -> new XlsxGradebookWriter(file);
+        };
+    }
+
+    static String[] values(GradeExportRow row) {
+        return new String[]{row.moduleName(), row.moduleCourse(), row.lastName(), row.firstName(), row.username(),
+                row.course(), row.gradeGroup(), row.grade() == null ? null : row.grade().toPlainString(), row.notes()};
+    }
+}
@@ -0,0 +1,123 @@
+package export;
+
+import dao.dto.GradeExportRow;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Hoja de cálculo .xlsx escrita a mano (sin librerías): un ZIP con unas pocas partes XML fijas
+ * y la hoja, que se va comprimiendo fila a fila. Los textos van en línea en cada celda
+ * (sin tabla de textos compartidos, que obligaría a guardarlos todos en memoria)
+ */
+final class XlsxGradebookWriter implements GradebookWriter {
+
+    private static final String XML = "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n";
+    private static final String RELATIONSHIPS = "http://schemas.openxmlformats.org/package/2006/relationships";
+    private static final String DOCUMENT = "http://schemas.openxmlformats.org/officeDocument/2006/relationships";
+    private static final String SPREADSHEET = "http://schemas.openxmlformats.org/spreadsheetml/2006/main";
+
+    // Columna de la nota (la única numérica)
+    private static final int GRADE_COLUMN = 7;
+
+    private final ZipOutputStream zip;
+    private final Writer out;
+
+    XlsxGradebookWriter(Path file) throws IOException {
+        zip = new ZipOutputStream(new BufferedOutputStream(Files.newOutputStream(file), 64 * 1024));
+        out = new BufferedWriter(new OutputStreamWriter(zip, StandardCharsets.UTF_8), 64 * 1024);
+
+        part("[Content_Types].xml", XML
+                + "<Types xmlns=\"http://schemas.openxmlformats.org/package/2006/content-types\">"
+                + "<Default Extension=\"rels\" ContentType=\"application/vnd.openxmlformats-package.relationships+xml\"/>"
+                + "<Default Extension=\"xml\" ContentType=\"application/xml\"/>"
+                + "<Override PartName=\"/xl/workbook.xml\" "
+                + "ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.sheet.main+xml\"/>"
+                + "<Override PartName=\"/xl/worksheets/sheet1.xml\" "
+                + "ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.worksheet+xml\"/>"
+                + "</Types>");
+        part("_rels/.rels", XML
+                + "<Relationships xmlns=\"" + RELATIONSHIPS + "\">"
+                + "<Relationship Id=\"rId1\" Type=\"" + DOCUMENT + "/officeDocument\" Target=\"xl/workbook.xml\"/>"
+                + "</Relationships>");
+        part("xl/workbook.xml", XML
+                + "<workbook xmlns=\"" + SPREADSHEET + "\" xmlns:r=\"" + DOCUMENT + "\">"
+                + "<sheets><sheet name=\"Notas\" sheetId=\"1\" r:id=\"rId1\"/></sheets>"
+                + "</workbook>");
+        part("xl/_rels/workbook.xml.rels", XML
+                + "<Relationships xmlns=\"" + RELATIONSHIPS + "\">"
+                + "<Relationship Id=\"rId1\" Type=\"" + DOCUMENT + "/worksheet\" Target=\"worksheets/sheet1.xml\"/>"
+                + "</Relationships>");
+
+        // La hoja queda abierta hasta close()
+        zip.putNextEntry(new ZipEntry("xl/worksheets/sheet1.xml"));
+        out.write(XML + "<worksheet xmlns=\"" + SPREADSHEET + "\"><sheetData>");
+        writeRow(HEADER, false);
+    }
+
+    @Override
+    public void write(GradeExportRow row) throws IOException {
+        writeRow(GradebookWriter.values(row), true);
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            out.write("</sheetData></worksheet>");
+            out.flush();
+            zip.closeEntry();
+        } finally {
+            zip.close();
+        }
+    }
+
+    private void part(String name, String content) throws IOException {
+        zip.putNextEntry(new ZipEntry(name));
+        out.write(content);
+        out.flush();
+        zip.closeEntry();
+    }
+
+    private void writeRow(String[] values, boolean numericGrade) throws IOException {
+        out.write("<row>");
+        for (int i = 0; i < values.length; i++) {
+            String value = values[i];
+            if (value == null) {
+                out.write("<c/>");
+            } else if (numericGrade && i == GRADE_COLUMN) {
+                out.write("<c><v>" + value + "</v></c>");
+            } else {
+                out.write("<c t=\"inlineStr\"><is><t xml:space=\"preserve\">");
+                escape(value);
+                out.write("</t></is></c>");
+            }
+        }
+        out.write("</row>");
+    }
+
+    private void escape(String value) throws IOException {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '&' -> out.write("&amp;");
+                case '<' -> out.write("&lt;");
+                case '>' -> out.write("&gt;");
+                case '"' -> out.write("&quot;");
+                default -> {
+                    // XML 1.0 no admite caracteres de control salvo tabulador y saltos de línea
+                    if (c >= 0x20 || c == '\t' || c == '\n' || c == '\r') {
+                        out.write(c);
+                    }
+                }
+            }
+        }
+    }
+}
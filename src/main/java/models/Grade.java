@@ -4,6 +4,8 @@ import jakarta.persistence.*;
 import lombok.*;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 
 @Getter
 @Setter
@@ -14,7 +16,10 @@ import java.math.BigDecimal;
 @Table(name = "grades")
 public class Grade {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // IDs por bloques: permite insertar en lotes JDBC (ver IdGenerators). El orden de los IDs no es
+    // el orden de alta: la nota más reciente se decide por createdAt
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "grades")
+    @SequenceGenerator(name = "grades", sequenceName = "grades_seq", allocationSize = IdGenerators.ALLOCATION_SIZE)
     @Column(name = "id")
     private Integer id;
 
@@ -24,6 +29,16 @@ public class Grade {
     @Column(name = "notes", length = 500)
     private String notes;
 
+    // Clave de la fila de origen en una importación masiva (null si se creó a mano)
+    @Column(name = "import_key", length = 64, unique = true)
+    private String importKey;
+
+    // Momento del alta (se fija al crear el objeto, para que el resumen la tenga antes del flush y también
+    // con StatelessSession). La última nota de una matrícula es la de mayor createdAt y, si coinciden,
+    // la de mayor ID (GradeAggregate, GradeDAOImp, cuaderno de notas). En microsegundos, como la columna
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+
     // Relación N:1 con StudentModule
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "id_student_module", nullable = false)
@@ -0,0 +1,128 @@
+package models;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.time.LocalDateTime;
+
+/**
+ * Resumen de las notas de una matrícula (número, suma, mínima, máxima y última).
+ * Lo mantiene GradeDAOImp en la misma transacción que cada alta, cambio o baja de nota,
+ * para responder a la media o la última nota sin recorrer la tabla grades.
+ * Si falta la fila de una matrícula se calcula a partir de sus notas.
+ */
+@Getter
+@Setter
+@ToString(exclude = "studentModule")
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+@NoArgsConstructor
+@Entity
+@Table(name = "grade_aggregates")
+public class GradeAggregate {
+    @Id
+    @Column(name = "id_student_module")
+    private Integer studentModuleId;
+
+    // Relación 1:1 con StudentModule (comparte su ID); se borra con la matrícula
+    @OneToOne(fetch = FetchType.LAZY)
+    @MapsId
+    @JoinColumn(name = "id_student_module")
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private StudentModule studentModule;
+
+    @Column(name = "grade_count", nullable = false)
+    private long gradeCount;
+
+    @Column(name = "grade_sum", precision = 12, scale = 2, nullable = false)
+    private BigDecimal gradeSum = BigDecimal.ZERO;
+
+    @Column(name = "min_grade", precision = 4, scale = 2)
+    private BigDecimal minGrade;
+
+    @Column(name = "max_grade", precision = 4, scale = 2)
+    private BigDecimal maxGrade;
+
+    // Nota más reciente (mayor createdAt y, si coinciden, mayor ID)
+    @Column(name = "latest_grade_id")
+    private Integer latestGradeId;
+
+    @Column(name = "latest_grade", precision = 4, scale = 2)
+    private BigDecimal latestGrade;
+
+    @Column(name = "latest_grade_at")
+    private LocalDateTime latestGradeAt;
+
+    // En caso de empate, la de menor ID
+    @Column(name = "highest_grade_id")
+    private Integer highestGradeId;
+
+    @Column(name = "lowest_grade_id")
+    private Integer lowestGradeId;
+
+    public GradeAggregate(StudentModule studentModule) {
+        this.studentModule = studentModule;
+    }
+
+    /**
+     * Suma una nota recién guardada al resumen
+     */
+    public void include(Grade grade) {
+        BigDecimal value = grade.getGrade();
+        gradeCount++;
+        gradeSum = gradeSum.add(value);
+
+        // Los IDs de otra instancia de la aplicación pueden ser menores: el empate se mira también aquí
+        int toMin = minGrade == null ? -1 : value.compareTo(minGrade);
+        if (toMin < 0 || (toMin == 0 && grade.getId() < lowestGradeId)) {
+            minGrade = value;
+            lowestGradeId = grade.getId();
+        }
+        int toMax = maxGrade == null ? 1 : value.compareTo(maxGrade);
+        if (toMax > 0 || (toMax == 0 && grade.getId() < highestGradeId)) {
+            maxGrade = value;
+            highestGradeId = grade.getId();
+        }
+        if (isNewerThanLatest(grade)) {
+            latestGradeId = grade.getId();
+            latestGrade = value;
+            latestGradeAt = grade.getCreatedAt();
+        }
+    }
+
+    private boolean isNewerThanLatest(Grade grade) {
+        if (latestGradeId == null) return true;
+        int byDate = grade.getCreatedAt().compareTo(latestGradeAt);
+        return byDate > 0 || (byDate == 0 && grade.getId() > latestGradeId);
+    }
+
+    /**
+     * Copia los valores de otro resumen (por ejemplo, uno recalculado)
+     */
+    public void copyFrom(GradeAggregate other) {
+        gradeCount = other.gradeCount;
+        gradeSum = other.gradeSum;
+        minGrade = other.minGrade;
+        maxGrade = other.maxGrade;
+        latestGradeId = other.latestGradeId;
+        latestGrade = other.latestGrade;
+        latestGradeAt = other.latestGradeAt;
+        highestGradeId = other.highestGradeId;
+        lowestGradeId = other.lowestGradeId;
+    }
+
+    public boolean hasGrades() {
+        return gradeCount > 0;
+    }
+
+    /**
+     * Nota media o null si no hay notas
+     */
+    public BigDecimal getAverage() {
+        if (gradeCount == 0) return null;
+        return gradeSum.divide(BigDecimal.valueOf(gradeCount), MathContext.DECIMAL64);
+    }
+}
@@ -0,0 +1,29 @@
+package models;
+
+/**
+ * Generador de IDs por bloques (pooled) para las entidades que se dan de alta en grupo (notas, matrículas).
+ *
+ * Con GenerationType.IDENTITY Hibernate tiene que ejecutar cada INSERT en el momento para conocer su ID,
+ * así que no puede agruparlos en lotes JDBC (hibernate.jdbc.batch_size). Con una secuencia reserva
+ * ALLOCATION_SIZE IDs en cada acceso y los INSERT se envían en lotes al hacer flush.
+ * MySQL no tiene secuencias: Hibernate la sustituye por una tabla de una fila (next_val).
+ *
+ * Para usarlo en una entidad, en su ID:
+ * <pre>
+ * &#64;GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "student_module")
+ * &#64;SequenceGenerator(name = "student_module", sequenceName = "student_module_seq", allocationSize = IdGenerators.ALLOCATION_SIZE)
+ * </pre>
+ * Cada instancia de la aplicación reserva su propio bloque, así que el orden de los IDs no es el orden
+ * de inserción: si una entidad necesita saber cuál es la más reciente, lo guarda en otra columna
+(como Grade.createdAt).
+ * Al arrancar, util.IdGeneratorSeeder adelanta cada secuencia por encima del mayor ID existente
+ * (filas creadas antes con AUTO_INCREMENT o con SQL).
+ */
+public final class IdGenerators {
+
+    // Igual que hibernate.jdbc.batch_size: un acceso a la secuencia por cada lote de INSERT
+    public static final int ALLOCATION_SIZE = 50;
+
+    private IdGenerators() {
+    }
+}
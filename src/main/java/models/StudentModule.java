@@ -17,7 +17,9 @@ import java.util.Set;
 })
 public class StudentModule {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // IDs por bloques: permite insertar en lotes JDBC (ver IdGenerators)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "student_module")
+    @SequenceGenerator(name = "student_module", sequenceName = "student_module_seq", allocationSize = IdGenerators.ALLOCATION_SIZE)
     @Column(name = "id")
     private Integer id;
 
@@ -2,6 +2,8 @@ package models;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.util.HashSet;
 import java.util.Set;
@@ -12,6 +14,8 @@ import java.util.Set;
 @EqualsAndHashCode(onlyExplicitlyIncluded = true)
 @NoArgsConstructor
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "teachers")
 @Table(name = "teachers")
 public class Teacher {
     @Id
@@ -37,6 +41,7 @@ public class Teacher {
 
     // Relación N:M con Module (tabla intermedia teacher_module)
     @ManyToMany(fetch = FetchType.LAZY)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "teacher-modules")
     @JoinTable(
             name = "teacher_module",
             joinColumns = @JoinColumn(name = "teacher_id"),
@@ -9,9 +9,14 @@ module org.example.studentgrades {
     requires static lombok;
     requires jakarta.persistence;
     requires org.hibernate.orm.core;
+    requires com.zaxxer.hikari;
     requires java.naming;
+    requires jdk.jfr;
 
     opens models to org.hibernate.orm.core;
+    opens dao.dto to org.hibernate.orm.core;
+    // Eventos propios de Java Flight Recorder
+    exports util.jfr to jdk.jfr;
 
     opens org.example.studentgrades to javafx.fxml;
     exports org.example.studentgrades;
@@ -1,15 +1,30 @@
 package org.example.studentgrades;
 
+import dao.async.DatabaseBootstrap;
 import javafx.application.Application;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Scene;
 import javafx.stage.Stage;
+import util.jfr.FlightRecording;
+import util.jfr.FxStallWatchdog;
 
 import java.io.IOException;
 
 public class StudentGrades extends Application {
+    @Override
+    public void init() {
+        // Grabación JFR si se arrancó con -Dapp.jfr=true
+        FlightRecording.startIfRequested();
+    }
+
     @Override
     public void start(Stage stage) throws IOException {
+        // Eventos JFR cuando el hilo de JavaFX se queda bloqueado
+        FxStallWatchdog.start();
+
+        // SessionFactory, pool y consultas de inicio se preparan mientras se muestra el login
+        DatabaseBootstrap.start();
+
         FXMLLoader fxmlLoader = new FXMLLoader(StudentGrades.class.getResource("start-view.fxml"));
         Scene scene = new Scene(fxmlLoader.load(), 780, 430);
         stage.setTitle("Ventana de inicio");
@@ -17,4 +32,9 @@ public class StudentGrades extends Application {
         stage.setResizable(true); // Redimension en falso
         stage.show();
     }
+
+    @Override
+    public void stop() {
+        DatabaseBootstrap.shutdown();
+    }
 }
@@ -0,0 +1,227 @@
+package org.example.studentgrades.controllers;
+
+import dao.metrics.DaoMethodStats;
+import dao.metrics.DaoMetrics;
+import dao.metrics.PrometheusExporter;
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
+import javafx.beans.property.SimpleStringProperty;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.fxml.FXML;
+import javafx.scene.control.*;
+import javafx.scene.text.Text;
+import javafx.stage.FileChooser;
+import javafx.stage.Window;
+import javafx.util.Duration;
+import org.hibernate.stat.Statistics;
+import util.CacheRegionStats;
+import util.FxExecutor;
+import util.HibernateUtil;
+import util.SlowQueryLog;
+import util.SqlStatementCounter;
+
+import java.io.File;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Controlador de la ventana de diagnóstico: métricas de cada método de DAO,
+ * del pool de conexiones y de Hibernate. Se refresca sola cada pocos segundos
+ * y permite exportar las métricas en formato Prometheus.
+ */
+public class DiagnosticsController {
+
+    private static final Duration REFRESH_INTERVAL = Duration.seconds(2);
+
+    @FXML
+    private Text summaryText;
+
+    @FXML
+    private TableView<MethodRow> methodsTable;
+
+    @FXML
+    private TableColumn<MethodRow, String> colDao;
+
+    @FXML
+    private TableColumn<MethodRow, String> colMethod;
+
+    @FXML
+    private TableColumn<MethodRow, String> colCalls;
+
+    @FXML
+    private TableColumn<MethodRow, String> colErrors;
+
+    @FXML
+    private TableColumn<MethodRow, String> colP50;
+
+    @FXML
+    private TableColumn<MethodRow, String> colP95;
+
+    @FXML
+    private TableColumn<MethodRow, String> colP99;
+
+    @FXML
+    private TableColumn<MethodRow, String> colStatements;
+
+    @FXML
+    private TableColumn<MethodRow, String> colRows;
+
+    @FXML
+    private Label poolLabel;
+
+    @FXML
+    private Label hibernateLabel;
+
+    @FXML
+    private Label statusLabel;
+
+    @FXML
+    private Button resetButton;
+
+    @FXML
+    private Button exportButton;
+
+    @FXML
+    private Button refreshButton;
+
+    private final Timeline autoRefresh = new Timeline(new KeyFrame(REFRESH_INTERVAL, _ -> refresh()));
+
+    @FXML
+    public void initialize() {
+        colDao.setCellValueFactory(data -> new SimpleStringProperty(data.getValue().dao()));
+        colMethod.setCellValueFactory(data -> new SimpleStringProperty(data.getValue().method()));
+        colCalls.setCellValueFactory(data -> new SimpleStringProperty(data.getValue().calls()));
+        colErrors.setCellValueFactory(data -> new SimpleStringProperty(data.getValue().errors()));
+        colP50.setCellValueFactory(data -> new SimpleStringProperty(data.getValue().p50()));
+        colP95.setCellValueFactory(data -> new SimpleStringProperty(data.getValue().p95()));
+        colP99.setCellValueFactory(data -> new SimpleStringProperty(data.getValue().p99()));
+        colStatements.setCellValueFactory(data -> new SimpleStringProperty(data.getValue().statementsPerCall()));
+        colRows.setCellValueFactory(data -> new SimpleStringProperty(data.getValue().rowsPerCall()));
+
+        refreshButton.setOnAction(_ -> refresh());
+        resetButton.setOnAction(_ -> handleReset());
+        exportButton.setOnAction(_ -> handleExport());
+
+        // Refresco automático hasta que se cierra la ventana
+        autoRefresh.setCycleCount(Timeline.INDEFINITE);
+        methodsTable.sceneProperty().addListener((_, _, scene) -> {
+            if (scene == null) return;
+            scene.windowProperty().addListener((_, _, window) -> {
+                if (window != null) window.setOnHidden(_ -> autoRefresh.stop());
+            });
+        });
+        autoRefresh.play();
+
+        if (!DaoMetrics.isEnabled()) {
+            statusLabel.setText("Métricas de DAO desactivadas (-Dapp.metrics=false)");
+        }
+        refresh();
+    }
+
+    /**
+     * Vuelve a leer todas las métricas (solo memoria: no hace consultas)
+     */
+    private void refresh() {
+        ObservableList<MethodRow> rows = FXCollections.observableArrayList();
+        long calls = 0;
+        for (DaoMethodStats stats : DaoMetrics.snapshot()) {
+            rows.add(toRow(stats));
+            calls += stats.calls();
+        }
+
+        // Conservar la fila seleccionada tras refrescar
+        MethodRow selected = methodsTable.getSelectionModel().getSelectedItem();
+        methodsTable.setItems(rows);
+        if (selected != null) {
+            rows.stream()
+                    .filter(row -> row.dao().equals(selected.dao()) && row.method().equals(selected.method()))
+                    .findFirst()
+                    .ifPresent(row -> methodsTable.getSelectionModel().select(row));
+        }
+
+        summaryText.setText(String.format("Perfil %s · %d llamadas a DAO · %d sentencias SQL · %d consultas lentas",
+                HibernateUtil.getProfile(), calls, SqlStatementCounter.totalCount(), SlowQueryLog.slowQueryCount()));
+        poolLabel.setText("Pool: " + HibernateUtil.getPoolMetrics());
+        hibernateLabel.setText(hibernateSummary());
+    }
+
+    private String hibernateSummary() {
+        Statistics statistics = HibernateUtil.getSessionFactory().getStatistics();
+        long hits = 0;
+        long misses = 0;
+        for (CacheRegionStats region : HibernateUtil.getCacheStatistics()) {
+            hits += region.hits();
+            misses += region.misses();
+        }
+        return String.format("Hibernate: consultas=%d (más lenta %d ms) sentencias=%d entidades cargadas=%d " +
+                        "colecciones cargadas=%d transacciones=%d caché aciertos=%d fallos=%d",
+                statistics.getQueryExecutionCount(), statistics.getQueryExecutionMaxTime(),
+                statistics.getPrepareStatementCount(), statistics.getEntityLoadCount(),
+                statistics.getCollectionFetchCount(), statistics.getTransactionCount(), hits, misses);
+    }
+
+    private MethodRow toRow(DaoMethodStats stats) {
+        return new MethodRow(
+                stats.dao(),
+                stats.method(),
+                String.valueOf(stats.calls()),
+                String.valueOf(stats.errors()),
+                String.format("%.3f", stats.latency().percentileMillis(0.50)),
+                String.format("%.3f", stats.latency().percentileMillis(0.95)),
+                String.format("%.3f", stats.latency().percentileMillis(0.99)),
+                String.format("%.1f", stats.statementsPerCall()),
+                String.format("%.1f", stats.rowsPerCall())
+        );
+    }
+
+    /**
+     * Pone a cero las métricas de los DAO
+     */
+    private void handleReset() {
+        DaoMetrics.reset();
+        statusLabel.setText("Métricas de DAO reiniciadas");
+        refresh();
+    }
+
+    /**
+     * Guarda las métricas en un fichero con formato Prometheus
+     */
+    private void handleExport() {
+        FileChooser chooser = new FileChooser();
+        chooser.setTitle("Exportar métricas");
+        chooser.setInitialFileName("studentgrades.prom");
+        chooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("Prometheus", "*.prom", "*.txt"));
+
+        Window window = exportButton.getScene().getWindow();
+        File file = chooser.showSaveDialog(window);
+        if (file == null) return;
+
+        exportButton.setDisable(true);
+        CompletableFuture.runAsync(() -> PrometheusExporter.writeTo(file.toPath()))
+                .whenCompleteAsync((_, error) -> {
+                    exportButton.setDisable(false);
+                    if (error != null) {
+                        Throwable cause = error.getCause() != null ? error.getCause() : error;
+                        statusLabel.setText("Error al exportar: " + cause.getMessage());
+                        System.out.println("(Depuración)" + cause.getMessage());
+                        return;
+                    }
+                    statusLabel.setText("Métricas exportadas a " + file.getName());
+                }, FxExecutor.INSTANCE);
+    }
+
+    /**
+     * Clase auxiliar para representar una fila en la tabla
+     */
+    public record MethodRow(
+            String dao,
+            String method,
+            String calls,
+            String errors,
+            String p50,
+            String p95,
+            String p99,
+            String statementsPerCall,
+            String rowsPerCall) {
+    }
+}
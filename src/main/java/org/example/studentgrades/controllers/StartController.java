@@ -1,11 +1,9 @@
 package org.example.studentgrades.controllers;
 
-import dao.impl.StudentDAOImp;
-import dao.impl.TeacherDAOImp;
-import dao.impl.UserDAOImp;
-import dao.interfaces.StudentDAO;
-import dao.interfaces.TeacherDAO;
-import dao.interfaces.UserDAO;
+import dao.async.AsyncUserDAO;
+import dao.async.DatabaseBootstrap;
+import dao.dto.SessionPrincipal;
+import javafx.application.Platform;
 import javafx.collections.FXCollections;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
@@ -13,10 +11,9 @@ import javafx.scene.Parent;
 import javafx.scene.Scene;
 import javafx.scene.control.*;
 import javafx.stage.Stage;
-import models.Student;
-import models.Teacher;
-import models.User;
 import models.UserType;
+import util.DatabaseExecutor;
+import util.FxExecutor;
 
 import java.io.IOException;
 
@@ -43,15 +40,11 @@ public class StartController {
     @FXML
     private Button exitButton;
 
-    // DAOs
-    private final UserDAO userDAO;
-    private final TeacherDAO teacherDAO;
-    private final StudentDAO studentDAO;
+    // DAO (asíncrono: las consultas no bloquean la interfaz)
+    private final AsyncUserDAO userDAO;
 
     public StartController() {
-        this.userDAO = new UserDAOImp();
-        this.teacherDAO = new TeacherDAOImp();
-        this.studentDAO = new StudentDAOImp();
+        this.userDAO = new AsyncUserDAO();
     }
 
     @FXML
@@ -95,61 +88,73 @@ public class StartController {
             return;
         }
 
-        try {
-            // Validar credenciales (NOTA: En producción, hashear la contraseña)
-            User user = userDAO.validateLogin(username, password);
-
-            if (user == null) {
-                showError("Usuario o contraseña incorrectos");
-                passField.clear();
-                passField.requestFocus();
-                return;
-            }
-
-            // Verificar que el tipo de usuario coincida con el seleccionado
-            if (!user.getUserType().equals(selectedRole)) {
-                showError("El cargo seleccionado no coincide con tu usuario");
-                roleCombo.requestFocus();
-                return;
-            }
-
-            // Login exitoso - Abrir ventana correspondiente
-            if (user.getUserType() == UserType.PROFESOR) {
-                openTeacherWindow(user);
-            } else if (user.getUserType() == UserType.ESTUDIANTE) {
-                openStudentWindow(user);
-            }
+        // Evitar dobles envíos mientras se valida
+        loginButton.setDisable(true);
 
-        } catch (Exception e) {
-            showError("Error al iniciar sesión: " + e.getMessage());
-            System.out.println("(Depuración)" + e.getMessage());
+        // Si la base de datos aún se está arrancando, se espera a que termine
+        String loginText = loginButton.getText();
+        if (!DatabaseBootstrap.isReady()) {
+            loginButton.setText("CONECTANDO...");
         }
+
+        // Validar credenciales y cargar el perfil en una sola consulta (NOTA: En producción, hashear la contraseña)
+        DatabaseBootstrap.ready()
+                .thenCompose(_ -> userDAO.login(username, password))
+                .whenCompleteAsync((principal, error) -> {
+                    loginButton.setDisable(false);
+                    loginButton.setText(loginText);
+
+                    if (error != null) {
+                        Throwable cause = DatabaseExecutor.unwrap(error);
+                        showError("Error al iniciar sesión: " + cause.getMessage());
+                        System.out.println("(Depuración)" + cause.getMessage());
+                        return;
+                    }
+
+                    if (principal == null) {
+                        showError("Usuario o contraseña incorrectos");
+                        passField.clear();
+                        passField.requestFocus();
+                        return;
+                    }
+
+                    // Verificar que el tipo de usuario coincida con el seleccionado
+                    if (!principal.userType().equals(selectedRole)) {
+                        showError("El cargo seleccionado no coincide con tu usuario");
+                        roleCombo.requestFocus();
+                        return;
+                    }
+
+                    // Login exitoso - Abrir ventana correspondiente
+                    if (principal.userType() == UserType.PROFESOR) {
+                        openTeacherWindow(principal);
+                    } else if (principal.userType() == UserType.ESTUDIANTE) {
+                        openStudentWindow(principal);
+                    }
+                }, FxExecutor.INSTANCE);
     }
 
     /**
      * Abre la ventana del profesor
      */
-    private void openTeacherWindow(User user) {
-        try {
-            // Obtener datos del profesor
-            Teacher teacher = teacherDAO.findByUserId(user.getId());
-
-            if (teacher == null) {
-                showError("No se encontraron datos de profesor");
-                return;
-            }
+    private void openTeacherWindow(SessionPrincipal principal) {
+        if (!principal.isTeacher()) {
+            showError("No se encontraron datos de profesor");
+            return;
+        }
 
+        try {
             // Cargar FXML
             FXMLLoader loader = new FXMLLoader(getClass().getResource("/org/example/studentgrades/teacher-view.fxml"));
             Parent root = loader.load();
 
             // Obtener controller y pasar datos
             TeacherController controller = loader.getController();
-            controller.initData(teacher);
+            controller.initData(principal);
 
             // Crear nueva ventana
             Stage stage = new Stage();
-            stage.setTitle("Panel de Profesor - " + user.getFirstName() + " " + user.getLastName());
+            stage.setTitle("Panel de Profesor - " + principal.fullName());
             stage.setScene(new Scene(root));
             stage.setResizable(true);
             stage.show();
@@ -166,27 +171,24 @@ public class StartController {
     /**
      * Abre la ventana del estudiante
      */
-    private void openStudentWindow(User user) {
-        try {
-            // Obtener datos del estudiante
-            Student student = studentDAO.findByUserId(user.getId());
-
-            if (student == null) {
-                showError("No se encontraron datos de estudiante");
-                return;
-            }
+    private void openStudentWindow(SessionPrincipal principal) {
+        if (!principal.isStudent()) {
+            showError("No se encontraron datos de estudiante");
+            return;
+        }
 
+        try {
             // Cargar FXML
             FXMLLoader loader = new FXMLLoader(getClass().getResource("/org/example/studentgrades/student-view.fxml"));
             Parent root = loader.load();
 
             // Obtener controller y pasar datos
             StudentController controller = loader.getController();
-            controller.initData(student);
+            controller.initData(principal);
 
             // Crear nueva ventana
             Stage stage = new Stage();
-            stage.setTitle("Panel de Estudiante - " + user.getFirstName() + " " + user.getLastName());
+            stage.setTitle("Panel de Estudiante - " + principal.fullName());
             stage.setScene(new Scene(root));
             stage.setResizable(true);
             stage.show();
@@ -222,7 +224,8 @@ public class StartController {
 
         alert.showAndWait().ifPresent(response -> {
             if (response == ButtonType.OK) {
-                System.exit(0);
+                // Platform.exit() pasa por StudentGrades.stop(), que cierra la base de datos
+                Platform.exit();
             }
         });
     }
@@ -1,7 +1,10 @@
 package org.example.studentgrades.controllers;
 
-import dao.impl.*;
-import dao.interfaces.*;
+import dao.dto.ModuleGradeSummary;
+import dao.dto.SessionPrincipal;
+import dao.dto.StudentGradesOverview;
+import dao.async.AsyncGradeDAO;
+import dao.async.AsyncStudentModuleDAO;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
@@ -15,10 +18,11 @@ import javafx.stage.Stage;
 import models.*;
 import models.Module;
 import javafx.collections.transformation.FilteredList;
+import util.DatabaseExecutor;
+import util.FxExecutor;
 
 import java.io.IOException;
 import java.math.BigDecimal;
-import java.util.List;
 /**
  * Controlador para la ventana del estudiante
  */
@@ -54,8 +58,8 @@ public class StudentController {
     @FXML
     private ListView<String> gradesList;
 
-    private final StudentModuleDAO studentModuleDAO;
-    private final GradeDAO gradeDAO;
+    private final AsyncStudentModuleDAO studentModuleDAO;
+    private final AsyncGradeDAO gradeDAO;
     private static final BigDecimal PASS_GRADE = new BigDecimal("5.0");
     private boolean loading = false;
 
@@ -63,9 +67,9 @@ public class StudentController {
     private Student currentStudent;
 
     public StudentController() {
-        // DAOs
-        this.studentModuleDAO = new StudentModuleDAOImp();
-        this.gradeDAO = new GradeDAOImp();
+        // DAOs (asíncronos: las consultas no bloquean la interfaz)
+        this.studentModuleDAO = new AsyncStudentModuleDAO();
+        this.gradeDAO = new AsyncGradeDAO();
     }
 
     @FXML
@@ -103,10 +107,10 @@ public class StudentController {
     private FilteredList<ModuleSummaryRow> filteredRows;
 
     /**
-     * Inicializa los datos del estudiante
+     * Inicializa los datos del estudiante con la sesión iniciada
      */
-    public void initData(Student student) {
-        this.currentStudent = student;
+    public void initData(SessionPrincipal principal) {
+        this.currentStudent = principal.student();
         loadStudentData();
     }
 
@@ -121,99 +125,99 @@ public class StudentController {
                 currentStudent.getUser().getLastName() + " (" + currentStudent.getCourse() + " - " +
                 currentStudent.getGradeGroup() + ")");
 
-        // Cargar módulos
+        // Cargar módulos y media general
         loadStudentModules();
-
-        // Calcular y mostrar media general
-        calculateOverallAverage();
     }
 
     /**
      * Carga los módulos del estudiante
      */
     private void loadStudentModules() {
-        try {
-            List<StudentModule> enrollments = studentModuleDAO.findByStudent(currentStudent.getId());
-            masterRows.clear();
-
-            // También cargar combo de filtros
-            ObservableList<Module> modules = FXCollections.observableArrayList();
-
-            // Evitar duplicados
-            java.util.Set<Integer> seen = new java.util.HashSet<>();
-
-            for (StudentModule enrollment : enrollments) {
-                Module module = enrollment.getModule();
-
-
-                if (seen.add(module.getId())) {
-                    modules.add(module);
-                }
-
-                Grade latest = gradeDAO.findLatestGrade(enrollment.getId());
-                BigDecimal average = gradeDAO.calculateAverageGrade(enrollment.getId());
-                if (average == null) average = BigDecimal.ZERO;
-
+        // Una sola consulta: resumen de cada módulo y media general
+        studentModuleDAO.findGradesOverviewByStudent(currentStudent.getId(), PASS_GRADE)
+                .whenCompleteAsync((overview, error) -> {
+                    if (error != null) {
+                        Throwable cause = DatabaseExecutor.unwrap(error);
+                        overallAvgLabel.setText("-");
+                        showError("Error al cargar módulos: " + cause.getMessage());
+                        System.out.println("(Depuración)" + cause.getMessage());
+                        return;
+                    }
+                    showStudentModules(overview);
+                }, FxExecutor.INSTANCE);
+    }
 
-                String lastGrade = (latest == null) ? "-" : String.format("%.2f", latest.getGrade());
-                String avgGrade = (average.compareTo(BigDecimal.ZERO) == 0) ? "-" : String.format("%.2f", average);
+    /**
+     * Muestra el resumen de módulos en la tabla y el combo de filtros
+     */
+    private void showStudentModules(StudentGradesOverview overview) {
+        masterRows.clear();
+
+        // También cargar combo de filtros
+        ObservableList<Module> modules = FXCollections.observableArrayList();
+
+        for (ModuleGradeSummary summary : overview.modules()) {
+            // El combo solo necesita el id (equals) y el nombre del módulo
+            Module module = new Module();
+            module.setId(summary.moduleId());
+            module.setModuleName(summary.moduleName());
+            modules.add(module);
+
+            String lastGrade = summary.hasGrades() ? String.format("%.2f", summary.lastGrade()) : "-";
+            String avgGrade = summary.hasGrades() ? String.format("%.2f", summary.average()) : "-";
+
+            String status;
+            if (!summary.hasGrades()) {
+                status = "Sin notas";
+            } else if (summary.passed()) {
+                status = "Aprobado";
+            } else {
+                status = "Suspenso";
+            }
 
-                String status;
-                if (latest == null) {
-                    status = "Sin notas";
-                } else if (average.compareTo(PASS_GRADE) >= 0) {
-                    status = "Aprobado";
-                } else {
-                    status = "Suspenso";
-                }
+            masterRows.add(new ModuleSummaryRow(
+                    summary.enrollmentId(),
+                    summary.moduleId(),
+                    summary.moduleName(),
+                    lastGrade,
+                    avgGrade,
+                    status
+            ));
+        }
 
+        // Mostrar media general
+        BigDecimal overallAvg = overview.overallAverage();
+        overallAvgLabel.setText(overallAvg == null ? "-" : String.format("%.2f", overallAvg));
 
-                masterRows.add(new ModuleSummaryRow(
-                        enrollment.getId(),
-                        module.getId(),
-                        module.getModuleName(),
-                        lastGrade,
-                        avgGrade,
-                        status
+        loading = true;
+        // Configurar combobox solo una vez
+        moduleFilterCombo.setItems(modules);
+        moduleFilterCombo.setCellFactory(_ -> new ListCell<>() {
+            @Override
 
-                ));
+            protected void updateItem(Module module, boolean empty) {
+                super.updateItem(module, empty);
+                setText(empty || module == null ? null : module.getModuleName());
             }
+        });
+        moduleFilterCombo.setButtonCell(new ListCell<>() {
+            @Override
+            protected void updateItem(Module module, boolean empty) {
+                super.updateItem(module, empty);
+                setText(empty || module == null ? "Todos" : module.getModuleName());
+            }
+        });
 
+        // Mostrar "Todos" al inicio (value null = todos)
+        moduleFilterCombo.setValue(null);
+        loading = false;
 
-            loading = true;
-            // Configurar combobox solo una vez
-            moduleFilterCombo.setItems(modules);
-            moduleFilterCombo.setCellFactory(_ -> new ListCell<>() {
-                @Override
-
-                protected void updateItem(Module module, boolean empty) {
-                    super.updateItem(module, empty);
-                    setText(empty || module == null ? null : module.getModuleName());
-                }
-            });
-            moduleFilterCombo.setButtonCell(new ListCell<>() {
-                @Override
-                protected void updateItem(Module module, boolean empty) {
-                    super.updateItem(module, empty);
-                    setText(empty || module == null ? "Todos" : module.getModuleName());
-                }
-            });
-
-            // Mostrar "Todos" al inicio (value null = todos)
-            moduleFilterCombo.setValue(null);
-            loading = false;
-
-            // aplica el filtro una sola vez, ya con to-do cargado
-            applyFilter(null);
-
-            // Selecciona primera fila para cargar notas automáticamente
-            if (!filteredRows.isEmpty()) {
-                modulesTable.getSelectionModel().select(0);
-            }
+        // aplica el filtro una sola vez, ya con to-do cargado
+        applyFilter(null);
 
-        } catch (Exception e) {
-            showError("Error al cargar módulos: " + e.getMessage());
-            System.out.println("(Depuración)" + e.getMessage());
+        // Selecciona primera fila para cargar notas automáticamente
+        if (!filteredRows.isEmpty()) {
+            modulesTable.getSelectionModel().select(0);
         }
     }
 
@@ -241,48 +245,37 @@ public class StudentController {
      * Carga las notas de un módulo específico
      */
     private void loadGradesForModule(Integer enrollmentId) {
-        try {
-            List<Grade> grades = gradeDAO.findByStudentModule(enrollmentId);
-            ObservableList<String> gradeItems = FXCollections.observableArrayList();
-
-            if (grades.isEmpty()) {
-                gradeItems.add("No hay notas registradas");
-            } else {
-                for (Grade grade : grades) {
-                    String item = String.format("%.2f", grade.getGrade());
-                    if (grade.getNotes() != null && !grade.getNotes().isEmpty()) {
-                        item += " - " + grade.getNotes();
+        gradeDAO.findByStudentModule(enrollmentId)
+                .whenCompleteAsync((grades, error) -> {
+                    // Descartar si mientras tanto se ha seleccionado otro módulo
+                    ModuleSummaryRow selected = modulesTable.getSelectionModel().getSelectedItem();
+                    if (selected == null || !selected.enrollmentId().equals(enrollmentId)) {
+                        return;
                     }
-                    gradeItems.add(item);
-                }
-            }
 
-            gradesList.setItems(gradeItems);
-
-        } catch (Exception e) {
-            showError("Error al cargar notas: " + e.getMessage());
-            System.out.println("(Depuración)" + e.getMessage());
-
-        }
-    }
-
-    /**
-     * Calcula y muestra la nota media general
-     */
-    private void calculateOverallAverage() {
-        try {
-            BigDecimal overallAvg = gradeDAO.calculateOverallAverageByStudent(currentStudent.getId());
+                    if (error != null) {
+                        Throwable cause = DatabaseExecutor.unwrap(error);
+                        showError("Error al cargar notas: " + cause.getMessage());
+                        System.out.println("(Depuración)" + cause.getMessage());
+                        return;
+                    }
 
-            if (overallAvg.compareTo(BigDecimal.ZERO) == 0) {
-                overallAvgLabel.setText("-");
-            } else {
-                overallAvgLabel.setText(String.format("%.2f", overallAvg));
-            }
+                    ObservableList<String> gradeItems = FXCollections.observableArrayList();
+
+                    if (grades.isEmpty()) {
+                        gradeItems.add("No hay notas registradas");
+                    } else {
+                        for (Grade grade : grades) {
+                            String item = String.format("%.2f", grade.getGrade());
+                            if (grade.getNotes() != null && !grade.getNotes().isEmpty()) {
+                                item += " - " + grade.getNotes();
+                            }
+                            gradeItems.add(item);
+                        }
+                    }
 
-        } catch (Exception e) {
-            overallAvgLabel.setText("-");
-            System.out.println("(Depuración)" + e.getMessage());
-        }
+                    gradesList.setItems(gradeItems);
+                }, FxExecutor.INSTANCE);
     }
 
     /**
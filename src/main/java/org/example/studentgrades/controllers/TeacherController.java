@@ -1,10 +1,19 @@
 package org.example.studentgrades.controllers;
 
+import dao.async.AsyncGradeDAO;
+import dao.dto.GradebookEntry;
+import dao.dto.GradebookSort;
+import dao.dto.Page;
+import dao.dto.SessionPrincipal;
 import dao.impl.*;
 import dao.interfaces.*;
+import dao.metrics.DaoMetrics;
+import javafx.animation.PauseTransition;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
+import javafx.collections.transformation.FilteredList;
+import javafx.collections.transformation.SortedList;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
@@ -12,13 +21,21 @@ import javafx.scene.Scene;
 import javafx.scene.control.*;
 import javafx.scene.text.Text;
 import javafx.stage.Stage;
+import javafx.util.Callback;
+import javafx.util.Duration;
 import models.*;
 import models.Module;
+import util.DatabaseExecutor;
+import util.FxExecutor;
+import util.LatestLoader;
+import util.PagedList;
+import util.SearchIndex;
 
 import java.io.IOException;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.util.List;
+import java.util.Objects;
 
 /**
  * Controlador para la ventana del profesor
@@ -58,6 +75,9 @@ public class TeacherController {
     @FXML
     private Button refreshButton;
 
+    @FXML
+    private Button diagnosticsButton;
+
     @FXML
     private Button logoutButton;
 
@@ -76,6 +96,12 @@ public class TeacherController {
     @FXML
     private Label statusLabel;
 
+    @FXML
+    private ProgressIndicator studentsLoadingIndicator;
+
+    @FXML
+    private ProgressIndicator gradesLoadingIndicator;
+
 
     @FXML
     private TableView<GradeRow> gradesTable;
@@ -95,20 +121,48 @@ public class TeacherController {
     @FXML private Button updateGradeButton;
 
 
-    // DAOs
-    private final TeacherDAO teacherDAO;
+    // DAOs síncronos para las cargas (LatestLoader y PagedList, que ya corren fuera del hilo de la interfaz)
+    // y su versión asíncrona para las escrituras de notas
     private final StudentModuleDAO studentModuleDAO;
     private final GradeDAO gradeDAO;
+    private final AsyncGradeDAO asyncGradeDAO;
+
+    // Pausa al teclear antes de filtrar la tabla de alumnos
+    private static final Duration SEARCH_DELAY = Duration.millis(200);
+
+    // Alumnos del módulo cargado, su índice de búsqueda y la vista filtrada que muestra la tabla
+    private final ObservableList<StudentModuleRow> masterRows = FXCollections.observableArrayList();
+    private FilteredList<StudentModuleRow> filteredRows;
+    private SearchIndex<StudentModuleRow> searchIndex = SearchIndex.build(List.of(), StudentModuleRow::studentName);
+    private final PauseTransition searchDelay = new PauseTransition(SEARCH_DELAY);
+
+    // Módulos con más matrículas que PAGED_THRESHOLD: la tabla lee las filas por páginas de PAGE_SIZE
+    // y guarda como mucho MAX_PAGES en memoria; el orden y la búsqueda los hace la base de datos
+    private static final int PAGED_THRESHOLD = Integer.getInteger("app.gradebook.pagedThreshold", 1000);
+    private static final int PAGE_SIZE = 100;
+    private static final int MAX_PAGES = 10;
+    private static final StudentModuleRow LOADING_ROW =
+            new StudentModuleRow(null, "Cargando...", "", "", "", "", "");
+
+    private SortedList<StudentModuleRow> sortedRows;
+    private Callback<TableView<StudentModuleRow>, Boolean> memorySortPolicy;
+    private PagedList<StudentModuleRow> pagedRows;      // null si todas las filas están en memoria
+    private PagedQuery pagedQuery;
+
+    // Cargas de las tablas: cada nueva selección cancela la anterior y solo se pinta la última
+    private final LatestLoader studentsLoader = new LatestLoader();
+    private final LatestLoader gradesLoader = new LatestLoader();
 
     // Datos actuales
     private Teacher currentTeacher;
     private StudentModuleRow selectedRow;
     private Integer editingGradeId = null;   // id de la nota que se está editando
+    private boolean replacingRow;            // se está sustituyendo una fila de la tabla (ver replaceRow)
 
     public TeacherController() {
-        this.teacherDAO = new TeacherDAOImp();
-        this.studentModuleDAO = new StudentModuleDAOImp();
-        this.gradeDAO = new GradeDAOImp();
+        this.studentModuleDAO = DaoMetrics.instrument(StudentModuleDAO.class, new StudentModuleDAOImp());
+        this.gradeDAO = DaoMetrics.instrument(GradeDAO.class, new GradeDAOImp());
+        this.asyncGradeDAO = new AsyncGradeDAO(gradeDAO);
     }
 
     @FXML
@@ -145,7 +199,14 @@ public class TeacherController {
 
         // Evento al seleccionar un estudiante
         studentsTable.getSelectionModel().selectedItemProperty().addListener((_, _, newVal) -> {
-            if (newVal != null) {
+            if (newVal == null && (replacingRow || (pagedRows != null && pagedRows.isUpdating()))) {
+                return;     // La fila se está sustituyendo por la misma matrícula con datos nuevos
+            }
+            if (newVal != null && selectedRow != null && Objects.equals(newVal.enrollmentId(), selectedRow.enrollmentId())) {
+                selectedRow = newVal;
+                return;
+            }
+            if (newVal != null && newVal.enrollmentId() != null) {
                 editingGradeId = null;
                 updateGradeButton.setDisable(true);
                 gradesTable.getSelectionModel().clearSelection();
@@ -170,6 +231,7 @@ public class TeacherController {
                 updateGradeButton.setDisable(true);
                 selectedRow = null;
                 selectedStudentLabel.setText("-");
+                gradesLoader.cancel();
                 gradesTable.setItems(FXCollections.observableArrayList());
                 deleteAllGradesButton.setDisable(true);
                 deleteGradeButton.setDisable(true);
@@ -195,151 +257,311 @@ public class TeacherController {
             }
         });
 
+        // Indicadores de carga mientras las tablas esperan a la base de datos
+        studentsLoadingIndicator.visibleProperty().bind(studentsLoader.loadingProperty());
+        gradesLoadingIndicator.visibleProperty().bind(gradesLoader.loadingProperty());
+
         // Evento al cambiar módulo
         moduleCombo.setOnAction(_ -> loadStudentsForModule());
 
-        // Búsqueda en tiempo real
-        searchField.textProperty().addListener((_, _, newVal) -> filterStudents(newVal));
+        // Tabla de alumnos: filtrada por la búsqueda y ordenable por columnas
+        filteredRows = new FilteredList<>(masterRows, _ -> true);
+        sortedRows = new SortedList<>(filteredRows);
+        sortedRows.comparatorProperty().bind(studentsTable.comparatorProperty());
+        studentsTable.setItems(sortedRows);
+        memorySortPolicy = studentsTable.getSortPolicy();
+
+        // Búsqueda mientras se escribe: se filtra cuando se deja de teclear SEARCH_DELAY
+        searchDelay.setOnFinished(_ -> filterStudents(searchField.getText()));
+        searchField.textProperty().addListener((_, _, _) -> searchDelay.playFromStart());
 
         // Botones
         refreshButton.setOnAction(_ -> loadStudentsForModule());
+        diagnosticsButton.setOnAction(_ -> handleOpenDiagnostics());
         saveGradeButton.setOnAction(_ -> handleSaveGrade());
         logoutButton.setOnAction(_ -> handleLogout());
         updateGradeButton.setOnAction(_ -> handleUpdateGrade());
     }
 
     /**
-     * Inicializa los datos del profesor
+     * Inicializa los datos del profesor con la sesión iniciada (ya trae sus módulos)
      */
-    public void initData(Teacher teacher) {
-        this.currentTeacher = teacher;
-        loadTeacherData();
+    public void initData(SessionPrincipal principal) {
+        this.currentTeacher = principal.teacher();
+        loadTeacherData(principal.modules());
     }
 
     /**
      * Carga los datos del profesor
      */
-    private void loadTeacherData() {
+    private void loadTeacherData(List<Module> modules) {
         if (currentTeacher == null) return;
 
         // Mostrar nombre
         teacherNameText.setText("Profesor/a: " + currentTeacher.getUser().getFirstName() + " " +
                 currentTeacher.getUser().getLastName());
 
-        // Cargar módulos
-        loadTeacherModules();
+        // Módulos (cargados en el inicio de sesión)
+        showTeacherModules(modules);
     }
 
     /**
-     * Carga los módulos del profesor
+     * Muestra los módulos del profesor en el combo
      */
-    private void loadTeacherModules() {
-
-        try {
-            List<Module> modules = teacherDAO.getModulesByTeacher(currentTeacher.getId());
-            ObservableList<Module> modulesList = FXCollections.observableArrayList(modules);
-            moduleCombo.setItems(modulesList);
-
-            // Se configura como se enseña cada modulo
-            moduleCombo.setCellFactory(_ -> new ListCell<>() {
-                @Override
-                protected void updateItem(Module module, boolean empty) {
-                    super.updateItem(module, empty);
-                    setText(empty || module == null ? null : module.getModuleName());
-                }
-            });
-
-            moduleCombo.setButtonCell(new ListCell<>() {
-                @Override
-                protected void updateItem(Module module, boolean empty) {
-                    super.updateItem(module, empty);
-                    setText(empty || module == null ? null : module.getModuleName());
-                }
-            });
+    private void showTeacherModules(List<Module> modules) {
+        ObservableList<Module> modulesList = FXCollections.observableArrayList(modules);
+        moduleCombo.setItems(modulesList);
+
+        // Se configura como se enseña cada modulo
+        moduleCombo.setCellFactory(_ -> new ListCell<>() {
+            @Override
+            protected void updateItem(Module module, boolean empty) {
+                super.updateItem(module, empty);
+                setText(empty || module == null ? null : module.getModuleName());
+            }
+        });
 
-            // Seleccionar el primer módulo
-            if (!modules.isEmpty()) {
-                moduleCombo.getSelectionModel().selectFirst();
-                loadStudentsForModule();
+        moduleCombo.setButtonCell(new ListCell<>() {
+            @Override
+            protected void updateItem(Module module, boolean empty) {
+                super.updateItem(module, empty);
+                setText(empty || module == null ? null : module.getModuleName());
             }
+        });
 
-        } catch (Exception e) {
-            showError("Error al cargar módulos: " + e.getMessage());
-            System.out.println("(Depuración)" + e.getMessage());
+        // Seleccionar el primer módulo
+        if (!modules.isEmpty()) {
+            moduleCombo.getSelectionModel().selectFirst();
+            loadStudentsForModule();
         }
     }
 
     /**
-     * Carga los estudiantes del módulo seleccionado
+     * Carga los estudiantes del módulo seleccionado (cancela la carga del módulo anterior)
      */
     private void loadStudentsForModule() {
         Module selectedModule = moduleCombo.getValue();
         if (selectedModule == null) return;
 
-        try {
-            List<StudentModule> enrollments = studentModuleDAO.findByModule(selectedModule.getId());
-            ObservableList<StudentModuleRow> rows = FXCollections.observableArrayList();
-
-            for (StudentModule enrollment : enrollments) {
-                Student student = enrollment.getStudent();
-                String studentName = student.getUser().getFirstName() + " " + student.getUser().getLastName();
-
-                // Obtener notas
-                List<Grade> grades = gradeDAO.findByStudentModule(enrollment.getId());
-                String lastGrade = "-";
-                String avgGrade = "-";
-                String gradeCount = String.valueOf(grades.size());
-
-                if (!grades.isEmpty()) {
-                    // Última nota
-                    Grade latest = grades.getFirst(); // Ya está ordenado por ID DESC
-                    lastGrade = String.format("%.2f", latest.getGrade());
-
-                    // Nota media
-                    BigDecimal average = gradeDAO.calculateAverageGrade(enrollment.getId());
-                    avgGrade = String.format("%.2f", average);
-                }
+        Integer moduleId = selectedModule.getId();
+        PagedQuery query = pagedQuery(moduleId, nameFilter(searchField.getText()));
+
+        studentsLoader.load(
+                () -> {
+                    long total = studentModuleDAO.countByModule(moduleId);
+                    if (total <= PAGED_THRESHOLD) {
+                        // Una sola consulta para todo el módulo (antes eran dos por alumno)
+                        return new StudentsLoad(studentModuleDAO.findGradebookByModule(moduleId), total);
+                    }
+                    if (query.nameFilter() != null) {
+                        total = studentModuleDAO.countGradebookByModule(moduleId, query.nameFilter());
+                    }
+                    return new StudentsLoad(null, total);
+                },
+                load -> {
+                    if (load.entries() == null) {
+                        showPagedRows(query, load.total());
+                    } else {
+                        showAllRows(load.entries());
+                    }
+                },
+                this::showStudentsError);
+    }
 
-                StudentModuleRow row = new StudentModuleRow(
-                        enrollment.getId(),
-                        studentName,
-                        student.getCourse(),
-                        student.getGradeGroup(),
-                        lastGrade,
-                        avgGrade,
-                        gradeCount
-                );
-                rows.add(row);
-            }
+    /**
+     * Muestra todas las filas del módulo, en memoria (búsqueda y orden sin ir a la base de datos)
+     */
+    private void showAllRows(List<GradebookEntry> entries) {
+        disposePagedRows();
+        studentsTable.setSortPolicy(memorySortPolicy);
+        studentsTable.setItems(sortedRows);
+
+        ObservableList<StudentModuleRow> rows = FXCollections.observableArrayList();
+        for (GradebookEntry entry : entries) {
+            rows.add(toRow(entry));
+        }
 
-            studentsTable.setItems(rows);
+        // El índice de búsqueda se construye una vez por carga
+        searchIndex = SearchIndex.build(rows, StudentModuleRow::studentName);
+        masterRows.setAll(rows);
+        filterStudents(searchField.getText());
+    }
 
-        } catch (Exception e) {
-            showError("Error al cargar estudiantes: " + e.getMessage());
-            System.out.println("(Depuración)" + e.getMessage());
+    /**
+     * Muestra las filas de un módulo grande por páginas, que se leen según se desplaza la tabla
+     */
+    private void showPagedRows(PagedQuery query, long total) {
+        disposePagedRows();
+        // La base de datos solo ordena por nombre, media o última nota
+        List<TableColumn<StudentModuleRow, ?>> sortOrder = studentsTable.getSortOrder();
+        if (!sortOrder.isEmpty() && sortOf(sortOrder.getFirst()) == null) {
+            sortOrder.clear();
         }
+        masterRows.clear();
+        searchIndex = SearchIndex.build(List.of(), StudentModuleRow::studentName);
+
+        pagedQuery = query;
+        pagedRows = new PagedList<>((int) Math.min(total, Integer.MAX_VALUE), PAGE_SIZE, MAX_PAGES, LOADING_ROW,
+                (cursor, limit) -> {
+                    Page<GradebookEntry> page = studentModuleDAO.findGradebookPage(query.moduleId(),
+                            query.nameFilter(), query.sort(), query.ascending(), cursor, limit);
+                    return new PagedList.Chunk<>(page.items().stream().map(this::toRow).toList(),
+                            page.nextPageToken());
+                },
+                this::showStudentsError);
+        studentsTable.setSortPolicy(this::sortPagedRows);
+        studentsTable.setItems(pagedRows);
     }
 
     /**
-     * Filtra estudiantes por nombre
+     * Vuelve a contar y mostrar las filas de un módulo grande con otro filtro por nombre
      */
-    private void filterStudents(String searchText) {
-        if (searchText == null || searchText.trim().isEmpty()) {
-            loadStudentsForModule();
-            return;
+    private void reloadPagedRows(PagedQuery query) {
+        studentsLoader.load(
+                () -> studentModuleDAO.countGradebookByModule(query.moduleId(), query.nameFilter()),
+                total -> showPagedRows(query, total),
+                this::showStudentsError);
+    }
+
+    /**
+     * Orden de la tabla con filas por páginas: lo hace la base de datos (nombre, media o última nota)
+     * @return false si la columna no se puede ordenar así (la tabla deshace el cambio de orden)
+     */
+    private boolean sortPagedRows(TableView<StudentModuleRow> table) {
+        if (pagedQuery == null) {
+            return true;    // Se está cambiando de lista
+        }
+        if (!table.getSortOrder().isEmpty() && sortOf(table.getSortOrder().getFirst()) == null) {
+            return false;
+        }
+
+        PagedQuery query = pagedQuery(pagedQuery.moduleId(), pagedQuery.nameFilter());
+        if (!query.equals(pagedQuery)) {
+            // Mismo número de filas: no hace falta volver a contar
+            showPagedRows(query, pagedRows.size());
+        }
+        return true;
+    }
+
+    /**
+     * Consulta por páginas con el orden actual de la tabla (por nombre si no hay o no se puede)
+     */
+    private PagedQuery pagedQuery(Integer moduleId, String nameFilter) {
+        List<TableColumn<StudentModuleRow, ?>> sortOrder = studentsTable.getSortOrder();
+        if (!sortOrder.isEmpty()) {
+            TableColumn<StudentModuleRow, ?> column = sortOrder.getFirst();
+            GradebookSort sort = sortOf(column);
+            if (sort != null) {
+                return new PagedQuery(moduleId, nameFilter, sort, column.getSortType() == TableColumn.SortType.ASCENDING);
+            }
+        }
+        return new PagedQuery(moduleId, nameFilter, GradebookSort.NAME, true);
+    }
+
+    private GradebookSort sortOf(TableColumn<StudentModuleRow, ?> column) {
+        if (column == colStudent) return GradebookSort.NAME;
+        if (column == colAvgGrade) return GradebookSort.AVERAGE;
+        if (column == colLastGrade) return GradebookSort.LAST_GRADE;
+        return null;
+    }
+
+    private void disposePagedRows() {
+        if (pagedRows != null) {
+            pagedRows.dispose();
+            pagedRows = null;
+            pagedQuery = null;
         }
+    }
 
-        ObservableList<StudentModuleRow> allRows = studentsTable.getItems();
-        ObservableList<StudentModuleRow> filtered = FXCollections.observableArrayList();
+    private void showStudentsError(Throwable error) {
+        showError("Error al cargar estudiantes: " + error.getMessage());
+        System.out.println("(Depuración)" + error.getMessage());
+    }
+
+    private static String nameFilter(String searchText) {
+        return searchText == null || searchText.isBlank() ? null : searchText.trim();
+    }
+
+    /**
+     * Convierte una fila del cuaderno de notas en una fila de la tabla
+     */
+    private StudentModuleRow toRow(GradebookEntry entry) {
+        return new StudentModuleRow(
+                entry.enrollmentId(),
+                entry.studentName(),
+                entry.course(),
+                entry.gradeGroup(),
+                formatGrade(entry.lastGrade()),
+                formatGrade(entry.average()),
+                String.valueOf(entry.gradeCount())
+        );
+    }
+
+    /**
+     * Actualiza en la tabla el resumen de notas de una matrícula sin recargar el módulo:
+     * el resto de filas, la selección y el desplazamiento de la tabla no cambian
+     */
+    private void replaceRow(Integer enrollmentId, GradeAggregate summary) {
+        boolean selected = selectedRow != null && enrollmentId.equals(selectedRow.enrollmentId());
+
+        replacingRow = true;
+        try {
+            StudentModuleRow updated = null;
+            if (pagedRows != null) {
+                // Solo si su página está en memoria; si no, se leerá ya actualizada
+                updated = pagedRows.replace(row -> enrollmentId.equals(row.enrollmentId()),
+                        row -> withSummary(row, summary));
+            } else {
+                for (int i = 0; i < masterRows.size(); i++) {
+                    StudentModuleRow row = masterRows.get(i);
+                    if (enrollmentId.equals(row.enrollmentId())) {
+                        updated = withSummary(row, summary);
+                        searchIndex.replace(row, updated);
+                        masterRows.set(i, updated);
+                        break;
+                    }
+                }
+            }
 
-        String lowerSearch = searchText.toLowerCase();
-        for (StudentModuleRow row : allRows) {
-            if (row.studentName().toLowerCase().contains(lowerSearch)) {
-                filtered.add(row);
+            if (updated != null && selected) {
+                selectedRow = updated;
+                studentsTable.getSelectionModel().select(updated);
             }
+        } finally {
+            replacingRow = false;
         }
+    }
+
+    private StudentModuleRow withSummary(StudentModuleRow row, GradeAggregate summary) {
+        return new StudentModuleRow(
+                row.enrollmentId(),
+                row.studentName(),
+                row.course(),
+                row.group(),
+                formatGrade(summary.getLatestGrade()),
+                formatGrade(summary.getAverage()),
+                String.valueOf(summary.getGradeCount())
+        );
+    }
 
-        studentsTable.setItems(filtered);
+    private static String formatGrade(BigDecimal grade) {
+        return grade == null ? "-" : String.format("%.2f", grade);
+    }
+
+    /**
+     * Filtra estudiantes por nombre (sin mayúsculas ni acentos), sobre las filas ya cargadas
+     */
+    private void filterStudents(String searchText) {
+        searchDelay.stop();
+        if (pagedQuery != null) {
+            // Módulo grande: las filas no están en memoria y la búsqueda la hace la base de datos
+            String filter = nameFilter(searchText);
+            if (!Objects.equals(filter, pagedQuery.nameFilter())) {
+                reloadPagedRows(new PagedQuery(pagedQuery.moduleId(), filter, pagedQuery.sort(), pagedQuery.ascending()));
+            }
+            return;
+        }
+        filteredRows.setPredicate(searchIndex.matcher(searchText));
     }
 
     /**
@@ -370,32 +592,34 @@ public class TeacherController {
 
             Integer enrollmentId = selectedRow.enrollmentId();
 
-            // Crear y guardar nota
-            Grade newGrade = new Grade();
-            StudentModule enrollment = studentModuleDAO.findById(enrollmentId);
-            newGrade.setStudentModule(enrollment);
-            newGrade.setGrade(gradeValue.setScale(2, RoundingMode.HALF_UP));
-            newGrade.setNotes(notesField.getText().trim());
+            String notes = notesField.getText().trim();
 
-            gradeDAO.save(newGrade);
+            // Crear y guardar nota; devuelve el resumen de la matrícula ya actualizado
+            saveGradeButton.setDisable(true);
+            asyncGradeDAO.addGrade(enrollmentId, gradeValue.setScale(2, RoundingMode.HALF_UP), notes)
+                    .whenCompleteAsync((summary, error) -> {
+                    saveGradeButton.setDisable(false);
 
-            // Actualizar tabla y historial
-            loadStudentsForModule();
+                    if (error != null) {
+                        Throwable cause = DatabaseExecutor.unwrap(error);
+                        statusLabel.setText("Error: " + cause.getMessage());
+                        System.out.println("(Depuración)" + cause.getMessage());
+                        return;
+                    }
 
-            // Cargar historial usando enrollmentId
-            loadGradesHistory(enrollmentId);
+                    // Actualizar la fila del alumno y su historial
+                    replaceRow(enrollmentId, summary);
+                    loadGradesHistory(enrollmentId);
 
-            // Limpiar campos
-            gradeField.clear();
-            notesField.clear();
-            statusLabel.setText("Nota guardada exitosamente");
+                    // Limpiar campos
+                    gradeField.clear();
+                    notesField.clear();
+                    statusLabel.setText("Nota guardada exitosamente");
+                }, FxExecutor.INSTANCE);
 
         } catch (NumberFormatException e) {
             statusLabel.setText("La nota debe ser un número válido");
             gradeField.requestFocus();
-        } catch (Exception e) {
-            statusLabel.setText("Error: " + e.getMessage());
-            System.out.println("(Depuración)" + e.getMessage());
         }
     }
 
@@ -404,28 +628,30 @@ public class TeacherController {
      */
 
     private void loadGradesHistory(Integer enrollmentId) {
-        try {
-            List<Grade> grades = gradeDAO.findByStudentModule(enrollmentId);
-            ObservableList<GradeRow> rows = FXCollections.observableArrayList();
-
-            for (Grade g : grades) {
-                String notes = (g.getNotes() == null) ? "" : g.getNotes();
-                rows.add(new GradeRow(
-                        g.getId(),
-                        String.format("%.2f", g.getGrade()),
-                        notes
-                ));
-            }
-
-            gradesTable.setItems(rows);
-
-            // Si no hay notas, se apaga el botón Eliminar nota
-            deleteGradeButton.setDisable(true);
-
-        } catch (Exception e) {
-            statusLabel.setText("Error cargando historial: " + e.getMessage());
-            System.out.println("(Depuración)" + e.getMessage());
-        }
+        // Cancela la carga del alumno seleccionado antes
+        gradesLoader.load(
+                () -> gradeDAO.findByStudentModule(enrollmentId),
+                grades -> {
+                    ObservableList<GradeRow> rows = FXCollections.observableArrayList();
+
+                    for (Grade g : grades) {
+                        String notes = (g.getNotes() == null) ? "" : g.getNotes();
+                        rows.add(new GradeRow(
+                                g.getId(),
+                                String.format("%.2f", g.getGrade()),
+                                notes
+                        ));
+                    }
+
+                    gradesTable.setItems(rows);
+
+                    // Si no hay notas, se apaga el botón Eliminar nota
+                    deleteGradeButton.setDisable(true);
+                },
+                error -> {
+                    statusLabel.setText("Error cargando historial: " + error.getMessage());
+                    System.out.println("(Depuración)" + error.getMessage());
+                });
     }
 
     /*
@@ -449,18 +675,22 @@ public class TeacherController {
             return;
         }
 
-        try {
-            gradeDAO.deleteById(selectedGrade.gradeId());
-            statusLabel.setText("Nota eliminada");
-
-            // Refrescar historial y tabla de alumnos
-            loadGradesHistory(selectedRow.enrollmentId());
-            loadStudentsForModule();
-
-        } catch (Exception e) {
-            statusLabel.setText("Error al eliminar: " + e.getMessage());
-            System.out.println("(Depuración)" + e.getMessage());
-        }
+        Integer enrollmentId = selectedRow.enrollmentId();
+        Integer gradeId = selectedGrade.gradeId();
+        asyncGradeDAO.deleteGrade(gradeId, enrollmentId)
+                .whenCompleteAsync((summary, error) -> {
+                    if (error != null) {
+                        Throwable cause = DatabaseExecutor.unwrap(error);
+                        statusLabel.setText("Error al eliminar: " + cause.getMessage());
+                        System.out.println("(Depuración)" + cause.getMessage());
+                        return;
+                    }
+                    statusLabel.setText("Nota eliminada");
+
+                    // Refrescar historial y fila del alumno
+                    loadGradesHistory(enrollmentId);
+                    replaceRow(enrollmentId, summary);
+                }, FxExecutor.INSTANCE);
     }
 
     /*
@@ -478,18 +708,21 @@ public class TeacherController {
             return;
         }
 
-        try {
-            gradeDAO.deleteByStudentModule(selectedRow.enrollmentId());
-            statusLabel.setText("Todas las notas borradas");
-
-            // Refrescar historial y tabla
-            loadGradesHistory(selectedRow.enrollmentId());
-            loadStudentsForModule();
-
-        } catch (Exception e) {
-            statusLabel.setText("Error al borrar: " + e.getMessage());
-            System.out.println("(Depuración)" + e.getMessage());
-        }
+        Integer enrollmentId = selectedRow.enrollmentId();
+        asyncGradeDAO.deleteGrades(enrollmentId)
+                .whenCompleteAsync((summary, error) -> {
+                    if (error != null) {
+                        Throwable cause = DatabaseExecutor.unwrap(error);
+                        statusLabel.setText("Error al borrar: " + cause.getMessage());
+                        System.out.println("(Depuración)" + cause.getMessage());
+                        return;
+                    }
+                    statusLabel.setText("Todas las notas borradas");
+
+                    // Refrescar historial y fila del alumno
+                    loadGradesHistory(enrollmentId);
+                    replaceRow(enrollmentId, summary);
+                }, FxExecutor.INSTANCE);
     }
 
     /*
@@ -537,40 +770,45 @@ public class TeacherController {
             // Guardamos el enrollmentId antes de refrescar tablas (por seguridad)
             Integer enrollmentId = selectedRow.enrollmentId();
 
-            // 1) Traer la nota por ID
-            Grade grade = gradeDAO.findById(editingGradeId);
-            if (grade == null) {
-                statusLabel.setText("No se encontró la nota a editar");
-                return;
-            }
-
-            // Modificar campos
-            grade.setGrade(gradeValue.setScale(2, RoundingMode.HALF_UP));
-            grade.setNotes(notesField.getText().trim());
+            Integer gradeId = editingGradeId;
+            String notes = notesField.getText().trim();
 
-            // UPDATE
-            gradeDAO.update(grade);
-
-            // Refrescar UI
-            loadGradesHistory(enrollmentId);
-            loadStudentsForModule();
-
-            // Limpiar estado edición
-            gradesTable.getSelectionModel().clearSelection();
-            editingGradeId = null;
+            // Modificar la nota (recalcula el resumen de la matrícula)
             updateGradeButton.setDisable(true);
-
-            gradeField.clear();
-            notesField.clear();
-
-            statusLabel.setText("Nota actualizada correctamente");
+            asyncGradeDAO.updateGrade(gradeId, gradeValue.setScale(2, RoundingMode.HALF_UP), notes)
+                    .whenCompleteAsync((summary, error) -> {
+                    if (error != null) {
+                        Throwable cause = DatabaseExecutor.unwrap(error);
+                        updateGradeButton.setDisable(editingGradeId == null);
+                        statusLabel.setText("Error: " + cause.getMessage());
+                        System.out.println("(Depuración)" + cause.getMessage());
+                        return;
+                    }
+
+                    if (summary == null) {
+                        updateGradeButton.setDisable(editingGradeId == null);
+                        statusLabel.setText("No se encontró la nota a editar");
+                        return;
+                    }
+
+                    // Refrescar UI
+                    loadGradesHistory(enrollmentId);
+                    replaceRow(enrollmentId, summary);
+
+                    // Limpiar estado edición
+                    gradesTable.getSelectionModel().clearSelection();
+                    editingGradeId = null;
+                    updateGradeButton.setDisable(true);
+
+                    gradeField.clear();
+                    notesField.clear();
+
+                    statusLabel.setText("Nota actualizada correctamente");
+                }, FxExecutor.INSTANCE);
 
         } catch (NumberFormatException e) {
             statusLabel.setText("La nota debe ser un número válido");
             gradeField.requestFocus();
-        } catch (Exception e) {
-            statusLabel.setText("Error: " + e.getMessage());
-            System.out.println("(Depuración)" + e.getMessage());
         }
     }
 
@@ -579,6 +817,9 @@ public class TeacherController {
      * Cierra sesión
      */
     private void handleLogout() {
+        studentsLoader.cancel();
+        gradesLoader.cancel();
+        disposePagedRows();
         try {
             // Abrir ventana de login
             FXMLLoader loader = new FXMLLoader(getClass().getResource("/org/example/studentgrades/start-view.fxml"));
@@ -600,6 +841,27 @@ public class TeacherController {
         }
     }
 
+    /**
+     * Abre la ventana de diagnóstico (métricas de los DAO, del pool y de Hibernate)
+     */
+    private void handleOpenDiagnostics() {
+        try {
+            FXMLLoader loader = new FXMLLoader(getClass().getResource("/org/example/studentgrades/diagnostics-view.fxml"));
+            Parent root = loader.load();
+
+            Stage stage = new Stage();
+            stage.setTitle("Diagnóstico");
+            stage.setScene(new Scene(root));
+            stage.setResizable(true);
+            stage.initOwner(diagnosticsButton.getScene().getWindow());
+            stage.show();
+
+        } catch (IOException e) {
+            showError("Error al abrir el diagnóstico: " + e.getMessage());
+            System.out.println("(Depuración)" + e.getMessage());
+        }
+    }
+
     /**
      * Muestra un mensaje de error
      */
@@ -622,4 +884,19 @@ public class TeacherController {
     public record GradeRow(Integer gradeId, String gradeValue, String notes) {
 
     }
+
+    /**
+     * Resultado de cargar un módulo: todas sus filas, o solo cuántas hay si se leen por páginas
+     * (entries es null)
+     */
+    private record StudentsLoad(List<GradebookEntry> entries, long total) {
+
+    }
+
+    /**
+     * Consulta de la tabla por páginas: módulo, filtro por nombre (null sin filtro) y orden
+     */
+    private record PagedQuery(Integer moduleId, String nameFilter, GradebookSort sort, boolean ascending) {
+
+    }
 }
\ No newline at end of file
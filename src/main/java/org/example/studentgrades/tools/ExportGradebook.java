@@ -0,0 +1,71 @@
+package org.example.studentgrades.tools;
+
+import dao.impl.ModuleDAOImp;
+import dao.interfaces.ModuleDAO;
+import dao.metrics.DaoMetrics;
+import export.ExportFormat;
+import export.ExportProgress;
+import export.ExportResult;
+import export.GradebookExporter;
+import models.Module;
+import util.HibernateUtil;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Exporta el cuaderno de notas a CSV o XLSX.
+ * Ejecutar con: mvn javafx:run@export-gradebook -Djavafx.args="..." con uno de:
+ *   modulo ID fichero [csv|xlsx]
+ *   curso CURSO fichero [csv|xlsx]
+ *   todo fichero [csv|xlsx]
+ *   modulos carpeta [csv|xlsx] [simultaneas]   (un fichero por módulo, varios a la vez)
+ */
+public class ExportGradebook {
+    public static void main(String[] args) {
+        // modulo y curso llevan además el ID o el curso antes del fichero
+        int required = args.length == 0 ? 2 : switch (args[0]) {
+            case "modulo", "curso" -> 3;
+            default -> 2;
+        };
+        if (args.length < required) {
+            System.err.println("Uso: ExportGradebook <modulo ID|curso CURSO|todo|modulos> <fichero o carpeta> "
+                    + "[csv|xlsx] [simultaneas]");
+            System.exit(2);
+        }
+
+        GradebookExporter exporter = new GradebookExporter();
+        ExportProgress progress = (file, rows, finished) ->
+                System.out.println(file.getFileName() + ": " + rows + " filas" + (finished ? " (terminado)" : ""));
+
+        try {
+            switch (args[0]) {
+                case "modulo" -> print(exporter.exportModule(Integer.valueOf(args[1]), Path.of(args[2]),
+                        format(args, 3), progress));
+                case "curso" -> print(exporter.exportCourse(args[1], Path.of(args[2]), format(args, 3), progress));
+                case "todo" -> print(exporter.exportAll(Path.of(args[1]), format(args, 2), progress));
+                case "modulos" -> {
+                    ModuleDAO moduleDAO = DaoMetrics.instrument(ModuleDAO.class, new ModuleDAOImp());
+                    List<Integer> moduleIds = moduleDAO.findAll().stream().map(Module::getId).toList();
+                    int parallelism = args.length > 3
+                            ? Integer.parseInt(args[3])
+                            : GradebookExporter.defaultParallelism();
+                    exporter.exportModules(moduleIds, Path.of(args[1]), format(args, 2), parallelism, progress)
+                            .forEach(ExportGradebook::print);
+                }
+                default -> throw new IllegalArgumentException("Tipo de exportación desconocido: " + args[0]);
+            }
+        } finally {
+            HibernateUtil.shutdown();
+        }
+    }
+
+    private static ExportFormat format(String[] args, int index) {
+        return args.length > index ? ExportFormat.valueOf(args[index].toUpperCase(Locale.ROOT)) : ExportFormat.CSV;
+    }
+
+    private static void print(ExportResult result) {
+        System.out.println("Exportado " + result.file() + " (" + result.rows() + " filas)");
+    }
+}
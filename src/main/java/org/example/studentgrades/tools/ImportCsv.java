@@ -0,0 +1,43 @@
+package org.example.studentgrades.tools;
+
+import dao.bulk.BulkImporter;
+import dao.dto.ImportReport;
+import util.HibernateUtil;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Importa un fichero CSV (UTF-8) de usuarios, alumnos, matrículas o notas. Formatos en BulkImporter.
+ * Ejecutar con: mvn javafx:run@import-csv -Djavafx.args="notas notas.csv [filasPorLote]"
+ */
+public class ImportCsv {
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Uso: ImportCsv <usuarios|alumnos|matriculas|notas> <fichero.csv> [filasPorLote]");
+            System.exit(2);
+        }
+
+        BulkImporter importer = args.length > 2
+                ? new BulkImporter(Integer.parseInt(args[2]))
+                : new BulkImporter();
+
+        Path file = Path.of(args[1]);
+        try (Reader csv = Files.newBufferedReader(file)) {
+            ImportReport report = switch (args[0]) {
+                case "usuarios" -> importer.importUsers(csv);
+                case "alumnos" -> importer.importStudents(csv);
+                case "matriculas", "matrículas" -> importer.importEnrollments(csv);
+                case "notas" -> importer.importGrades(csv, file.getFileName().toString());
+                default -> throw new IllegalArgumentException("Tipo de importación desconocido: " + args[0]);
+            };
+
+            System.out.println(report);
+            report.errors().forEach(System.out::println);
+        } finally {
+            HibernateUtil.shutdown();
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package org.example.studentgrades.tools;
+
+import dao.impl.GradeDAOImp;
+import dao.interfaces.GradeDAO;
+import dao.metrics.DaoMetrics;
+import util.HibernateUtil;
+
+/**
+ * Recalcula desde cero los resúmenes de notas (tabla grade_aggregates).
+ * Ejecutar con: mvn javafx:run@rebuild-aggregates
+ */
+public class RebuildGradeAggregates {
+    public static void main(String[] args) {
+        try {
+            GradeDAO gradeDAO = DaoMetrics.instrument(GradeDAO.class, new GradeDAOImp());
+            int rebuilt = gradeDAO.rebuildAggregates();
+            System.out.println("Resúmenes de notas recalculados: " + rebuilt + " matrículas");
+        } finally {
+            HibernateUtil.shutdown();
+        }
+    }
+}
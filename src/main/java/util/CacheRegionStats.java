@@ -0,0 +1,26 @@
+package util;
+
+/**
+ * Estadísticas de una región de la caché de segundo nivel
+ * @param region Nombre de la región (ver ehcache.xml)
+ * @param hits Lecturas resueltas desde la caché
+ * @param misses Lecturas que tuvieron que ir a la base de datos
+ * @param puts Entradas añadidas a la caché
+ * @param elementsInMemory Entradas que hay ahora mismo en memoria (-1 si no se conoce)
+ */
+public record CacheRegionStats(String region, long hits, long misses, long puts, long elementsInMemory) {
+
+    /**
+     * Proporción de aciertos entre 0 y 1 (0 si aún no hubo lecturas)
+     */
+    public double hitRatio() {
+        long reads = hits + misses;
+        return reads == 0 ? 0 : (double) hits / reads;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: aciertos=%d fallos=%d (%.1f%%) añadidas=%d en memoria=%d",
+                region, hits, misses, hitRatio() * 100, puts, elementsInMemory);
+    }
+}
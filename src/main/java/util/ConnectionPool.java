@@ -0,0 +1,209 @@
+package util;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+import org.hibernate.engine.jdbc.connections.spi.ConnectionProvider;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Pool de conexiones JDBC (HikariCP) sobre el que se construye el SessionFactory.
+ * Sustituye al proveedor DriverManager de Hibernate, que no está pensado para producción.
+ *
+ * La configuración se lee de las propiedades "hibernate.hikari.*" de hibernate.cfg.xml
+ * (se pueden sobrescribir con -D al arrancar). Las que empiezan por "hibernate.hikari.dataSource."
+ * se pasan tal cual al driver de MySQL (caché de sentencias preparadas, etc.).
+ */
+public final class ConnectionPool implements ConnectionProvider {
+
+    public static final String PREFIX = "hibernate.hikari.";
+
+    // Propiedades de conexión tal y como aparecen en hibernate.cfg.xml
+    public static final String URL = "hibernate.connection.url";
+    public static final String USER = "hibernate.connection.username";
+    public static final String PASSWORD = "hibernate.connection.password";
+    public static final String DRIVER = "hibernate.connection.driver_class";
+    private static final String POOL_NAME = "StudentGradesPool";
+    private static final int VALIDATION_TIMEOUT_SECONDS = 3;
+
+    private final HikariDataSource dataSource;
+    private final LatencyHistogram acquireTimes = new LatencyHistogram();
+    private final LongAdder acquireTimeouts = new LongAdder();
+    private volatile PoolStats poolStats;
+
+    private ConnectionPool(Properties settings) {
+        HikariConfig config = new HikariConfig(poolProperties(settings));
+        config.setPoolName(POOL_NAME);
+        config.setJdbcUrl(required(settings, URL));
+        config.setUsername(settings.getProperty(USER));
+        config.setPassword(settings.getProperty(PASSWORD));
+
+        String driver = settings.getProperty(DRIVER);
+        if (driver != null && !driver.isBlank()) {
+            config.setDriverClassName(driver.trim());
+        }
+
+        // Hibernate gestiona las transacciones: las conexiones salen del pool sin autocommit
+        config.setAutoCommit(false);
+        config.setMetricsTrackerFactory(new Tracker());
+
+        this.dataSource = new HikariDataSource(config);
+    }
+
+    /**
+     * Crear el pool a partir de la configuración de Hibernate
+     * @param settings Propiedades de hibernate.cfg.xml (url, usuario, contraseña y hibernate.hikari.*)
+     * @return Pool arrancado
+     */
+    public static ConnectionPool create(Properties settings) {
+        return new ConnectionPool(settings);
+    }
+
+    public HikariDataSource getDataSource() {
+        return dataSource;
+    }
+
+    // ConnectionProvider: Hibernate pide y devuelve las conexiones directamente al pool
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        // Envuelta para medir cada sentencia (registro de consultas lentas)
+        return SlowQueryLog.wrap(dataSource.getConnection());
+    }
+
+    @Override
+    public void closeConnection(Connection connection) throws SQLException {
+        connection.close();
+    }
+
+    @Override
+    public boolean supportsAggressiveRelease() {
+        return false;
+    }
+
+    @Override
+    public boolean isUnwrappableAs(Class<?> unwrapType) {
+        return unwrapType.isAssignableFrom(getClass())
+                || unwrapType.isAssignableFrom(DataSource.class)
+                || unwrapType.isAssignableFrom(HikariDataSource.class);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T unwrap(Class<T> unwrapType) {
+        if (unwrapType.isAssignableFrom(getClass())) {
+            return (T) this;
+        }
+        if (unwrapType.isAssignableFrom(HikariDataSource.class)) {
+            return (T) dataSource;
+        }
+        throw new IllegalArgumentException("No se puede obtener " + unwrapType.getName() + " del pool");
+    }
+
+    /**
+     * Obtener las métricas actuales del pool
+     * @return Conexiones activas, ociosas, hilos en espera e histograma del tiempo de obtención
+     */
+    public PoolMetrics metrics() {
+        PoolStats stats = poolStats;
+        if (stats == null) {
+            return new PoolMetrics(0, 0, 0, 0, 0, dataSource.getMaximumPoolSize(),
+                    acquireTimeouts.sum(), acquireTimes.snapshot());
+        }
+        return new PoolMetrics(
+                stats.getActiveConnections(),
+                stats.getIdleConnections(),
+                stats.getTotalConnections(),
+                stats.getPendingThreads(),
+                stats.getMinConnections(),
+                stats.getMaxConnections(),
+                acquireTimeouts.sum(),
+                acquireTimes.snapshot()
+        );
+    }
+
+    /**
+     * Abre ya las conexiones mínimas del pool (minimumIdle) y comprueba que responden,
+     * para que la primera consulta no pague la conexión con el servidor
+     * @return Conexiones comprobadas
+     */
+    public int warmUp() {
+        int target = Math.max(1, dataSource.getMinimumIdle());
+        List<Connection> connections = new ArrayList<>(target);
+        try {
+            for (int i = 0; i < target; i++) {
+                Connection connection = dataSource.getConnection();
+                connections.add(connection);
+                if (!connection.isValid(VALIDATION_TIMEOUT_SECONDS)) {
+                    throw new SQLException("La conexión no responde");
+                }
+            }
+            return connections.size();
+        } catch (SQLException e) {
+            throw new RuntimeException("Error al preparar las conexiones del pool: " + e.getMessage(), e);
+        } finally {
+            for (Connection connection : connections) {
+                try {
+                    connection.close();     // vuelve al pool
+                } catch (SQLException ignored) {
+                }
+            }
+        }
+    }
+
+    public void close() {
+        if (!dataSource.isClosed()) {
+            dataSource.close();
+        }
+    }
+
+    // Quita el prefijo "hibernate.hikari." para que HikariConfig aplique cada propiedad por reflexión
+    private static Properties poolProperties(Properties settings) {
+        Properties props = new Properties();
+        for (String name : settings.stringPropertyNames()) {
+            if (name.startsWith(PREFIX)) {
+                props.setProperty(name.substring(PREFIX.length()), settings.getProperty(name).trim());
+            }
+        }
+        return props;
+    }
+
+    private static String required(Properties settings, String name) {
+        String value = settings.getProperty(name);
+        if (value == null || value.isBlank()) {
+            throw new IllegalStateException("Falta la propiedad de conexión " + name);
+        }
+        return value.trim();
+    }
+
+    /**
+     * Recibe de Hikari los tiempos de obtención de conexión y las estadísticas del pool
+     */
+    private final class Tracker implements MetricsTrackerFactory {
+        @Override
+        public IMetricsTracker create(String poolName, PoolStats stats) {
+            poolStats = stats;
+            return new IMetricsTracker() {
+                @Override
+                public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+                    acquireTimes.record(elapsedAcquiredNanos);
+                }
+
+                @Override
+                public void recordConnectionTimeout() {
+                    acquireTimeouts.increment();
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package util;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.function.Supplier;
+
+/**
+ * Ejecuta las operaciones de base de datos fuera del hilo de JavaFX.
+ * Cada tarea corre en su propio hilo virtual y un semáforo limita cuántas
+ * usan la base de datos a la vez (tantas como conexiones tiene el pool):
+ * las demás esperan aquí sin ocupar una conexión ni un hilo del sistema.
+ */
+public final class DatabaseExecutor {
+
+    private static final ExecutorService executor =
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("db-", 0).factory());
+
+    private DatabaseExecutor() {
+    }
+
+    /**
+     * Ejecuta task en segundo plano
+     * @param task Operación de base de datos
+     * @return Futuro con el resultado de task (o su excepción)
+     */
+    public static <R> CompletableFuture<R> supply(Supplier<R> task) {
+        return CompletableFuture.supplyAsync(() -> withPermit(task), executor);
+    }
+
+    /**
+     * Igual que supply(Supplier) para operaciones sin resultado
+     */
+    public static CompletableFuture<Void> run(Runnable task) {
+        return supply(() -> {
+            task.run();
+            return null;
+        });
+    }
+
+    /**
+     * Excepción original de una tarea, sin el envoltorio de CompletableFuture
+     */
+    public static Throwable unwrap(Throwable error) {
+        Throwable cause = error;
+        while ((cause instanceof CompletionException || cause instanceof ExecutionException)
+                && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause;
+    }
+
+    private static <R> R withPermit(Supplier<R> task) {
+        Semaphore permits = Limit.PERMITS;
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Operación interrumpida esperando la base de datos", e);
+        }
+        try {
+            return task.get();
+        } finally {
+            permits.release();
+        }
+    }
+
+    // Se crea con la primera tarea (y con ella el SessionFactory), ya en un hilo virtual
+    private static final class Limit {
+        private static final Semaphore PERMITS = new Semaphore(HibernateUtil.getPoolMetrics().maxSize(), true);
+    }
+}
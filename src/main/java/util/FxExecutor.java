@@ -0,0 +1,23 @@
+package util;
+
+import javafx.application.Platform;
+
+import java.util.concurrent.Executor;
+
+/**
+ * Executor que ejecuta las tareas en el hilo de JavaFX.
+ * Se usa para aplicar a la interfaz el resultado de una operación asíncrona:
+ * future.whenCompleteAsync((result, error) -> ..., FxExecutor.INSTANCE)
+ */
+public final class FxExecutor implements Executor {
+
+    public static final FxExecutor INSTANCE = new FxExecutor();
+
+    private FxExecutor() {
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        Platform.runLater(command);
+    }
+}
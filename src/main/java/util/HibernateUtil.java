@@ -1,22 +1,80 @@
 package util;
 
+import org.hibernate.Session;
 import org.hibernate.SessionFactory;
+import org.hibernate.Transaction;
+import org.hibernate.cfg.AvailableSettings;
 import org.hibernate.cfg.Configuration;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import util.jfr.SessionEvent;
+import util.jfr.TransactionEvent;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 public class HibernateUtil {
 
+    // Perfil de configuración (-Dapp.profile): mysql (por defecto) o embedded (H2 en memoria, modo MySQL)
+    private static final String profile = System.getProperty("app.profile", "mysql");
+
+    // Modo depuración (-Dapp.debug=true): imprime todas las sentencias SQL por consola
+    private static final boolean debug = Boolean.getBoolean("app.debug");
+
     // Variable estática que contendrá la unica instancia
     private static final SessionFactory sf;
 
+    // Pool de conexiones sobre el que trabaja el SessionFactory
+    private static final ConnectionPool pool;
+
+    // Sesión de la unidad de trabajo activa en cada hilo (null si no hay ninguna)
+    private static final ThreadLocal<Session> currentSession = new ThreadLocal<>();
+
     // Bloque estático, se ejecuta una sola vez cuando se carga la clase
 
     static {
+        ConnectionPool createdPool = null;
         try {
-            sf = new Configuration()
-                    .configure()
-                    .buildSessionFactory();
-            System.out.println("Session factory creado correctamnete");
+            Configuration configuration = new Configuration().configure();
+            Properties settings = configuration.getProperties();
+            applyProfile(settings);
+            // Fuera de depuración no se imprime el SQL: las lentas quedan en SlowQueryLog
+            settings.setProperty(AvailableSettings.SHOW_SQL, String.valueOf(debug));
+            applySystemOverrides(settings);
+
+            createdPool = ConnectionPool.create(settings);
+
+            // El esquema lo crean y actualizan las migraciones (db/migration), no hbm2ddl
+            if (SchemaMigrator.isEnabled()) {
+                SchemaMigrator.migrate(createdPool.getDataSource(),
+                        settings.getProperty(SchemaMigrator.SEED_SCRIPTS));
+            }
+
+            // Hibernate obtiene las conexiones del pool en lugar de usar DriverManager
+            settings.put(AvailableSettings.CONNECTION_PROVIDER, createdPool);
+            // Sentencias SQL por llamada a DAO (ver dao.metrics.DaoMetrics)
+            settings.put(AvailableSettings.STATEMENT_INSPECTOR, SqlStatementCounter.INSTANCE);
+
+            SessionFactory factory = configuration.buildSessionFactory();
+            try {
+                IdGeneratorSeeder.seed(factory);
+            } catch (RuntimeException e) {
+                factory.close();
+                throw e;
+            }
+
+            sf = factory;
+            pool = createdPool;
+            System.out.println("Session factory creado correctamnete (perfil " + profile + ")");
         } catch (Throwable ex){
+            if (createdPool != null) {
+                createdPool.close();
+            }
             System.err.println("Error al crear SessionFactory: " + ex);
             throw new ExceptionInInitializerError(ex);
         }
@@ -28,6 +86,142 @@ public class HibernateUtil {
         return sf;
     }
 
+    /**
+     * Ejecuta varias operaciones de DAO en una sola sesión y una sola transacción.
+     * Todos los DAO llamados desde work se unen a ella; se confirma al terminar
+     * y se deshace entera si work lanza una excepción.
+     * Si ya hay una unidad de trabajo activa en el hilo, work se une a ella.
+     * @param work Operaciones a ejecutar
+     * @return Resultado de work
+     */
+    public static <R> R inTransaction(Supplier<R> work){
+        return transactional(_ -> work.get());
+    }
+
+    /**
+     * Igual que inTransaction(Supplier) para operaciones sin resultado
+     */
+    public static void inTransaction(Runnable work){
+        transactional(_ -> {
+            work.run();
+            return null;
+        });
+    }
+
+    /**
+     * Sesión de la unidad de trabajo activa en este hilo
+     * @return Sesión actual o null si no hay ninguna
+     */
+    public static Session getCurrentSession(){
+        return currentSession.get();
+    }
+
+    /**
+     * Ejecuta work con la sesión actual del hilo o, si no hay, con una nueva
+     * que queda asociada al hilo mientras dura work (sin transacción)
+     */
+    public static <R> R withSession(Function<Session, R> work){
+        Session current = currentSession.get();
+        if (current != null) {
+            return work.apply(current);
+        }
+
+        SessionEvent event = new SessionEvent();
+        event.begin();
+        long statementsBefore = SqlStatementCounter.currentThreadCount();
+        try (Session session = getSessionFactory().openSession()) {
+            currentSession.set(session);
+            return work.apply(session);
+        } finally {
+            currentSession.remove();
+            event.kind = SessionEvent.UNIT_OF_WORK;
+            event.statements = SqlStatementCounter.currentThreadCount() - statementsBefore;
+            event.commit();
+        }
+    }
+
+    /**
+     * Ejecuta work dentro de una transacción: se une a la del hilo si está activa
+     * o abre una nueva (y la sesión si hace falta)
+     */
+    public static <R> R transactional(Function<Session, R> work){
+        Session current = currentSession.get();
+        if (current == null) {
+            return withSession(session -> runInNewTransaction(session, work));
+        }
+
+        Transaction transaction = current.getTransaction();
+        if (!transaction.isActive()) {
+            return runInNewTransaction(current, work);
+        }
+
+        try {
+            return work.apply(current);
+        } catch (RuntimeException | Error e) {
+            // El fallo de una operación anidada invalida toda la unidad de trabajo
+            transaction.markRollbackOnly();
+            throw e;
+        }
+    }
+
+    private static <R> R runInNewTransaction(Session session, Function<Session, R> work){
+        TransactionEvent event = new TransactionEvent();
+        event.begin();
+        long statementsBefore = SqlStatementCounter.currentThreadCount();
+        Transaction transaction = session.beginTransaction();
+        try {
+            R result = work.apply(session);
+            if (transaction.getRollbackOnly()) {
+                throw new IllegalStateException("La transacción se marcó para deshacer tras un error");
+            }
+            transaction.commit();
+            event.outcome = TransactionEvent.COMMIT;
+            return result;
+        } catch (RuntimeException | Error e) {
+            if (transaction.isActive()) {
+                transaction.rollback();
+            }
+            event.outcome = TransactionEvent.ROLLBACK;
+            throw e;
+        } finally {
+            event.statements = SqlStatementCounter.currentThreadCount() - statementsBefore;
+            event.commit();
+        }
+    }
+
+    // Perfil de configuración activo
+
+    public static String getProfile(){
+        return profile;
+    }
+
+    // Métricas del pool de conexiones (activas, libres, hilos en espera, tiempo de obtención)
+
+    public static PoolMetrics getPoolMetrics(){
+        return pool.metrics();
+    }
+
+    // Abre y comprueba las conexiones mínimas del pool (ver dao.async.DatabaseBootstrap)
+
+    public static int warmUpPool(){
+        return pool.warmUp();
+    }
+
+    // Aciertos y fallos de cada región de la caché de segundo nivel
+
+    public static List<CacheRegionStats> getCacheStatistics(){
+        Statistics statistics = sf.getStatistics();
+        List<CacheRegionStats> regions = new ArrayList<>();
+        for (String region : statistics.getSecondLevelCacheRegionNames()) {
+            CacheRegionStatistics stats = statistics.getDomainDataRegionStatistics(region);
+            // JCache no expone el número de entradas: Hibernate devuelve un valor negativo
+            long inMemory = Math.max(stats.getElementCountInMemory(), -1);
+            regions.add(new CacheRegionStats(region, stats.getHitCount(), stats.getMissCount(),
+                    stats.getPutCount(), inMemory));
+        }
+        return regions;
+    }
+
     // Metodo para cerrar el session factory y liberar recursos al cerrar la app
 
     public static void shutdown(){
@@ -35,5 +229,34 @@ public class HibernateUtil {
             sf.close();
             System.out.println("Session factory cerrado");
         }
+        if (pool != null){
+            pool.close();
+        }
+        SlowQueryLog.close();
+    }
+
+    // La conexión (driver, URL, usuario, dialecto) sale de profiles/<perfil>.properties
+
+    private static void applyProfile(Properties settings) throws IOException {
+        String resource = "/profiles/" + profile + ".properties";
+        try (InputStream in = HibernateUtil.class.getResourceAsStream(resource)) {
+            if (in == null) {
+                throw new IllegalArgumentException("Perfil de configuración desconocido: " + profile);
+            }
+            Properties profileSettings = new Properties();
+            profileSettings.load(in);
+            settings.putAll(profileSettings);
+        }
+    }
+
+    // Las propiedades "hibernate.*" pasadas con -D tienen prioridad sobre hibernate.cfg.xml
+
+    private static void applySystemOverrides(Properties settings){
+        Properties system = System.getProperties();
+        for (String name : system.stringPropertyNames()) {
+            if (name.startsWith("hibernate.")) {
+                settings.setProperty(name, system.getProperty(name));
+            }
+        }
     }
 }
@@ -0,0 +1,70 @@
+package util;
+
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.id.enhanced.DatabaseStructure;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.hibernate.persister.entity.EntityPersister;
+
+/**
+ * Adelanta las secuencias de IDs por bloques (ver models.IdGenerators) por encima del mayor ID de su entidad.
+ * Hace falta cuando hay filas que no pasaron por la secuencia: las creadas con AUTO_INCREMENT antes de
+ * cambiar de estrategia, o con SQL (datos de ejemplo, migraciones). Solo sube el valor, nunca lo baja,
+ * así que no molesta a otras instancias de la aplicación que ya tengan un bloque reservado.
+ */
+final class IdGeneratorSeeder {
+
+    private IdGeneratorSeeder() {
+    }
+
+    static void seed(SessionFactory sessionFactory) {
+        SessionFactoryImplementor factory = sessionFactory.unwrap(SessionFactoryImplementor.class);
+        Dialect dialect = factory.getJdbcServices().getDialect();
+
+        factory.getMappingMetamodel().forEachEntityDescriptor(persister -> {
+            if (persister.getGenerator() instanceof SequenceStyleGenerator generator) {
+                sessionFactory.inTransaction(session -> seed(session, dialect, persister, generator));
+            }
+        });
+    }
+
+    private static void seed(Session session, Dialect dialect, EntityPersister persister,
+                             SequenceStyleGenerator generator) {
+        Number maxId = session.createQuery(
+                "SELECT MAX(e." + persister.getIdentifierPropertyName() + ") FROM " + persister.getEntityName() + " e",
+                Number.class
+        ).getSingleResult();
+
+        // Con el optimizador pooled el valor leído es el último ID del bloque: (valor - incremento, valor]
+        DatabaseStructure structure = generator.getDatabaseStructure();
+        long next = (maxId == null ? 0 : maxId.longValue()) + structure.getIncrementSize();
+        String name = structure.getPhysicalName().render();
+
+        if (structure.isPhysicalSequence()) {
+            // Leer el siguiente valor consume un bloque: no importa, solo se salta un hueco de IDs
+            Number current = (Number) session.createNativeQuery(
+                    dialect.getSequenceSupport().getSequenceNextValString(name), Object.class).getSingleResult();
+            if (current.longValue() < next) {
+                session.createNativeMutationQuery("ALTER SEQUENCE " + name + " RESTART WITH " + next)
+                        .executeUpdate();
+            }
+            return;
+        }
+
+        // Tabla que hace de secuencia (MySQL): una sola fila con next_val
+        int updated = session.createNativeMutationQuery("UPDATE " + name + " SET next_val = :next WHERE next_val < :next")
+                .setParameter("next", next)
+                .executeUpdate();
+        if (updated == 0) {
+            Long rows = session.createNativeQuery("SELECT COUNT(*) FROM " + name, Long.class).getSingleResult();
+            if (rows == 0) {
+                // Tablas creadas por hbm2ddl=update sin su fila inicial (la migración V2 ya la inserta)
+                session.createNativeMutationQuery("INSERT INTO " + name + " (next_val) VALUES (:next)")
+                        .setParameter("next", next)
+                        .executeUpdate();
+            }
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package util;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histograma de latencias sin bloqueos, con cubetas en potencias de 2 (microsegundos).
+ * La cubeta i cuenta las muestras en [2^(i-1), 2^i) µs; la 0 las menores de 1 µs.
+ * Los percentiles se estiman con el límite superior de la cubeta (error máximo x2).
+ */
+public final class LatencyHistogram {
+
+    // 2^39 µs ≈ 6 días: suficiente para cualquier latencia real
+    private static final int BUCKETS = 40;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private volatile long maxNanos;
+
+    /**
+     * Registrar una muestra
+     * @param nanos Duración en nanosegundos
+     */
+    public void record(long nanos) {
+        if (nanos < 0) nanos = 0;
+        long micros = TimeUnit.NANOSECONDS.toMicros(nanos);
+        int bucket = Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(micros));
+        buckets.incrementAndGet(bucket);
+        count.increment();
+        totalNanos.add(nanos);
+        if (nanos > maxNanos) {
+            maxNanos = nanos;   // carrera benigna: el máximo es orientativo
+        }
+    }
+
+    /**
+     * Obtener una copia de los valores actuales
+     * @return Snapshot inmutable del histograma
+     */
+    public Snapshot snapshot() {
+        long[] copy = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            copy[i] = buckets.get(i);
+        }
+        return new Snapshot(copy, count.sum(), totalNanos.sum(), maxNanos);
+    }
+
+    /**
+     * Vaciar el histograma
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets.set(i, 0);
+        }
+        count.reset();
+        totalNanos.reset();
+        maxNanos = 0;
+    }
+
+    /**
+     * Límite superior (en µs) de una cubeta
+     */
+    public static long bucketUpperBoundMicros(int bucket) {
+        return 1L << bucket;
+    }
+
+    /**
+     * Valores del histograma en un instante
+     * @param buckets Muestras por cubeta
+     * @param count Total de muestras
+     * @param totalNanos Suma de todas las duraciones
+     * @param maxNanos Duración máxima observada
+     */
+    public record Snapshot(long[] buckets, long count, long totalNanos, long maxNanos) {
+
+        /**
+         * Estimar un percentil
+         * @param quantile Cuantil entre 0 y 1 (ej: 0.95)
+         * @return Latencia estimada en milisegundos (0 si no hay muestras)
+         */
+        public double percentileMillis(double quantile) {
+            if (count == 0) return 0;
+            long rank = (long) Math.ceil(quantile * count);
+            long seen = 0;
+            for (int i = 0; i < buckets.length; i++) {
+                seen += buckets[i];
+                if (seen >= Math.max(rank, 1)) {
+                    double upperMillis = bucketUpperBoundMicros(i) / 1000.0;
+                    return Math.min(upperMillis, maxNanos / 1_000_000.0);
+                }
+            }
+            return maxNanos / 1_000_000.0;
+        }
+
+        public double meanMillis() {
+            return count == 0 ? 0 : totalNanos / 1_000_000.0 / count;
+        }
+
+        public double maxMillis() {
+            return maxNanos / 1_000_000.0;
+        }
+    }
+}
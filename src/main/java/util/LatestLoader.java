@@ -0,0 +1,136 @@
+package util;
+
+import javafx.application.Platform;
+import javafx.beans.property.ReadOnlyBooleanProperty;
+import javafx.beans.property.ReadOnlyBooleanWrapper;
+import org.hibernate.Session;
+import org.hibernate.jpa.SpecHints;
+
+import java.util.concurrent.CancellationException;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Carga de datos en segundo plano en la que solo cuenta la última petición: cada load() cancela la anterior
+ * (si aún espera turno no llega a ejecutarse; si su consulta está en marcha se cancela en la base de datos
+ * con Session.cancelQuery, que llama a Statement.cancel) y solo el resultado de la última se entrega.
+ * Pensado para las tablas que se recargan al cambiar la selección: aunque el usuario pase rápido por
+ * varias opciones, la base de datos no acumula consultas que ya no interesan.
+ *
+ * Las consultas de cada carga tienen además un tiempo máximo (-Dapp.load.queryTimeoutMs, 30 s por defecto).
+ * load() y cancel() se llaman desde el hilo de JavaFX, y los resultados se entregan también en él.
+ * loadingProperty() indica si hay una carga en curso (para mostrar un indicador).
+ */
+public final class LatestLoader {
+
+    private static final int queryTimeoutMillis = Integer.getInteger("app.load.queryTimeoutMs", 30_000);
+
+    private final ReadOnlyBooleanWrapper loading = new ReadOnlyBooleanWrapper(false);
+    private Load current;
+
+    /**
+     * Lanza una carga y cancela la que estuviera en curso
+     * @param query Consultas a ejecutar (DAO síncronos: se unen a la sesión de la carga)
+     * @param onResult Recibe el resultado, en el hilo de JavaFX, si nadie ha pedido otra carga después
+     * @param onError Recibe la excepción original, en las mismas condiciones
+     */
+    public <R> void load(Supplier<R> query, Consumer<? super R> onResult, Consumer<? super Throwable> onError) {
+        checkFxThread();
+        cancel();
+
+        Load load = new Load();
+        current = load;
+        loading.set(true);
+
+        DatabaseExecutor.supply(() -> load.run(query))
+                .whenCompleteAsync((result, error) -> {
+                    if (current != load) {
+                        return;     // Llegó otra petición: este resultado ya no vale
+                    }
+                    current = null;
+                    loading.set(false);
+
+                    if (error != null) {
+                        onError.accept(DatabaseExecutor.unwrap(error));
+                    } else {
+                        onResult.accept(result);
+                    }
+                }, FxExecutor.INSTANCE);
+    }
+
+    /**
+     * Cancela la carga en curso, si la hay (su resultado no se entrega)
+     */
+    public void cancel() {
+        checkFxThread();
+        if (current != null) {
+            current.cancel();
+            current = null;
+            loading.set(false);
+        }
+    }
+
+    public ReadOnlyBooleanProperty loadingProperty() {
+        return loading.getReadOnlyProperty();
+    }
+
+    public boolean isLoading() {
+        return loading.get();
+    }
+
+    private static void checkFxThread() {
+        if (!Platform.isFxApplicationThread()) {
+            throw new IllegalStateException("LatestLoader debe usarse desde el hilo de JavaFX");
+        }
+    }
+
+    /**
+     * Una carga: la sesión en la que corren sus consultas, para poder cancelarlas desde otro hilo
+     */
+    private static final class Load {
+
+        private volatile boolean cancelled;
+        private Session session;
+
+        <R> R run(Supplier<R> query) {
+            if (cancelled) {
+                throw new CancellationException("Carga cancelada antes de empezar");
+            }
+            return HibernateUtil.withSession(session -> {
+                attach(session);
+                try {
+                    session.setProperty(SpecHints.HINT_SPEC_QUERY_TIMEOUT, queryTimeoutMillis);
+                    return query.get();
+                } finally {
+                    detach();
+                }
+            });
+        }
+
+        private synchronized void attach(Session session) {
+            if (cancelled) {
+                throw new CancellationException("Carga cancelada antes de empezar");
+            }
+            this.session = session;
+        }
+
+        private synchronized void detach() {
+            this.session = null;
+        }
+
+        void cancel() {
+            Session running;
+            synchronized (this) {
+                cancelled = true;
+                running = session;
+            }
+            if (running != null) {
+                try {
+                    running.cancelQuery();
+                } catch (RuntimeException e) {
+                    // La consulta ya había terminado
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,237 @@
+package util;
+
+import javafx.collections.ObservableListBase;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+
+/**
+ * Lista de solo lectura para un TableView que no tiene todas sus filas en memoria: las lee de la base
+ * de datos por páginas cuando la tabla las pide (la tabla solo pide las filas visibles) y guarda como
+ * mucho maxPages páginas; al pasar de ahí se descarta la usada hace más tiempo.
+ *
+ * Las páginas se piden por clave, sin OFFSET: cada página devuelve el cursor de la siguiente, y los
+ * cursores se guardan todos (son pocos y pequeños), así que volver a una página ya vista es una sola consulta.
+ * Para llegar a una página cuyo cursor aún no se conoce (al arrastrar la barra de desplazamiento)
+ * se leen en orden las anteriores desde la última con cursor.
+ *
+ * Mientras una página se carga, sus filas se ven como placeholder; al llegar se avisa a la tabla con
+ * un cambio de tipo "replace" de ese tramo. El número de filas se fija al crear la lista: para otro orden,
+ * filtro o tamaño se crea una lista nueva y se llama a dispose() sobre la anterior.
+ * Se usa solo desde el hilo de JavaFX; las páginas se leen en DatabaseExecutor.
+ * No admite ordenar la lista en memoria: con un TableView hay que cambiar su sortPolicy
+ * para que el orden lo haga la base de datos.
+ * @param <T> Tipo de las filas
+ */
+public final class PagedList<T> extends ObservableListBase<T> {
+
+    /**
+     * Lee como mucho limit filas a partir de cursor (se llama fuera del hilo de JavaFX)
+     */
+    @FunctionalInterface
+    public interface PageLoader<T> {
+        /**
+         * @param cursor Cursor devuelto con la página anterior, o null para la primera
+         * @return Filas de la página y cursor de la siguiente (null si es la última)
+         */
+        Chunk<T> load(String cursor, int limit);
+    }
+
+    /**
+     * Filas de una página y cursor de la siguiente (null si es la última)
+     */
+    public record Chunk<T>(List<T> rows, String next) {
+    }
+
+    private final int size;
+    private final int pageSize;
+    private final T placeholder;
+    private final PageLoader<T> loader;
+    private final Consumer<? super Throwable> onError;
+
+    // Páginas en memoria por número, de la usada hace más tiempo a la más reciente
+    private final Map<Integer, List<T>> pages;
+    private final Set<Integer> loading = new HashSet<>();
+    // Cursor de cada página cuya anterior ya se ha leído (la primera empieza en null)
+    private final NavigableMap<Integer, String> cursors = new TreeMap<>();
+    // Páginas pedidas por la tabla que esperan a que se lean las anteriores
+    private final NavigableSet<Integer> waiting = new TreeSet<>();
+
+    private boolean disposed;
+    private boolean failed;
+    private boolean updating;
+
+    /**
+     * @param size Número total de filas
+     * @param pageSize Filas por página
+     * @param maxPages Páginas que se guardan en memoria (al menos las que caben en la tabla a la vez)
+     * @param placeholder Fila que se muestra mientras su página se carga
+     * @param loader Lectura de una página
+     * @param onError Recibe el error de la primera página que falle (después ya no se piden más)
+     */
+    public PagedList(int size, int pageSize, int maxPages, T placeholder, PageLoader<T> loader,
+                     Consumer<? super Throwable> onError) {
+        if (size < 0 || pageSize <= 0 || maxPages <= 0) {
+            throw new IllegalArgumentException("Tamaños no válidos: size=" + size + ", pageSize=" + pageSize
+                    + ", maxPages=" + maxPages);
+        }
+        this.size = size;
+        this.pageSize = pageSize;
+        this.placeholder = Objects.requireNonNull(placeholder);
+        this.loader = loader;
+        this.onError = onError;
+        this.pages = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, List<T>> eldest) {
+                return size() > maxPages;
+            }
+        };
+        cursors.put(0, null);
+    }
+
+    @Override
+    public T get(int index) {
+        Objects.checkIndex(index, size);
+        int page = index / pageSize;
+        List<T> rows = pages.get(page);
+        if (rows == null) {
+            request(page);
+            return placeholder;
+        }
+        int offset = index - page * pageSize;
+        // La página puede traer menos filas si se borraron matrículas después de contar
+        return offset < rows.size() ? rows.get(offset) : placeholder;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Sustituye la primera fila en memoria que cumple match por update(fila), sin volver a leer su página.
+     * Se queda en su posición aunque con el orden actual le correspondiera otra
+     * @return Fila nueva, o null si ninguna página en memoria tenía una fila que cumpla match
+     */
+    public T replace(Predicate<? super T> match, UnaryOperator<T> update) {
+        for (Map.Entry<Integer, List<T>> entry : pages.entrySet()) {
+            List<T> rows = entry.getValue();
+            for (int i = 0; i < rows.size(); i++) {
+                T old = rows.get(i);
+                if (match.test(old)) {
+                    T updated = update.apply(old);
+                    rows.set(i, updated);
+                    int index = entry.getKey() * pageSize + i;
+                    fireChange(() -> nextSet(index, old));
+                    return updated;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * true mientras se avisa a la tabla de que han llegado filas (o de un replace):
+     * la selección de la tabla puede quedar vacía un momento
+     */
+    public boolean isUpdating() {
+        return updating;
+    }
+
+    /**
+     * Deja de pedir páginas y descarta las que estén en camino
+     */
+    public void dispose() {
+        disposed = true;
+        pages.clear();
+        waiting.clear();
+    }
+
+    private void request(int page) {
+        if (disposed || failed) {
+            return;
+        }
+        if (!cursors.containsKey(page)) {
+            // Sin cursor: primero la última página anterior que tiene cursor (y así hasta llegar a esta)
+            waiting.add(page);
+            int previous = cursors.floorKey(page);
+            if (!pages.containsKey(previous)) {
+                request(previous);
+            }
+            return;
+        }
+        if (!loading.add(page)) {
+            return;
+        }
+        String cursor = cursors.get(page);
+        int limit = Math.min(pageSize, size - page * pageSize);
+
+        DatabaseExecutor.supply(() -> loader.load(cursor, limit))
+                .whenCompleteAsync((chunk, error) -> {
+                    loading.remove(page);
+                    if (disposed) {
+                        return;
+                    }
+                    if (error != null) {
+                        if (!failed) {
+                            failed = true;
+                            onError.accept(DatabaseExecutor.unwrap(error));
+                        }
+                        return;
+                    }
+                    if (chunk.next() != null) {
+                        cursors.put(page + 1, chunk.next());
+                    }
+                    show(page, chunk.rows());
+                    continueWaiting(page, chunk.next() != null);
+                }, FxExecutor.INSTANCE);
+    }
+
+    /**
+     * Sigue hacia las páginas que esperaban a que se leyera page
+     */
+    private void continueWaiting(int page, boolean hasNext) {
+        waiting.remove(page);
+        if (!hasNext) {
+            // Se borraron matrículas después de contar: las páginas de después se quedan en placeholder
+            waiting.tailSet(page, false).clear();
+        } else if (!waiting.isEmpty() && waiting.first() > page) {
+            request(waiting.first() == page + 1 ? waiting.pollFirst() : page + 1);
+        }
+    }
+
+    private void show(int page, List<T> rows) {
+        int from = page * pageSize;
+        int to = Math.min(from + rows.size(), size);
+        pages.put(page, new ArrayList<>(rows));
+        if (to > from) {
+            // Hasta ahora esas posiciones devolvían placeholder
+            List<T> removed = Collections.nCopies(to - from, placeholder);
+            fireChange(() -> nextReplace(from, to, removed));
+        }
+    }
+
+    private void fireChange(Runnable change) {
+        updating = true;
+        try {
+            beginChange();
+            change.run();
+            endChange();
+        } finally {
+            updating = false;
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package util;
+
+/**
+ * Métricas del pool de conexiones en un instante
+ * @param active Conexiones en uso
+ * @param idle Conexiones libres
+ * @param total Conexiones abiertas (activas + libres)
+ * @param waitingThreads Hilos esperando una conexión
+ * @param minIdle Mínimo de conexiones libres configurado
+ * @param maxSize Tamaño máximo del pool
+ * @param acquireTimeouts Veces que se agotó el tiempo de espera de una conexión
+ * @param acquireTime Histograma del tiempo que se tarda en obtener una conexión
+ */
+public record PoolMetrics(int active, int idle, int total, int waitingThreads, int minIdle, int maxSize,
+                          long acquireTimeouts, LatencyHistogram.Snapshot acquireTime) {
+
+    @Override
+    public String toString() {
+        return String.format("activas=%d libres=%d total=%d esperando=%d max=%d timeouts=%d " +
+                        "obtención p50=%.3fms p95=%.3fms p99=%.3fms max=%.3fms (%d muestras)",
+                active, idle, total, waitingThreads, maxSize, acquireTimeouts,
+                acquireTime.percentileMillis(0.50), acquireTime.percentileMillis(0.95),
+                acquireTime.percentileMillis(0.99), acquireTime.maxMillis(), acquireTime.count());
+    }
+}
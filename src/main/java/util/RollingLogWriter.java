@@ -0,0 +1,162 @@
+package util;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Fichero de log que se escribe en un hilo propio: quien registra una línea solo la deja en una cola.
+ * Cuando el fichero supera maxBytes se renombra a .1 (el .1 a .2, etc.) y se empieza otro;
+ * se conservan como mucho maxFiles ficheros antiguos.
+ * Si la cola se llena (el disco no da abasto) las líneas nuevas se descartan y se cuentan.
+ */
+final class RollingLogWriter implements AutoCloseable {
+
+    private static final int QUEUE_CAPACITY = 10_000;
+    private static final int DRAIN_BATCH = 256;
+
+    // Marca que deja close() en la cola para despertar al hilo escritor (se compara por identidad)
+    private static final String END = new String("");
+
+    private final Path file;
+    private final long maxBytes;
+    private final int maxFiles;
+    private final BlockingQueue<String> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private final LongAdder dropped = new LongAdder();
+    private final Thread writerThread;
+    private volatile boolean closed;
+
+    private BufferedWriter out;
+    private long size;
+
+    RollingLogWriter(Path file, long maxBytes, int maxFiles) {
+        this.file = file;
+        this.maxBytes = maxBytes;
+        this.maxFiles = maxFiles;
+        this.writerThread = Thread.ofPlatform()
+                .name("log-" + file.getFileName())
+                .daemon(true)
+                .start(this::run);
+    }
+
+    /**
+     * Añade una línea al log sin esperar a que se escriba
+     * @return false si se descartó porque la cola estaba llena o el log cerrado
+     */
+    boolean append(String line) {
+        if (closed || !queue.offer(line)) {
+            dropped.increment();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Líneas descartadas desde el arranque
+     */
+    long droppedLines() {
+        return dropped.sum();
+    }
+
+    /**
+     * Escribe lo que quede en la cola y cierra el fichero
+     */
+    @Override
+    public void close() {
+        closed = true;
+        // Sin interrupt(): interrumpir una escritura en curso cerraría el canal del fichero
+        queue.offer(END);
+        try {
+            writerThread.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run() {
+        List<String> batch = new ArrayList<>(DRAIN_BATCH);
+        try {
+            while (!closed || !queue.isEmpty()) {
+                String first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) continue;
+                batch.add(first);
+                queue.drainTo(batch, DRAIN_BATCH - 1);
+                batch.removeIf(line -> line == END);
+                write(batch);
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            System.err.println("Error al escribir en " + file + ": " + e.getMessage());
+        } finally {
+            closeQuietly();
+        }
+    }
+
+    private void write(List<String> lines) throws IOException {
+        for (String line : lines) {
+            if (out == null || size >= maxBytes) {
+                roll();
+            }
+            out.write(line);
+            out.newLine();
+            size += line.length() + 1L;     // aproximado: basta para decidir cuándo rotar
+        }
+        // Sin más líneas pendientes: dejar el fichero al día para quien lo esté leyendo
+        if (out != null && queue.isEmpty()) {
+            out.flush();
+        }
+    }
+
+    private void roll() throws IOException {
+        if (out != null) {
+            out.close();
+            out = null;
+        }
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        if (Files.exists(file) && Files.size(file) >= maxBytes) {
+            Files.deleteIfExists(numbered(maxFiles));
+            for (int i = maxFiles - 1; i >= 1; i--) {
+                Path source = numbered(i);
+                if (Files.exists(source)) {
+                    Files.move(source, numbered(i + 1), StandardCopyOption.REPLACE_EXISTING);
+                }
+            }
+            if (maxFiles > 0) {
+                Files.move(file, numbered(1), StandardCopyOption.REPLACE_EXISTING);
+            } else {
+                Files.delete(file);
+            }
+        }
+        out = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        size = Files.size(file);
+    }
+
+    private Path numbered(int index) {
+        return file.resolveSibling(file.getFileName() + "." + index);
+    }
+
+    private void closeQuietly() {
+        if (out == null) return;
+        try {
+            out.close();
+        } catch (IOException e) {
+            System.err.println("Error al cerrar " + file + ": " + e.getMessage());
+        }
+    }
+}
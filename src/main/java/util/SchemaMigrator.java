@@ -0,0 +1,373 @@
+package util;
+
+import javax.sql.DataSource;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Migraciones versionadas del esquema, en lugar de hibernate.hbm2ddl.auto=update (que revisaba todo
+ * el catálogo de la base de datos en cada arranque y no crea índices).
+ *
+ * Cada migración es un script SQL de src/main/resources/db/migration, con nombre V<versión>__<descripción>.sql,
+ * y se declara en orden en MIGRATIONS. Si una migración depende de la base de datos, su script va en
+ * db/migration/mysql o db/migration/h2 (se busca primero ahí y después en db/migration).
+ * Las aplicadas se anotan en la tabla schema_version con la suma SHA-256 del script: al arrancar solo se lee
+ * esa tabla, se comprueba que ningún script aplicado ha cambiado y se ejecutan los que falten.
+ * Un script ya aplicado no se modifica nunca: los cambios van en una migración nueva.
+ *
+ * Una base de datos creada antes con hbm2ddl (con tablas pero sin schema_version) se marca en
+ * BASELINE_VERSION sin ejecutar ese script, y se le aplican las migraciones siguientes.
+ * En MySQL los DDL no son transaccionales: si un script falla a medias hay que arreglarlo a mano
+ * antes de volver a arrancar. Se desactiva con -Dapp.migrations=false (por ejemplo, para usar
+ * -Dhibernate.hbm2ddl.auto=create en pruebas).
+ */
+final class SchemaMigrator {
+
+    // Datos iniciales: la misma propiedad que usaba hbm2ddl.auto=create (ver profiles/embedded.properties)
+    static final String SEED_SCRIPTS = "hibernate.hbm2ddl.import_files";
+
+    // En orden de versión
+    private static final List<String> MIGRATIONS = List.of(
+            "V1__initial_schema.sql",
+            "V2__upgrade_baseline.sql",
+            "V3__query_indexes.sql",
+            "V4__users_fulltext.sql",
+            "V5__grade_sequence.sql"
+    );
+
+    // Esquema que creaba hbm2ddl.auto=update en la primera versión de la aplicación. Lo añadido después
+    // (V2) comprueba lo que ya existe: las bases de datos actualizadas con hbm2ddl pueden tener una parte
+    private static final int BASELINE_VERSION = 1;
+
+    private static final String LOCATION = "/db/migration/";
+    private static final String VERSION_TABLE = "schema_version";
+    // Tabla que existe en cualquier base de datos creada por la aplicación
+    private static final String EXISTING_SCHEMA_TABLE = "users";
+    // Evita que dos instancias de la aplicación migren a la vez (solo MySQL)
+    private static final String LOCK_NAME = "studentgrades_schema_migration";
+    private static final int LOCK_TIMEOUT_SECONDS = 60;
+
+    private SchemaMigrator() {
+    }
+
+    static boolean isEnabled() {
+        return Boolean.parseBoolean(System.getProperty("app.migrations", "true"));
+    }
+
+    /**
+     * Lleva el esquema a la última versión
+     * @param dataSource Conexiones del pool
+     * @param seedScripts Scripts de datos (separados por comas) que se ejecutan solo si el esquema se crea
+     *                    desde cero, como hibernate.hbm2ddl.import_files; null o vacío si no hay
+     */
+    static void migrate(DataSource dataSource, String seedScripts) {
+        long start = System.nanoTime();
+        try (Connection connection = dataSource.getConnection()) {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(true);
+            try {
+                String vendor = vendorOf(connection.getMetaData());
+                List<Migration> migrations = load(vendor);
+
+                Map<Integer, String> applied = appliedVersions(connection);
+                if (applied != null && isUpToDate(migrations, applied)) {
+                    return;     // Lo habitual: una consulta a schema_version y nada más
+                }
+
+                boolean locked = lock(connection, vendor);
+                try {
+                    int executed = migrateLocked(connection, migrations, seedScripts);
+                    if (executed > 0) {
+                        System.out.println("Esquema actualizado a la versión " + migrations.getLast().version()
+                                + " (" + executed + " migraciones en "
+                                + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + " ms)");
+                    }
+                } finally {
+                    if (locked) {
+                        unlock(connection);
+                    }
+                }
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Error al migrar el esquema: " + e.getMessage(), e);
+        }
+    }
+
+    private static int migrateLocked(Connection connection, List<Migration> migrations, String seedScripts)
+            throws SQLException {
+        // Otra instancia pudo migrar mientras se esperaba el cerrojo: se vuelve a leer
+        Map<Integer, String> applied = appliedVersions(connection);
+        boolean created = false;
+        if (applied == null) {
+            createVersionTable(connection);
+            if (tableExists(connection, EXISTING_SCHEMA_TABLE)) {
+                baseline(connection, migrations);
+            } else {
+                created = true;
+            }
+            applied = appliedVersions(connection);
+        }
+        isUpToDate(migrations, applied);    // valida las sumas de las ya aplicadas
+
+        int executed = 0;
+        for (Migration migration : migrations) {
+            if (!applied.containsKey(migration.version())) {
+                apply(connection, migration);
+                executed++;
+            }
+        }
+
+        if (created && seedScripts != null) {
+            for (String seed : seedScripts.split(",")) {
+                if (!seed.isBlank()) {
+                    executeScript(connection, seed.trim(), readResource("/" + seed.trim()));
+                }
+            }
+        }
+        return executed;
+    }
+
+    /**
+     * Comprueba las migraciones aplicadas contra los scripts
+     * @return true si no falta ninguna
+     */
+    private static boolean isUpToDate(List<Migration> migrations, Map<Integer, String> applied) {
+        int latest = migrations.getLast().version();
+        for (Map.Entry<Integer, String> entry : applied.entrySet()) {
+            if (entry.getKey() > latest) {
+                throw new IllegalStateException("La base de datos está en la versión " + entry.getKey()
+                        + ", más nueva que la de la aplicación (" + latest + ")");
+            }
+        }
+
+        boolean upToDate = true;
+        for (Migration migration : migrations) {
+            String checksum = applied.get(migration.version());
+            if (checksum == null) {
+                upToDate = false;
+            } else if (!checksum.equals(migration.checksum())) {
+                throw new IllegalStateException("La migración " + migration.script()
+                        + " ha cambiado después de aplicarse: los cambios van en una migración nueva");
+            }
+        }
+        return upToDate;
+    }
+
+    private static void apply(Connection connection, Migration migration) throws SQLException {
+        long start = System.nanoTime();
+        executeScript(connection, migration.script(), migration.sql());
+        record(connection, migration, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    // Base de datos de antes de las migraciones: sus tablas ya son las de BASELINE_VERSION
+
+    private static void baseline(Connection connection, List<Migration> migrations) throws SQLException {
+        for (Migration migration : migrations) {
+            if (migration.version() <= BASELINE_VERSION) {
+                record(connection, migration, 0);
+            }
+        }
+        System.out.println("Esquema existente marcado en la versión " + BASELINE_VERSION);
+    }
+
+    // Tabla de versiones
+
+    private static Map<Integer, String> appliedVersions(Connection connection) throws SQLException {
+        if (!tableExists(connection, VERSION_TABLE)) {
+            return null;
+        }
+        Map<Integer, String> applied = new LinkedHashMap<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT version, checksum FROM " + VERSION_TABLE + " ORDER BY version")) {
+            while (rs.next()) {
+                applied.put(rs.getInt(1), rs.getString(2));
+            }
+        }
+        return applied;
+    }
+
+    private static void createVersionTable(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("""
+                    CREATE TABLE IF NOT EXISTS schema_version (
+                        version INTEGER NOT NULL,
+                        script VARCHAR(200) NOT NULL,
+                        checksum VARCHAR(64) NOT NULL,
+                        applied_at TIMESTAMP NOT NULL,
+                        execution_ms BIGINT NOT NULL,
+                        PRIMARY KEY (version)
+                    )""");
+        }
+    }
+
+    private static void record(Connection connection, Migration migration, long executionMillis) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(
+                "INSERT INTO " + VERSION_TABLE + " (version, script, checksum, applied_at, execution_ms) VALUES (?, ?, ?, ?, ?)")) {
+            statement.setInt(1, migration.version());
+            statement.setString(2, migration.script());
+            statement.setString(3, migration.checksum());
+            statement.setTimestamp(4, Timestamp.from(Instant.now()));
+            statement.setLong(5, executionMillis);
+            statement.executeUpdate();
+        }
+    }
+
+    private static boolean tableExists(Connection connection, String table) throws SQLException {
+        try (ResultSet rs = connection.getMetaData().getTables(connection.getCatalog(), connection.getSchema(), table,
+                new String[]{"TABLE"})) {
+            return rs.next();
+        }
+    }
+
+    // Cerrojo con nombre de MySQL; H2 en memoria solo lo usa esta aplicación
+
+    private static boolean lock(Connection connection, String vendor) throws SQLException {
+        if (!vendor.equals("mysql")) {
+            return false;
+        }
+        try (PreparedStatement statement = connection.prepareStatement("SELECT GET_LOCK(?, ?)")) {
+            statement.setString(1, LOCK_NAME);
+            statement.setInt(2, LOCK_TIMEOUT_SECONDS);
+            try (ResultSet rs = statement.executeQuery()) {
+                if (!rs.next() || rs.getInt(1) != 1) {
+                    throw new IllegalStateException("Otra instancia de la aplicación está migrando el esquema");
+                }
+            }
+        }
+        return true;
+    }
+
+    private static void unlock(Connection connection) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("SELECT RELEASE_LOCK(?)")) {
+            statement.setString(1, LOCK_NAME);
+            statement.executeQuery().close();
+        }
+    }
+
+    // Scripts: una sentencia termina en una línea acabada en ";"; las líneas "--" son comentarios
+
+    private static void executeScript(Connection connection, String name, String sql) throws SQLException {
+        StringBuilder current = new StringBuilder();
+        int line = 0;
+        int firstLine = 0;
+        try (BufferedReader reader = new BufferedReader(new StringReader(sql));
+             Statement statement = connection.createStatement()) {
+            String text;
+            while ((text = reader.readLine()) != null) {
+                line++;
+                String trimmed = text.trim();
+                if (trimmed.isEmpty() || trimmed.startsWith("--")) {
+                    continue;
+                }
+                if (current.isEmpty()) {
+                    firstLine = line;
+                }
+                current.append(text).append('\n');
+                if (trimmed.endsWith(";")) {
+                    String sentence = current.substring(0, current.lastIndexOf(";"));
+                    current.setLength(0);
+                    try {
+                        statement.execute(sentence);
+                    } catch (SQLException e) {
+                        throw new SQLException(name + " (línea " + firstLine + "): " + e.getMessage(),
+                                e.getSQLState(), e.getErrorCode(), e);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Error al leer " + name + ": " + e.getMessage(), e);
+        }
+        if (!current.toString().isBlank()) {
+            throw new IllegalStateException(name + ": falta el ';' de la última sentencia");
+        }
+    }
+
+    private static List<Migration> load(String vendor) {
+        List<Migration> migrations = new ArrayList<>();
+        for (String script : MIGRATIONS) {
+            String sql = readResourceOrNull(LOCATION + vendor + "/" + script);
+            if (sql == null) {
+                sql = readResource(LOCATION + script);
+            }
+            Migration migration = new Migration(versionOf(script), script, sql, checksum(sql));
+            if (!migrations.isEmpty() && migrations.getLast().version() >= migration.version()) {
+                throw new IllegalStateException("Las migraciones no están en orden de versión: " + script);
+            }
+            migrations.add(migration);
+        }
+        return migrations;
+    }
+
+    private static int versionOf(String script) {
+        int separator = script.indexOf("__");
+        if (!script.startsWith("V") || separator < 2) {
+            throw new IllegalStateException("Nombre de migración no válido (V<versión>__<descripción>.sql): " + script);
+        }
+        return Integer.parseInt(script.substring(1, separator));
+    }
+
+    private static String vendorOf(DatabaseMetaData metaData) throws SQLException {
+        String product = metaData.getDatabaseProductName().toLowerCase(Locale.ROOT);
+        if (product.contains("mysql") || product.contains("mariadb")) {
+            return "mysql";
+        }
+        if (product.contains("h2")) {
+            return "h2";
+        }
+        throw new IllegalStateException("Base de datos no soportada por las migraciones: " + product);
+    }
+
+    private static String readResource(String resource) {
+        String content = readResourceOrNull(resource);
+        if (content == null) {
+            throw new IllegalStateException("No se encuentra el script " + resource);
+        }
+        return content;
+    }
+
+    private static String readResourceOrNull(String resource) {
+        try (InputStream in = SchemaMigrator.class.getResourceAsStream(resource)) {
+            if (in == null) {
+                return null;
+            }
+            // Mismo resultado (y suma) con saltos de línea de Windows
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8).replace("\r\n", "\n");
+        } catch (IOException e) {
+            throw new RuntimeException("Error al leer " + resource + ": " + e.getMessage(), e);
+        }
+    }
+
+    private static String checksum(String sql) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(sql.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private record Migration(int version, String script, String sql, String checksum) {
+    }
+}
@@ -0,0 +1,185 @@
+package util;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+/**
+ * Índice en memoria para buscar texto dentro de una lista (por ejemplo, alumnos por nombre)
+ * sin recorrer y normalizar todas las filas en cada pulsación.
+ *
+ * Se construye una vez con la lista y guarda, para cada fragmento de 1 a GRAM_SIZE caracteres
+ * (n-gramas) del texto normalizado, las posiciones de las filas que lo contienen. Una búsqueda de hasta
+ * GRAM_SIZE caracteres es una consulta directa al índice; una más larga cruza los n-gramas de la búsqueda
+ * y solo comprueba el texto completo de las filas que los tienen todos.
+ * No distingue mayúsculas ni acentos ("garcia" encuentra "García").
+ * @param <T> Tipo de las filas
+ */
+public final class SearchIndex<T> {
+
+    private static final int GRAM_SIZE = 3;
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+
+    private final int size;
+    private final Function<? super T, String> text;
+    private final List<T> items;
+    private final String[] texts;
+    private final Map<T, Integer> positions = new IdentityHashMap<>();
+    private final Map<String, BitSet> grams = new HashMap<>();
+
+    private SearchIndex(List<? extends T> items, Function<? super T, String> text) {
+        this.size = items.size();
+        this.text = text;
+        this.items = new ArrayList<>(items);
+        this.texts = new String[size];
+        for (int i = 0; i < size; i++) {
+            T item = items.get(i);
+            texts[i] = normalize(text.apply(item));
+            positions.put(item, i);
+            addGrams(texts[i], i);
+        }
+    }
+
+    /**
+     * Construye el índice
+     * @param items Filas (se identifican por referencia: hay que filtrar estas mismas instancias)
+     * @param text Texto de cada fila por el que se busca
+     */
+    public static <T> SearchIndex<T> build(List<? extends T> items, Function<? super T, String> text) {
+        return new SearchIndex<>(items, text);
+    }
+
+    /**
+     * Texto en minúsculas y sin acentos ni espacios repetidos
+     */
+    public static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        return DIACRITICS.matcher(decomposed).replaceAll("")
+                .toLowerCase(Locale.ROOT)
+                .trim()
+                .replaceAll("\\s+", " ");
+    }
+
+    /**
+     * Filtro para un FilteredList con las filas que contienen query
+     * @param query Texto buscado; vacío o null deja pasar todas las filas
+     */
+    public Predicate<T> matcher(String query) {
+        String normalized = normalize(query);
+        if (normalized.isEmpty()) {
+            return _ -> true;
+        }
+        BitSet matches = search(normalized);
+        return item -> {
+            Integer position = positions.get(item);
+            return position != null && matches.get(position);
+        };
+    }
+
+    /**
+     * Filas que contienen query, en el orden en que se indexaron
+     * @param query Texto buscado; vacío o null devuelve todas las filas
+     */
+    public List<T> find(String query) {
+        String normalized = normalize(query);
+        if (normalized.isEmpty()) {
+            return List.copyOf(items);
+        }
+        BitSet matches = search(normalized);
+        List<T> found = new ArrayList<>(matches.cardinality());
+        for (int row = matches.nextSetBit(0); row >= 0; row = matches.nextSetBit(row + 1)) {
+            found.add(items.get(row));
+        }
+        return found;
+    }
+
+    /**
+     * Sustituye una fila por otra (por ejemplo, la misma con datos nuevos) sin reconstruir el índice.
+     * La nueva ocupa la misma posición; si su texto no cambia, los filtros de matcher() siguen valiendo
+     * @return false si oldItem no está en el índice
+     */
+    public boolean replace(T oldItem, T newItem) {
+        Integer position = positions.remove(oldItem);
+        if (position == null) {
+            return false;
+        }
+        String newText = normalize(text.apply(newItem));
+        if (!newText.equals(texts[position])) {
+            removeGrams(texts[position], position);
+            texts[position] = newText;
+            addGrams(newText, position);
+        }
+        items.set(position, newItem);
+        positions.put(newItem, position);
+        return true;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private BitSet search(String query) {
+        if (query.length() <= GRAM_SIZE) {
+            BitSet rows = grams.get(query);
+            return rows == null ? new BitSet() : rows;
+        }
+
+        // Filas que tienen todos los n-gramas de la búsqueda; después se confirma el texto completo
+        BitSet candidates = null;
+        for (int i = 0; i + GRAM_SIZE <= query.length(); i++) {
+            BitSet rows = grams.get(query.substring(i, i + GRAM_SIZE));
+            if (rows == null) {
+                return new BitSet();
+            }
+            if (candidates == null) {
+                candidates = (BitSet) rows.clone();
+            } else {
+                candidates.and(rows);
+            }
+            if (candidates.isEmpty()) {
+                return candidates;
+            }
+        }
+
+        for (int row = candidates.nextSetBit(0); row >= 0; row = candidates.nextSetBit(row + 1)) {
+            if (!texts[row].contains(query)) {
+                candidates.clear(row);
+            }
+        }
+        return candidates;
+    }
+
+    private void removeGrams(String text, int row) {
+        for (int start = 0; start < text.length(); start++) {
+            for (int length = 1; length <= GRAM_SIZE && start + length <= text.length(); length++) {
+                String gram = text.substring(start, start + length);
+                BitSet rows = grams.get(gram);
+                if (rows != null) {
+                    rows.clear(row);
+                    if (rows.isEmpty()) {
+                        grams.remove(gram);
+                    }
+                }
+            }
+        }
+    }
+
+    private void addGrams(String text, int row) {
+        for (int start = 0; start < text.length(); start++) {
+            for (int length = 1; length <= GRAM_SIZE && start + length <= text.length(); length++) {
+                grams.computeIfAbsent(text.substring(start, start + length), _ -> new BitSet(size)).set(row);
+            }
+        }
+    }
+}
@@ -0,0 +1,375 @@
+package util;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.file.Path;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.OffsetDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.BitSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Registro de consultas lentas. Las conexiones que entrega ConnectionPool se envuelven para medir
+ * cada sentencia; las que tardan al menos el umbral se escriben (en segundo plano) en un fichero
+ * rotativo con la hora, la duración, las filas, los parámetros, el tamaño del lote, el método
+ * de DAO que la lanzó y el SQL.
+ *
+ * La duración de una consulta es lo que tarda en ejecutarse más lo que tarda el driver en entregar
+ * las filas (las llamadas a ResultSet.next), sin contar lo que hace Hibernate con cada fila.
+ *
+ * Configuración (-D al arrancar):
+ * <ul>
+ *     <li>app.slowQuery.thresholdMs: umbral en milisegundos (200 por defecto; 0 registra todas; negativo lo desactiva)</li>
+ *     <li>app.slowQuery.file: fichero de log (logs/slow-queries.log por defecto)</li>
+ *     <li>app.slowQuery.maxSizeMb y app.slowQuery.maxFiles: tamaño máximo de cada fichero (10) y ficheros antiguos que se conservan (5)</li>
+ * </ul>
+ */
+public final class SlowQueryLog {
+
+    private static final long thresholdNanos =
+            TimeUnit.MILLISECONDS.toNanos(Long.getLong("app.slowQuery.thresholdMs", 200));
+    private static final Path file = Path.of(System.getProperty("app.slowQuery.file", "logs/slow-queries.log"));
+    private static final long maxBytes = Long.getLong("app.slowQuery.maxSizeMb", 10) * 1024 * 1024;
+    private static final int maxFiles = Integer.getInteger("app.slowQuery.maxFiles", 5);
+
+    // Método de DAO en curso en cada hilo (lo fija dao.metrics.DaoMetrics)
+    private static final ThreadLocal<String> caller = new ThreadLocal<>();
+
+    private static final LongAdder slowQueries = new LongAdder();
+    private static volatile RollingLogWriter writer;
+    private static volatile boolean closed;
+
+    private SlowQueryLog() {
+    }
+
+    public static boolean isEnabled() {
+        return thresholdNanos >= 0;
+    }
+
+    /**
+     * Envuelve una conexión para medir sus sentencias
+     * @return Conexión envuelta, o la misma si el registro está desactivado
+     */
+    public static Connection wrap(Connection connection) {
+        if (!isEnabled()) {
+            return connection;
+        }
+        return proxy(Connection.class, new ConnectionHandler(connection));
+    }
+
+    /**
+     * Indica qué método de DAO está ejecutando el hilo actual
+     * @param method Nombre del método (ej: GradeDAO.findById) o null
+     * @return Valor anterior, para restaurarlo al terminar la llamada
+     */
+    public static String setCaller(String method) {
+        String previous = caller.get();
+        if (method == null) {
+            caller.remove();
+        } else {
+            caller.set(method);
+        }
+        return previous;
+    }
+
+    /**
+     * Consultas lentas registradas desde el arranque
+     */
+    public static long slowQueryCount() {
+        return slowQueries.sum();
+    }
+
+    /**
+     * Líneas que no llegaron al fichero porque la cola de escritura estaba llena
+     */
+    public static long droppedCount() {
+        RollingLogWriter current = writer;
+        return current == null ? 0 : current.droppedLines();
+    }
+
+    /**
+     * Escribe lo pendiente y cierra el fichero (al cerrar la aplicación)
+     */
+    public static synchronized void close() {
+        closed = true;
+        if (writer != null) {
+            writer.close();
+        }
+    }
+
+    private static void record(String sql, long nanos, long rows, int parameters, int batchSize) {
+        if (nanos < thresholdNanos) {
+            return;
+        }
+        slowQueries.increment();
+
+        StringBuilder line = new StringBuilder(256)
+                .append(OffsetDateTime.now().truncatedTo(ChronoUnit.MILLIS))
+                .append(" tiempo=").append(String.format("%.1f", nanos / 1_000_000.0)).append("ms")
+                .append(" filas=").append(rows < 0 ? "?" : String.valueOf(rows))
+                .append(" parámetros=").append(parameters);
+        if (batchSize > 0) {
+            line.append(" lote=").append(batchSize);
+        }
+        line.append(" dao=").append(currentCaller())
+                .append(" hilo=").append(Thread.currentThread().getName())
+                .append(" sql=").append(sql == null ? "?" : sql.replaceAll("\\s+", " ").trim());
+
+        RollingLogWriter current = writer();
+        if (current != null) {
+            current.append(line.toString());
+        }
+    }
+
+    // El fichero (y su hilo) solo se crean con la primera consulta lenta
+
+    private static RollingLogWriter writer() {
+        RollingLogWriter current = writer;
+        if (current == null) {
+            synchronized (SlowQueryLog.class) {
+                if (writer == null && !closed) {
+                    writer = new RollingLogWriter(file, maxBytes, maxFiles);
+                }
+                current = writer;
+            }
+        }
+        return current;
+    }
+
+    // Sin DaoMetrics (-Dapp.metrics=false) se busca en la pila el método de DAO más externo,
+    // el que llamó la aplicación (los internos son lambdas y clases auxiliares)
+
+    private static String currentCaller() {
+        String method = caller.get();
+        if (method != null) {
+            return method;
+        }
+        return StackWalker.getInstance().walk(frames -> frames
+                .filter(frame -> frame.getClassName().startsWith("dao.impl.")
+                        || frame.getClassName().startsWith("dao.bulk."))
+                .reduce((inner, outer) -> outer)
+                .map(frame -> simpleName(frame.getClassName()) + "." + frame.getMethodName())
+                .orElse("-"));
+    }
+
+    private static String simpleName(String className) {
+        return className.substring(className.lastIndexOf('.') + 1);
+    }
+
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return type.cast(Proxy.newProxyInstance(SlowQueryLog.class.getClassLoader(), new Class<?>[]{type}, handler));
+    }
+
+    /**
+     * Base de los envoltorios: equals/hashCode por identidad del proxy
+     * (Hibernate guarda sentencias y resultados en mapas) y sin InvocationTargetException
+     */
+    private abstract static class Delegating implements InvocationHandler {
+
+        final Object target;
+
+        Delegating(Object target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (method.getDeclaringClass() == Object.class) {
+                return switch (method.getName()) {
+                    case "equals" -> proxy == args[0];
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    default -> delegate(method, args);
+                };
+            }
+            return handle(proxy, method, args);
+        }
+
+        abstract Object handle(Object proxy, Method method, Object[] args) throws Throwable;
+
+        Object delegate(Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+
+    private static final class ConnectionHandler extends Delegating {
+
+        ConnectionHandler(Connection connection) {
+            super(connection);
+        }
+
+        @Override
+        Object handle(Object proxy, Method method, Object[] args) throws Throwable {
+            Object result = delegate(method, args);
+            return switch (result) {
+                case CallableStatement statement -> proxy(CallableStatement.class,
+                        new StatementHandler(statement, (String) args[0]));
+                case PreparedStatement statement -> proxy(PreparedStatement.class,
+                        new StatementHandler(statement, (String) args[0]));
+                case Statement statement -> proxy(Statement.class, new StatementHandler(statement, null));
+                case null, default -> result;
+            };
+        }
+    }
+
+    private static final class StatementHandler extends Delegating {
+
+        private String sql;
+        private final BitSet parameters = new BitSet();
+        private int batchSize;
+
+        // Consulta cuyo ResultSet aún se está leyendo
+        private boolean reading;
+        private long nanos;
+        private long rows;
+
+        StatementHandler(Statement statement, String sql) {
+            super(statement);
+            this.sql = sql;
+        }
+
+        @Override
+        Object handle(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            switch (name) {
+                case "executeQuery" -> {
+                    finishReading();
+                    useSql(args);
+                    long start = System.nanoTime();
+                    ResultSet resultSet = (ResultSet) delegate(method, args);
+                    startReading(System.nanoTime() - start);
+                    return proxy(ResultSet.class, new ResultSetHandler(resultSet, this));
+                }
+                case "executeUpdate", "executeLargeUpdate" -> {
+                    finishReading();
+                    useSql(args);
+                    long start = System.nanoTime();
+                    Object result = delegate(method, args);
+                    record(sql, System.nanoTime() - start, ((Number) result).longValue(),
+                            parameters.cardinality(), 0);
+                    return result;
+                }
+                case "executeBatch", "executeLargeBatch" -> {
+                    finishReading();
+                    long start = System.nanoTime();
+                    Object result = delegate(method, args);
+                    record(sql, System.nanoTime() - start, updatedRows(result), parameters.cardinality(), batchSize);
+                    batchSize = 0;
+                    return result;
+                }
+                case "execute" -> {
+                    finishReading();
+                    useSql(args);
+                    long start = System.nanoTime();
+                    Object result = delegate(method, args);
+                    long elapsed = System.nanoTime() - start;
+                    if ((Boolean) result) {
+                        startReading(elapsed);      // las filas llegan con getResultSet()
+                    } else {
+                        record(sql, elapsed, -1, parameters.cardinality(), 0);
+                    }
+                    return result;
+                }
+                case "getResultSet" -> {
+                    ResultSet resultSet = (ResultSet) delegate(method, args);
+                    return resultSet == null ? null : proxy(ResultSet.class, new ResultSetHandler(resultSet, this));
+                }
+                case "addBatch" -> {
+                    if (args != null && args.length == 1) {
+                        sql = (String) args[0];     // Statement.addBatch(String)
+                    }
+                    batchSize++;
+                }
+                case "clearBatch" -> batchSize = 0;
+                case "clearParameters" -> parameters.clear();
+                case "close" -> finishReading();
+                default -> {
+                    // setInt(1, x), setString(2, y)...: parámetro enlazado
+                    if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer index) {
+                        parameters.set(index);
+                    }
+                }
+            }
+            return delegate(method, args);
+        }
+
+        private void useSql(Object[] args) {
+            if (args != null && args.length > 0 && args[0] instanceof String text) {
+                sql = text;     // Statement.executeQuery(String) y similares
+            }
+        }
+
+        private void startReading(long executeNanos) {
+            reading = true;
+            nanos = executeNanos;
+            rows = 0;
+        }
+
+        void fetched(long fetchNanos, boolean row) {
+            nanos += fetchNanos;
+            if (row) {
+                rows++;
+            }
+        }
+
+        void finishReading() {
+            if (reading) {
+                reading = false;
+                record(sql, nanos, rows, parameters.cardinality(), 0);
+            }
+        }
+
+        private static long updatedRows(Object counts) {
+            long total = 0;
+            if (counts instanceof int[] ints) {
+                for (int count : ints) total += Math.max(count, 0);
+            } else if (counts instanceof long[] longs) {
+                for (long count : longs) total += Math.max(count, 0);
+            }
+            return total;
+        }
+    }
+
+    private static final class ResultSetHandler extends Delegating {
+
+        private final StatementHandler statement;
+
+        ResultSetHandler(ResultSet resultSet, StatementHandler statement) {
+            super(resultSet);
+            this.statement = statement;
+        }
+
+        @Override
+        Object handle(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "next" -> {
+                    long start = System.nanoTime();
+                    boolean row = (Boolean) delegate(method, args);
+                    statement.fetched(System.nanoTime() - start, row);
+                    if (!row) {
+                        statement.finishReading();
+                    }
+                    return row;
+                }
+                case "close" -> {
+                    statement.finishReading();
+                    return delegate(method, args);
+                }
+                default -> {
+                    return delegate(method, args);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package util;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cuenta las sentencias SQL que prepara Hibernate, en total y por hilo.
+ * HibernateUtil lo registra como StatementInspector; dao.metrics.DaoMetrics resta la cuenta
+ * del hilo antes y después de cada llamada para saber cuántas sentencias lanzó.
+ * Un lote JDBC cuenta como una sola sentencia (se prepara una vez).
+ * La sentencia se cuenta al prepararse, es decir, en el flush: las escrituras pendientes de una unidad de trabajo
+ * se cuentan en el hilo y en el momento en que se envían, no en la llamada al DAO que las hizo (ver DaoMetrics).
+ */
+public final class SqlStatementCounter implements StatementInspector {
+
+    static final SqlStatementCounter INSTANCE = new SqlStatementCounter();
+
+    // Cada tarea de DatabaseExecutor corre en su propio hilo virtual: un contador por hilo basta
+    private static final ThreadLocal<long[]> perThread = ThreadLocal.withInitial(() -> new long[1]);
+    private static final LongAdder total = new LongAdder();
+
+    private SqlStatementCounter() {
+    }
+
+    @Override
+    public String inspect(String sql) {
+        perThread.get()[0]++;
+        total.increment();
+        return sql;     // la sentencia no se modifica
+    }
+
+    /**
+     * Sentencias preparadas por el hilo actual desde que arrancó
+     */
+    public static long currentThreadCount() {
+        return perThread.get()[0];
+    }
+
+    /**
+     * Sentencias preparadas por todos los hilos desde que arrancó la aplicación
+     */
+    public static long totalCount() {
+        return total.sum();
+    }
+}
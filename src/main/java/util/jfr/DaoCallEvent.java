@@ -0,0 +1,33 @@
+package util.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Evento JFR: una llamada a un método de DAO (lo emite dao.metrics.DaoMetrics).
+ * El hilo del evento dice quién llamó: si es el "JavaFX Application Thread", esa llamada bloqueó la interfaz
+ */
+@Name("studentgrades.DaoCall")
+@Label("Llamada a DAO")
+@Category({"StudentGrades", "Base de datos"})
+@Description("Duración, sentencias SQL y filas de una llamada a un método de DAO")
+public class DaoCallEvent extends Event {
+
+    @Label("DAO")
+    public String dao;
+
+    @Label("Método")
+    public String method;
+
+    @Label("Sentencias SQL")
+    public long statements;
+
+    @Label("Filas")
+    public long rows;
+
+    @Label("Error")
+    public boolean failed;
+}
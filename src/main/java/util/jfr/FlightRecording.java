@@ -0,0 +1,76 @@
+package util.jfr;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Grabación de Java Flight Recorder de la aplicación, con los eventos propios
+ * (DaoCallEvent, SessionEvent, TransactionEvent, FxStallEvent) y los del JDK.
+ *
+ * Se activa al arrancar con -Dapp.jfr=true, o con mvn javafx:run@jfr. Opciones:
+ * <ul>
+ *     <li>app.jfr.file: fichero de la grabación (recordings/studentgrades-FECHA.jfr por defecto)</li>
+ *     <li>app.jfr.settings: configuración del JDK, "default" (por defecto, poco coste) o "profile" (más detalle)</li>
+ *     <li>app.jfr.maxAgeMinutes: minutos que se conservan en la grabación (360 por defecto)</li>
+ * </ul>
+ * La grabación se vuelca al cerrar la aplicación; con la aplicación abierta también se puede volcar con
+ * "jcmd PID JFR.dump name=StudentGrades". Se abre con JDK Mission Control o con "jfr print --events
+ * studentgrades.FxStall,studentgrades.DaoCall fichero.jfr".
+ * Sin tocar la aplicación también vale la opción estándar de la JVM
+ * -XX:StartFlightRecording=filename=recording.jfr,dumponexit=true (los eventos propios se graban igual).
+ */
+public final class FlightRecording {
+
+    private static final String NAME = "StudentGrades";
+    private static final long MAX_SIZE_BYTES = 250L * 1024 * 1024;
+
+    private static Recording recording;
+
+    private FlightRecording() {
+    }
+
+    /**
+     * Empieza a grabar si se pidió con -Dapp.jfr=true (si no, no hace nada)
+     */
+    public static synchronized void startIfRequested() {
+        if (!Boolean.getBoolean("app.jfr") || recording != null) {
+            return;
+        }
+
+        String settings = System.getProperty("app.jfr.settings", "default");
+        Path file = Path.of(System.getProperty("app.jfr.file", defaultFile()));
+        try {
+            Path parent = file.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+
+            Recording created = new Recording(Configuration.getConfiguration(settings));
+            created.setName(NAME);
+            created.setToDisk(true);
+            created.setMaxAge(Duration.ofMinutes(Long.getLong("app.jfr.maxAgeMinutes", 360)));
+            created.setMaxSize(MAX_SIZE_BYTES);
+            created.setDestination(file);
+            created.setDumpOnExit(true);
+            created.start();
+
+            recording = created;
+            System.out.println("Grabación JFR iniciada (" + settings + "): " + file.toAbsolutePath());
+        } catch (IOException | ParseException e) {
+            throw new RuntimeException("Error al iniciar la grabación JFR: " + e.getMessage(), e);
+        }
+    }
+
+    private static String defaultFile() {
+        String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"));
+        return "recordings/studentgrades-" + timestamp + ".jfr";
+    }
+}
@@ -0,0 +1,34 @@
+package util.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Evento JFR: el hilo de JavaFX estuvo ocupado más del umbral (la ventana se quedó congelada).
+ * Lo emite FxStallWatchdog desde su propio hilo, así que la pila útil es fxStack, no la del evento.
+ * El evento empieza cuando se detecta el bloqueo (umbral ya superado); la duración real es stall
+ */
+@Name("studentgrades.FxStall")
+@Label("Bloqueo del hilo de JavaFX")
+@Category({"StudentGrades", "Interfaz"})
+@Description("El hilo de JavaFX no atendió eventos ni pulsos durante más del umbral")
+@StackTrace(false)
+public class FxStallEvent extends Event {
+
+    @Label("Duración del bloqueo")
+    @Timespan(Timespan.MILLISECONDS)
+    public long stall;
+
+    @Label("Umbral")
+    @Timespan(Timespan.MILLISECONDS)
+    public long threshold;
+
+    @Label("Pila del hilo de JavaFX")
+    @Description("Lo que estaba haciendo el hilo de JavaFX al detectar el bloqueo")
+    public String fxStack;
+}
@@ -0,0 +1,90 @@
+package util.jfr;
+
+import javafx.application.Platform;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Vigila que el hilo de JavaFX siga respondiendo: cada INTERVAL_MILLIS le encarga una tarea vacía
+ * (Platform.runLater) y mide cuánto tarda en ejecutarla. Si pasa del umbral emite un FxStallEvent
+ * con la pila del hilo de JavaFX en ese momento (por ejemplo, una llamada a DAO hecha desde la interfaz).
+ *
+ * El umbral se cambia con -Dapp.fx.stallThresholdMs (200 ms por defecto).
+ */
+public final class FxStallWatchdog {
+
+    private static final long thresholdMillis = Long.getLong("app.fx.stallThresholdMs", 200);
+    private static final long INTERVAL_MILLIS = 100;
+    private static final int STACK_DEPTH = 40;
+
+    private static final AtomicBoolean started = new AtomicBoolean();
+
+    private FxStallWatchdog() {
+    }
+
+    /**
+     * Arranca la vigilancia (una sola vez). Hay que llamarlo desde el hilo de JavaFX
+     */
+    public static void start() {
+        if (!Platform.isFxApplicationThread()) {
+            throw new IllegalStateException("FxStallWatchdog.start() debe llamarse desde el hilo de JavaFX");
+        }
+        if (!started.compareAndSet(false, true)) {
+            return;
+        }
+        Thread fxThread = Thread.currentThread();
+        Thread.ofPlatform()
+                .name("fx-watchdog")
+                .daemon(true)
+                .start(() -> watch(fxThread));
+    }
+
+    private static void watch(Thread fxThread) {
+        long thresholdNanos = TimeUnit.MILLISECONDS.toNanos(thresholdMillis);
+        long checkMillis = Math.max(10, thresholdMillis / 4);
+        try {
+            while (fxThread.isAlive()) {
+                AtomicBoolean answered = new AtomicBoolean();
+                long posted = System.nanoTime();
+                Platform.runLater(() -> answered.set(true));
+
+                FxStallEvent event = null;
+                while (!answered.get() && fxThread.isAlive()) {
+                    Thread.sleep(checkMillis);
+                    if (event == null && System.nanoTime() - posted >= thresholdNanos) {
+                        event = new FxStallEvent();
+                        event.begin();
+                        event.threshold = thresholdMillis;
+                        if (event.isEnabled()) {
+                            event.fxStack = stackOf(fxThread);  // solo si se está grabando
+                        }
+                    }
+                }
+
+                if (event != null) {
+                    event.end();
+                    event.stall = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - posted);
+                    event.commit();
+                }
+                Thread.sleep(INTERVAL_MILLIS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IllegalStateException e) {
+            // Platform.runLater tras cerrar JavaFX: ya no hay nada que vigilar
+        }
+    }
+
+    private static String stackOf(Thread thread) {
+        StackTraceElement[] frames = thread.getStackTrace();
+        StringBuilder stack = new StringBuilder();
+        for (int i = 0; i < Math.min(frames.length, STACK_DEPTH); i++) {
+            stack.append("at ").append(frames[i]).append('\n');
+        }
+        if (frames.length > STACK_DEPTH) {
+            stack.append("... ").append(frames.length - STACK_DEPTH).append(" más\n");
+        }
+        return stack.toString();
+    }
+}
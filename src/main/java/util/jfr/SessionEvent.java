@@ -0,0 +1,26 @@
+package util.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Evento JFR: vida de una sesión de Hibernate abierta por los DAO, desde que se abre hasta que se cierra
+ */
+@Name("studentgrades.Session")
+@Label("Sesión de Hibernate")
+@Category({"StudentGrades", "Base de datos"})
+@Description("Sesión abierta por HibernateUtil.withSession o por un recorrido con cursor de GenericDAOImp")
+public class SessionEvent extends Event {
+
+    public static final String UNIT_OF_WORK = "unidad de trabajo";
+    public static final String CURSOR = "cursor";
+
+    @Label("Tipo")
+    public String kind;
+
+    @Label("Sentencias SQL")
+    public long statements;
+}
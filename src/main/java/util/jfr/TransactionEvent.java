@@ -0,0 +1,26 @@
+package util.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Evento JFR: una transacción, desde el begin hasta el commit o el rollback
+ */
+@Name("studentgrades.Transaction")
+@Label("Transacción")
+@Category({"StudentGrades", "Base de datos"})
+@Description("Transacción abierta por HibernateUtil y cómo terminó")
+public class TransactionEvent extends Event {
+
+    public static final String COMMIT = "commit";
+    public static final String ROLLBACK = "rollback";
+
+    @Label("Resultado")
+    public String outcome;
+
+    @Label("Sentencias SQL")
+    public long statements;
+}
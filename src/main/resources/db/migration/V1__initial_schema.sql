@@ -0,0 +1,79 @@
+-- Esquema inicial: las tablas que creaba hibernate.hbm2ddl.auto=update en la primera versión de la aplicación,
+-- con los mismos nombres de restricciones. Las bases de datos que ya existían antes de las migraciones se marcan
+-- en esta versión sin ejecutarla (ver util.SchemaMigrator); lo añadido después va en V2 y siguientes.
+-- Sintaxis de MySQL, que H2 también acepta en modo MySQL.
+
+CREATE TABLE users (
+    id INTEGER NOT NULL AUTO_INCREMENT,
+    first_name VARCHAR(255),
+    last_name VARCHAR(255),
+    password_hash VARCHAR(255),
+    username VARCHAR(255),
+    user_type ENUM ('ESTUDIANTE','PROFESOR'),
+    PRIMARY KEY (id)
+) ENGINE=InnoDB;
+
+CREATE TABLE teachers (
+    id INTEGER NOT NULL AUTO_INCREMENT,
+    id_user INTEGER NOT NULL,
+    department VARCHAR(100),
+    specialty VARCHAR(100),
+    PRIMARY KEY (id)
+) ENGINE=InnoDB;
+
+CREATE TABLE student (
+    id INTEGER NOT NULL AUTO_INCREMENT,
+    id_user INTEGER NOT NULL,
+    grade_group VARCHAR(10),
+    course VARCHAR(50),
+    PRIMARY KEY (id)
+) ENGINE=InnoDB;
+
+CREATE TABLE modules (
+    id INTEGER NOT NULL AUTO_INCREMENT,
+    semanal_hours INTEGER,
+    course VARCHAR(50),
+    module_name VARCHAR(150),
+    PRIMARY KEY (id)
+) ENGINE=InnoDB;
+
+CREATE TABLE teacher_module (
+    module_id INTEGER NOT NULL,
+    teacher_id INTEGER NOT NULL,
+    PRIMARY KEY (module_id, teacher_id)
+) ENGINE=InnoDB;
+
+CREATE TABLE student_module (
+    id INTEGER NOT NULL AUTO_INCREMENT,
+    id_module INTEGER NOT NULL,
+    id_student INTEGER NOT NULL,
+    PRIMARY KEY (id)
+) ENGINE=InnoDB;
+
+CREATE TABLE grades (
+    grade DECIMAL(4,2),
+    id INTEGER NOT NULL AUTO_INCREMENT,
+    id_student_module INTEGER NOT NULL,
+    notes VARCHAR(500),
+    PRIMARY KEY (id)
+) ENGINE=InnoDB;
+
+ALTER TABLE users ADD CONSTRAINT UKr43af9ap4edm43mmtq01oddj6 UNIQUE (username);
+ALTER TABLE teachers ADD CONSTRAINT UKiu41i6gy8n1kppby005ygl35o UNIQUE (id_user);
+ALTER TABLE student ADD CONSTRAINT UKgk5vu6ga9cu8ho09qs12cq91l UNIQUE (id_user);
+ALTER TABLE student_module ADD CONSTRAINT UK3tgbfw669nxlg8k6wl3heacaa UNIQUE (id_student, id_module);
+
+ALTER TABLE teachers ADD CONSTRAINT FKk9md3rkd02lolkp8bmta3uxxs
+    FOREIGN KEY (id_user) REFERENCES users (id);
+ALTER TABLE student ADD CONSTRAINT FKpsk2g068q077bvls9y3eypywi
+    FOREIGN KEY (id_user) REFERENCES users (id);
+ALTER TABLE teacher_module ADD CONSTRAINT FKgwwi96pr21lkk0qm15x4n6kid
+    FOREIGN KEY (module_id) REFERENCES modules (id);
+ALTER TABLE teacher_module ADD CONSTRAINT FKorokd1pnj5w7vuedkrnia61rf
+    FOREIGN KEY (teacher_id) REFERENCES teachers (id);
+ALTER TABLE student_module ADD CONSTRAINT FK8vpn0x4lqegqu9gp5128qk0wg
+    FOREIGN KEY (id_module) REFERENCES modules (id);
+ALTER TABLE student_module ADD CONSTRAINT FKj1wdm9je3en1480ba8xuqbb38
+    FOREIGN KEY (id_student) REFERENCES student (id);
+ALTER TABLE grades ADD CONSTRAINT FKfud4rhcpdr1464c8yefmhoni7
+    FOREIGN KEY (id_student_module) REFERENCES student_module (id);
@@ -0,0 +1,16 @@
+-- Índices para las consultas de los DAO.
+
+-- Notas de una matrícula y su última nota (MAX(id)): GradeDAOImp, cuaderno de notas
+CREATE INDEX idx_grades_student_module_id ON grades (id_student_module, id);
+
+-- Aprobados, suspensos y nota máxima o mínima de una matrícula sin leer las filas
+CREATE INDEX idx_grades_student_module_grade ON grades (id_student_module, grade);
+
+-- Matrículas de un módulo: cuaderno de notas, exportación, alumnos de un módulo
+CREATE INDEX idx_student_module_module ON student_module (id_module);
+
+-- Módulos de un profesor (la clave primaria empieza por module_id, que ya cubre los profesores de un módulo)
+CREATE INDEX idx_teacher_module_teacher ON teacher_module (teacher_id, module_id);
+
+-- Usuarios por tipo (profesores, alumnos)
+CREATE INDEX idx_users_user_type ON users (user_type);
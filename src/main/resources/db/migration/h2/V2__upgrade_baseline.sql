@@ -0,0 +1,48 @@
+-- Lo añadido al esquema después de la primera versión (V1): secuencia de IDs de las matrículas,
+-- resumen de notas por matrícula y clave de importación de las notas.
+-- Cada paso comprueba si ya existe, porque las bases de datos que se actualizaban con hbm2ddl.auto=update
+-- pueden tener una parte.
+
+-- Secuencia de IDs por bloques de las matrículas (ver models.IdGenerators). El incremento coincide con
+-- IdGenerators.ALLOCATION_SIZE; util.IdGeneratorSeeder la adelanta al arrancar por encima del mayor ID
+CREATE SEQUENCE IF NOT EXISTS student_module_seq START WITH 1 INCREMENT BY 50;
+
+-- Resumen de notas de cada matrícula (models.GradeAggregate). Se rellena desde las notas existentes,
+-- igual que GradeDAOImp.rebuildAggregates; si la tabla ya existía se vuelve a calcular entera.
+CREATE TABLE IF NOT EXISTS grade_aggregates (
+    grade_sum DECIMAL(12,2) NOT NULL,
+    highest_grade_id INTEGER,
+    id_student_module INTEGER NOT NULL,
+    latest_grade DECIMAL(4,2),
+    latest_grade_id INTEGER,
+    lowest_grade_id INTEGER,
+    max_grade DECIMAL(4,2),
+    min_grade DECIMAL(4,2),
+    grade_count BIGINT NOT NULL,
+    PRIMARY KEY (id_student_module),
+    CONSTRAINT FK5jh7vtourgdxtuuyudqx44b89
+        FOREIGN KEY (id_student_module) REFERENCES student_module (id) ON DELETE CASCADE
+) ENGINE=InnoDB;
+
+DELETE FROM grade_aggregates;
+
+INSERT INTO grade_aggregates (id_student_module, grade_count, grade_sum, min_grade, max_grade, latest_grade_id)
+SELECT sm.id, COUNT(g.id), COALESCE(SUM(g.grade), 0), MIN(g.grade), MAX(g.grade), MAX(g.id)
+FROM student_module sm
+LEFT JOIN grades g ON g.id_student_module = sm.id
+GROUP BY sm.id;
+
+-- En caso de empate en la máxima o la mínima, la nota más antigua
+UPDATE grade_aggregates SET
+    latest_grade = (SELECT g.grade FROM grades g WHERE g.id = grade_aggregates.latest_grade_id),
+    highest_grade_id = (SELECT MIN(g.id) FROM grades g
+                        WHERE g.id_student_module = grade_aggregates.id_student_module
+                          AND g.grade = grade_aggregates.max_grade),
+    lowest_grade_id = (SELECT MIN(g.id) FROM grades g
+                       WHERE g.id_student_module = grade_aggregates.id_student_module
+                         AND g.grade = grade_aggregates.min_grade)
+WHERE grade_count > 0;
+
+-- Clave de la fila de origen de las notas importadas (dao.bulk.BulkImporter)
+ALTER TABLE grades ADD COLUMN IF NOT EXISTS import_key VARCHAR(64);
+ALTER TABLE grades ADD CONSTRAINT IF NOT EXISTS UKrghvy7199bpxqb7xhe3llmgi UNIQUE (import_key);
@@ -0,0 +1,3 @@
+-- H2 no tiene índices FULLTEXT como los de MySQL: UserDAOImp.fullTextSearch usa
+-- un índice en memoria (dao.impl.UserNameIndex). Se deja la versión para que ambas bases
+-- de datos tengan la misma numeración.
@@ -0,0 +1,18 @@
+-- Notas con IDs por bloques (ver models.IdGenerators), para insertarlas en lotes JDBC.
+-- Con la secuencia el orden de los IDs ya no es el orden de alta: la fecha de alta (created_at)
+-- decide cuál es la última nota de una matrícula, y el ID desempata.
+
+-- El incremento coincide con IdGenerators.ALLOCATION_SIZE; util.IdGeneratorSeeder la adelanta al arrancar
+-- por encima del mayor ID
+CREATE SEQUENCE grades_seq START WITH 1 INCREMENT BY 50;
+
+-- Las notas que ya había tienen todas la misma fecha: entre ellas sigue mandando el ID, como antes
+ALTER TABLE grades ADD COLUMN created_at TIMESTAMP(6) DEFAULT CURRENT_TIMESTAMP(6) NOT NULL;
+
+-- Notas de una matrícula de la más reciente a la más antigua: GradeDAOImp, cuaderno de notas
+CREATE INDEX idx_grades_student_module_created ON grades (id_student_module, created_at, id);
+
+ALTER TABLE grade_aggregates ADD COLUMN latest_grade_at TIMESTAMP(6);
+
+UPDATE grade_aggregates SET
+    latest_grade_at = (SELECT g.created_at FROM grades g WHERE g.id = grade_aggregates.latest_grade_id);
@@ -0,0 +1,71 @@
+-- Lo añadido al esquema después de la primera versión (V1): secuencia de IDs de las matrículas,
+-- resumen de notas por matrícula y clave de importación de las notas.
+-- Cada paso comprueba si ya existe, porque las bases de datos que se actualizaban con hbm2ddl.auto=update
+-- pueden tener una parte. MySQL no tiene ADD COLUMN IF NOT EXISTS: la columna y su índice se añaden
+-- con una sentencia preparada que no hace nada (DO 0) si ya están.
+
+-- Secuencia de IDs por bloques de las matrículas (ver models.IdGenerators). MySQL no tiene secuencias:
+-- Hibernate usa una tabla de una sola fila con el siguiente valor, que empieza después del mayor ID
+-- (util.IdGeneratorSeeder la vuelve a adelantar al arrancar si hace falta)
+CREATE TABLE IF NOT EXISTS student_module_seq (
+    next_val BIGINT
+) ENGINE=InnoDB;
+
+INSERT INTO student_module_seq (next_val)
+SELECT seed.next_val FROM (SELECT COALESCE(MAX(id), 0) + 50 AS next_val FROM student_module) seed
+WHERE NOT EXISTS (SELECT 1 FROM student_module_seq);
+
+-- Resumen de notas de cada matrícula (models.GradeAggregate). Se rellena desde las notas existentes,
+-- igual que GradeDAOImp.rebuildAggregates; si la tabla ya existía se vuelve a calcular entera.
+CREATE TABLE IF NOT EXISTS grade_aggregates (
+    grade_sum DECIMAL(12,2) NOT NULL,
+    highest_grade_id INTEGER,
+    id_student_module INTEGER NOT NULL,
+    latest_grade DECIMAL(4,2),
+    latest_grade_id INTEGER,
+    lowest_grade_id INTEGER,
+    max_grade DECIMAL(4,2),
+    min_grade DECIMAL(4,2),
+    grade_count BIGINT NOT NULL,
+    PRIMARY KEY (id_student_module),
+    CONSTRAINT FK5jh7vtourgdxtuuyudqx44b89
+        FOREIGN KEY (id_student_module) REFERENCES student_module (id) ON DELETE CASCADE
+) ENGINE=InnoDB;
+
+DELETE FROM grade_aggregates;
+
+INSERT INTO grade_aggregates (id_student_module, grade_count, grade_sum, min_grade, max_grade, latest_grade_id)
+SELECT sm.id, COUNT(g.id), COALESCE(SUM(g.grade), 0), MIN(g.grade), MAX(g.grade), MAX(g.id)
+FROM student_module sm
+LEFT JOIN grades g ON g.id_student_module = sm.id
+GROUP BY sm.id;
+
+-- En caso de empate en la máxima o la mínima, la nota más antigua
+UPDATE grade_aggregates SET
+    latest_grade = (SELECT g.grade FROM grades g WHERE g.id = grade_aggregates.latest_grade_id),
+    highest_grade_id = (SELECT MIN(g.id) FROM grades g
+                        WHERE g.id_student_module = grade_aggregates.id_student_module
+                          AND g.grade = grade_aggregates.max_grade),
+    lowest_grade_id = (SELECT MIN(g.id) FROM grades g
+                       WHERE g.id_student_module = grade_aggregates.id_student_module
+                         AND g.grade = grade_aggregates.min_grade)
+WHERE grade_count > 0;
+
+-- Clave de la fila de origen de las notas importadas (dao.bulk.BulkImporter)
+SET @add_import_key = (
+    SELECT IF(COUNT(*) = 0, 'ALTER TABLE grades ADD COLUMN import_key VARCHAR(64)', 'DO 0')
+    FROM information_schema.columns
+    WHERE table_schema = DATABASE() AND table_name = 'grades' AND column_name = 'import_key'
+);
+PREPARE add_import_key FROM @add_import_key;
+EXECUTE add_import_key;
+DEALLOCATE PREPARE add_import_key;
+
+SET @add_import_key_unique = (
+    SELECT IF(COUNT(*) = 0, 'ALTER TABLE grades ADD CONSTRAINT UKrghvy7199bpxqb7xhe3llmgi UNIQUE (import_key)', 'DO 0')
+    FROM information_schema.statistics
+    WHERE table_schema = DATABASE() AND table_name = 'grades' AND column_name = 'import_key' AND non_unique = 0
+);
+PREPARE add_import_key_unique FROM @add_import_key_unique;
+EXECUTE add_import_key_unique;
+DEALLOCATE PREPARE add_import_key_unique;
@@ -0,0 +1,4 @@
+-- Búsqueda de usuarios por nombre con MATCH ... AGAINST (UserDAOImp.fullTextSearch).
+-- InnoDB solo indexa palabras de innodb_ft_min_token_size caracteres o más (3 por defecto).
+
+ALTER TABLE users ADD FULLTEXT INDEX ft_users_name (first_name, last_name);
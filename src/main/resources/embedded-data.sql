@@ -0,0 +1,31 @@
+-- Datos de ejemplo del perfil embedded (una sentencia por línea)
+-- Usuarios: profesor/profesor, alumno1/alumno1, alumno2/alumno2
+INSERT INTO users (id, username, password_hash, first_name, last_name, user_type) VALUES (1, 'profesor', 'profesor', 'Laura', 'Martín', 'PROFESOR');
+INSERT INTO users (id, username, password_hash, first_name, last_name, user_type) VALUES (2, 'alumno1', 'alumno1', 'Pablo', 'García', 'ESTUDIANTE');
+INSERT INTO users (id, username, password_hash, first_name, last_name, user_type) VALUES (3, 'alumno2', 'alumno2', 'Lucía', 'Fernández', 'ESTUDIANTE');
+INSERT INTO teachers (id, id_user, department, specialty) VALUES (1, 1, 'Informática', 'Programación');
+INSERT INTO student (id, id_user, course, grade_group) VALUES (1, 2, '2º DAM', 'A');
+INSERT INTO student (id, id_user, course, grade_group) VALUES (2, 3, '2º DAM', 'A');
+INSERT INTO modules (id, module_name, course, semanal_hours) VALUES (1, 'Acceso a Datos', '2º DAM', 6);
+INSERT INTO modules (id, module_name, course, semanal_hours) VALUES (2, 'Desarrollo de Interfaces', '2º DAM', 6);
+INSERT INTO teacher_module (teacher_id, module_id) VALUES (1, 1);
+INSERT INTO teacher_module (teacher_id, module_id) VALUES (1, 2);
+INSERT INTO student_module (id, id_student, id_module) VALUES (1, 1, 1);
+INSERT INTO student_module (id, id_student, id_module) VALUES (2, 1, 2);
+INSERT INTO student_module (id, id_student, id_module) VALUES (3, 2, 1);
+INSERT INTO student_module (id, id_student, id_module) VALUES (4, 2, 2);
+INSERT INTO grades (id, id_student_module, grade, notes, created_at) VALUES (1, 1, 7.50, 'Primer trimestre', '2025-10-15 09:00:00');
+INSERT INTO grades (id, id_student_module, grade, notes, created_at) VALUES (2, 1, 8.25, 'Segundo trimestre', '2026-01-20 09:00:00');
+INSERT INTO grades (id, id_student_module, grade, notes, created_at) VALUES (3, 2, 4.75, 'Primer trimestre', '2025-10-16 11:30:00');
+INSERT INTO grades (id, id_student_module, grade, notes, created_at) VALUES (4, 3, 6.00, 'Primer trimestre', '2025-10-15 09:05:00');
+-- Resumen de notas de cada matrícula (lo mismo que calcularía GradeDAO.rebuildAggregates)
+INSERT INTO grade_aggregates (id_student_module, grade_count, grade_sum, min_grade, max_grade, latest_grade_id, latest_grade, latest_grade_at, highest_grade_id, lowest_grade_id) VALUES (1, 2, 15.75, 7.50, 8.25, 2, 8.25, '2026-01-20 09:00:00', 2, 1);
+INSERT INTO grade_aggregates (id_student_module, grade_count, grade_sum, min_grade, max_grade, latest_grade_id, latest_grade, latest_grade_at, highest_grade_id, lowest_grade_id) VALUES (2, 1, 4.75, 4.75, 4.75, 3, 4.75, '2025-10-16 11:30:00', 3, 3);
+INSERT INTO grade_aggregates (id_student_module, grade_count, grade_sum, min_grade, max_grade, latest_grade_id, latest_grade, latest_grade_at, highest_grade_id, lowest_grade_id) VALUES (3, 1, 6.00, 6.00, 6.00, 4, 6.00, '2025-10-15 09:05:00', 4, 4);
+INSERT INTO grade_aggregates (id_student_module, grade_count, grade_sum) VALUES (4, 0, 0);
+-- Las claves autogeneradas siguen después de los datos de ejemplo
+-- (notas y matrículas usan secuencias: las adelanta IdGeneratorSeeder al arrancar)
+ALTER TABLE users ALTER COLUMN id RESTART WITH 100;
+ALTER TABLE teachers ALTER COLUMN id RESTART WITH 100;
+ALTER TABLE student ALTER COLUMN id RESTART WITH 100;
+ALTER TABLE modules ALTER COLUMN id RESTART WITH 100;
@@ -0,0 +1,74 @@
+package dao.bulk;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CsvReaderTest {
+
+    @Test
+    void readsExcelFileWithBomAndSemicolons() throws IOException {
+        List<CsvReader.Row> rows = read("\uFEFFUsername;Grade;Notes\nalumno1;7,5;Bien\n");
+
+        assertEquals(1, rows.size());
+        assertEquals("alumno1", rows.getFirst().get("username"));
+        assertEquals("7,5", rows.getFirst().get("grade"));
+        assertEquals("Bien", rows.getFirst().get("notes"));
+    }
+
+    @Test
+    void readsQuotedFields() throws IOException {
+        List<CsvReader.Row> rows = read("""
+                username,notes,grade
+                alumno1,"Dijo ""hola"", y se fue",5
+                alumno2,"Dos
+                líneas",6
+                alumno3,,7
+                """);
+
+        assertEquals(3, rows.size());
+        assertEquals("Dijo \"hola\", y se fue", rows.get(0).get("notes"));
+        assertEquals("Dos\nlíneas", rows.get(1).get("notes"));
+        assertEquals("6", rows.get(1).get("grade"));
+        // El campo entre comillas ocupa dos líneas: la fila siguiente empieza en la 5
+        assertEquals(5, rows.get(2).line());
+        assertNull(rows.get(2).get("notes"));
+        assertNull(rows.get(2).get("import_key"));
+    }
+
+    @Test
+    void skipsBlankLinesAndKeepsLineNumbers() throws IOException {
+        List<CsvReader.Row> rows = read("username\n\nalumno1\n   \nalumno2\n");
+
+        assertEquals(2, rows.size());
+        assertEquals(3, rows.get(0).line());
+        assertEquals(5, rows.get(1).line());
+    }
+
+    @Test
+    void rejectsUnclosedQuotes() throws IOException {
+        try (CsvReader csv = new CsvReader(new StringReader("username,notes\nalumno1,\"sin cerrar\n"))) {
+            IllegalArgumentException error = assertThrows(IllegalArgumentException.class,
+                    () -> csv.iterator().next());
+            assertTrue(error.getMessage().contains("Línea 2"), error.getMessage());
+        }
+    }
+
+    @Test
+    void rejectsEmptyFile() {
+        assertThrows(IllegalArgumentException.class, () -> new CsvReader(new StringReader("")));
+    }
+
+    private static List<CsvReader.Row> read(String content) throws IOException {
+        List<CsvReader.Row> rows = new ArrayList<>();
+        try (CsvReader csv = new CsvReader(new StringReader(content))) {
+            csv.forEach(rows::add);
+        }
+        return rows;
+    }
+}
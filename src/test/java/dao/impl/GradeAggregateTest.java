@@ -0,0 +1,230 @@
+package dao.impl;
+
+import dao.bulk.BulkImporter;
+import dao.dto.ImportReport;
+import models.Grade;
+import models.GradeAggregate;
+import models.Module;
+import models.Student;
+import models.StudentModule;
+import models.User;
+import models.UserType;
+import org.hibernate.Session;
+import org.junit.jupiter.api.Test;
+import util.HibernateUtil;
+
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Resúmenes de notas (GradeAggregate) mantenidos por los DAO, sobre la base de datos del perfil embedded.
+ * Cada prueba crea sus propios alumnos y módulos: la base de datos es la misma para todas
+ */
+class GradeAggregateTest {
+
+    static {
+        System.setProperty("app.profile", "embedded");
+    }
+
+    private static final AtomicInteger sequence = new AtomicInteger();
+
+    private final GradeDAOImp gradeDAO = new GradeDAOImp();
+    private final StudentModuleDAOImp studentModuleDAO = new StudentModuleDAOImp();
+
+    @Test
+    void newEnrollmentsHaveAnEmptyAggregate() {
+        StudentModule enrolled = enrollment();
+
+        StudentModule saved = new StudentModule(student(), module());
+        studentModuleDAO.save(saved);
+
+        List<StudentModule> savedAll = List.of(new StudentModule(student(), module()),
+                new StudentModule(student(), module()));
+        studentModuleDAO.saveAll(savedAll);
+
+        for (StudentModule enrollment : List.of(enrolled, saved, savedAll.get(0), savedAll.get(1))) {
+            GradeAggregate aggregate = storedAggregate(enrollment.getId());
+            assertNotNull(aggregate, "Sin resumen: matrícula " + enrollment.getId());
+            assertEquals(0, aggregate.getGradeCount());
+            assertNull(aggregate.getLatestGradeId());
+        }
+    }
+
+    @Test
+    void importedEnrollmentsHaveAnEmptyAggregate() {
+        Student student = student();
+        Module module = module();
+
+        ImportReport report = new BulkImporter().importEnrollments(new StringReader(
+                "username,module_name\n" + student.getUser().getUsername() + "," + module.getModuleName() + "\n"));
+
+        assertEquals(1, report.inserted(), report.errors().toString());
+        StudentModule enrollment = studentModuleDAO.findByStudentAndModule(student.getId(), module.getId());
+        GradeAggregate aggregate = storedAggregate(enrollment.getId());
+        assertNotNull(aggregate);
+        assertEquals(0, aggregate.getGradeCount());
+    }
+
+    @Test
+    void importedGradesUpdateTheAggregate() {
+        StudentModule enrollment = enrollment();
+        grade(enrollment, "6.00");
+        String username = enrollment.getStudent().getUser().getUsername();
+        String moduleName = enrollment.getModule().getModuleName();
+
+        ImportReport report = new BulkImporter().importGrades(new StringReader("username,module_name,grade\n"
+                + username + "," + moduleName + ",4.50\n" + username + "," + moduleName + ",9.00\n"), "notas.csv");
+
+        assertEquals(2, report.inserted(), report.errors().toString());
+        GradeAggregate aggregate = storedAggregate(enrollment.getId());
+        assertEquals(3, aggregate.getGradeCount());
+        assertEquals(0, new BigDecimal("19.50").compareTo(aggregate.getGradeSum()));
+        assertEquals(0, new BigDecimal("9.00").compareTo(aggregate.getLatestGrade()));
+        assertEquals(0, new BigDecimal("4.50").compareTo(aggregate.getMinGrade()));
+    }
+
+    @Test
+    void writesKeepTheAggregateUpToDate() {
+        StudentModule enrollment = enrollment();
+        Grade first = grade(enrollment, "5.00");
+        Grade second = grade(enrollment, "7.00");
+        Grade third = grade(enrollment, "7.00");
+
+        GradeAggregate aggregate = gradeDAO.findAggregate(enrollment.getId());
+        assertEquals(3, aggregate.getGradeCount());
+        assertEquals(0, new BigDecimal("19.00").compareTo(aggregate.getGradeSum()));
+        assertEquals(third.getId(), aggregate.getLatestGradeId());
+        // Empate en la máxima: cuenta la más antigua
+        assertEquals(second.getId(), aggregate.getHighestGradeId());
+        assertEquals(first.getId(), aggregate.getLowestGradeId());
+
+        first.setGrade(new BigDecimal("9.50"));
+        gradeDAO.update(first);
+        aggregate = gradeDAO.findAggregate(enrollment.getId());
+        assertEquals(first.getId(), aggregate.getHighestGradeId());
+        assertEquals(second.getId(), aggregate.getLowestGradeId());
+
+        gradeDAO.delete(third);
+        aggregate = gradeDAO.findAggregate(enrollment.getId());
+        assertEquals(2, aggregate.getGradeCount());
+        assertEquals(second.getId(), aggregate.getLatestGradeId());
+        assertEquals(0, new BigDecimal("7.00").compareTo(aggregate.getLatestGrade()));
+
+        gradeDAO.deleteById(second.getId());
+        gradeDAO.deleteById(first.getId());
+        aggregate = gradeDAO.findAggregate(enrollment.getId());
+        assertEquals(0, aggregate.getGradeCount());
+        assertNull(aggregate.getAverage());
+        assertNull(aggregate.getLatestGradeId());
+    }
+
+    @Test
+    void saveAllUpdatesEveryEnrollment() {
+        StudentModule one = enrollment();
+        StudentModule other = enrollment();
+
+        gradeDAO.saveAll(List.of(new Grade(one, new BigDecimal("4.00")), new Grade(other, new BigDecimal("6.00")),
+                new Grade(one, new BigDecimal("8.00"))));
+
+        GradeAggregate aggregate = gradeDAO.findAggregate(one.getId());
+        assertEquals(2, aggregate.getGradeCount());
+        assertEquals(0, new BigDecimal("6").compareTo(aggregate.getAverage()));
+        assertEquals(0, new BigDecimal("8.00").compareTo(aggregate.getLatestGrade()));
+        assertEquals(1, gradeDAO.findAggregate(other.getId()).getGradeCount());
+    }
+
+    @Test
+    void latestGradeIsTheMostRecentNotTheHighestId() {
+        StudentModule enrollment = enrollment();
+        Grade older = new Grade(enrollment, new BigDecimal("9.00"));
+        Grade newer = new Grade(enrollment, new BigDecimal("2.00"));
+        // Otra instancia de la aplicación puede dar a la nota más reciente un ID de un bloque anterior
+        older.setCreatedAt(newer.getCreatedAt().minusMinutes(1));
+        gradeDAO.save(newer);
+        gradeDAO.save(older);
+        assertTrue(older.getId() > newer.getId());
+
+        GradeAggregate aggregate = gradeDAO.findAggregate(enrollment.getId());
+        assertEquals(newer.getId(), aggregate.getLatestGradeId());
+        assertEquals(newer.getId(), gradeDAO.findLatestGrade(enrollment.getId()).getId());
+        assertEquals(newer.getId(), gradeDAO.findByStudentModule(enrollment.getId()).getFirst().getId());
+        assertEquals(0, newer.getGrade().compareTo(studentModuleDAO
+                .findGradebookByModule(enrollment.getModule().getId()).getFirst().lastGrade()));
+
+        gradeDAO.rebuildAggregates();
+        assertEquals(newer.getId(), gradeDAO.findAggregate(enrollment.getId()).getLatestGradeId());
+    }
+
+    @Test
+    void maintainedAggregatesMatchARebuild() {
+        StudentModule enrollment = enrollment();
+        Grade grade = grade(enrollment, "3.25");
+        grade(enrollment, "3.25");
+        gradeDAO.delete(grade);
+
+        Map<Integer, List<Object>> maintained = storedAggregates();
+        gradeDAO.rebuildAggregates();
+
+        assertEquals(maintained, storedAggregates());
+    }
+
+    // Datos de prueba
+
+    private StudentModule enrollment() {
+        Student student = student();
+        Module module = module();
+        return studentModuleDAO.enrollStudent(student.getId(), module.getId());
+    }
+
+    private Student student() {
+        int n = sequence.incrementAndGet();
+        User user = new User("resumen" + n, "hash", "Alumno", "Prueba " + n, UserType.ESTUDIANTE);
+        Student student = new Student(user, "1º DAM", "A");
+        HibernateUtil.inTransaction(() -> {
+            Session session = HibernateUtil.getCurrentSession();
+            session.persist(user);
+            session.persist(student);
+        });
+        return student;
+    }
+
+    private Module module() {
+        Module module = new Module("Módulo de prueba " + sequence.incrementAndGet(), "1º DAM", 4);
+        HibernateUtil.inTransaction(() -> HibernateUtil.getCurrentSession().persist(module));
+        return module;
+    }
+
+    private Grade grade(StudentModule enrollment, String value) {
+        Grade grade = new Grade(enrollment, new BigDecimal(value));
+        gradeDAO.save(grade);
+        return grade;
+    }
+
+    private static GradeAggregate storedAggregate(Integer enrollmentId) {
+        return HibernateUtil.withSession(session -> session.find(GradeAggregate.class, enrollmentId));
+    }
+
+    private static Map<Integer, List<Object>> storedAggregates() {
+        return HibernateUtil.withSession(session -> {
+            Map<Integer, List<Object>> aggregates = new TreeMap<>();
+            for (Object[] row : session.createNativeQuery(
+                    "SELECT id_student_module, grade_count, grade_sum, min_grade, max_grade, latest_grade_id, "
+                            + "latest_grade, latest_grade_at, highest_grade_id, lowest_grade_id FROM grade_aggregates",
+                    Object[].class).getResultList()) {
+                List<Object> values = new ArrayList<>(Arrays.asList(row).subList(1, row.length));
+                // Mismo valor con distinta escala (10.5 y 10.50) tras sumar y restar
+                values.replaceAll(value -> value instanceof BigDecimal decimal ? decimal.stripTrailingZeros() : value);
+                aggregates.put(((Number) row[0]).intValue(), values);
+            }
+            return aggregates;
+        });
+    }
+}
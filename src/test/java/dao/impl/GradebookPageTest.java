@@ -0,0 +1,104 @@
+package dao.impl;
+
+import dao.dto.GradebookEntry;
+import dao.dto.GradebookSort;
+import dao.dto.Page;
+import models.Grade;
+import models.Module;
+import models.Student;
+import models.StudentModule;
+import models.User;
+import models.UserType;
+import org.hibernate.Session;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import util.HibernateUtil;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Cuaderno de notas por páginas (findGradebookPage) sobre la base de datos del perfil embedded,
+ * con un módulo propio de la prueba
+ */
+class GradebookPageTest {
+
+    static {
+        System.setProperty("app.profile", "embedded");
+    }
+
+    private static final String[] LAST_NAMES = {"Pérez", "Perez", "García", "Zapata", "López"};
+
+    private static final StudentModuleDAOImp studentModuleDAO = new StudentModuleDAOImp();
+    private static Integer moduleId;
+
+    @BeforeAll
+    static void createModule() {
+        Module module = new Module("Módulo del cuaderno por páginas", "1º DAM", 4);
+        HibernateUtil.inTransaction(() -> HibernateUtil.getCurrentSession().persist(module));
+        moduleId = module.getId();
+
+        // Apellidos y notas repetidos (empates) y matrículas sin notas (sin media ni última nota)
+        GradeDAOImp gradeDAO = new GradeDAOImp();
+        for (int i = 0; i < 37; i++) {
+            User user = new User("cuaderno" + i, "hash", "Alumno " + i % 3, LAST_NAMES[i % LAST_NAMES.length],
+                    UserType.ESTUDIANTE);
+            Student student = new Student(user, "1º DAM", "A");
+            HibernateUtil.inTransaction(() -> {
+                Session session = HibernateUtil.getCurrentSession();
+                session.persist(user);
+                session.persist(student);
+            });
+            StudentModule enrollment = studentModuleDAO.enrollStudent(student.getId(), moduleId);
+            if (i % 4 != 0) {
+                gradeDAO.save(new Grade(enrollment, new BigDecimal(i % 7 + ".50")));
+            }
+            if (i % 6 == 1) {
+                gradeDAO.save(new Grade(enrollment, new BigDecimal("3.00")));
+            }
+        }
+    }
+
+    @Test
+    void pagesFollowTheSameOrderAsASinglePage() {
+        for (GradebookSort sort : GradebookSort.values()) {
+            for (boolean ascending : new boolean[]{true, false}) {
+                List<Integer> all = ids(studentModuleDAO.findGradebookPage(moduleId, null, sort, ascending, null, 100)
+                        .items());
+                List<Integer> paged = new ArrayList<>();
+                String token = null;
+                do {
+                    Page<GradebookEntry> page = studentModuleDAO.findGradebookPage(moduleId, null, sort, ascending,
+                            token, 4);
+                    paged.addAll(ids(page.items()));
+                    token = page.nextPageToken();
+                } while (token != null);
+
+                assertEquals(37, all.size());
+                assertEquals(all, paged, sort + (ascending ? " ascendente" : " descendente"));
+            }
+        }
+    }
+
+    @Test
+    void nameFilterIgnoresCaseAndAccents() {
+        assertEquals(16, studentModuleDAO.countGradebookByModule(moduleId, "PEREZ"));
+        assertEquals(16, studentModuleDAO.countGradebookByModule(moduleId, "pérez"));
+        assertEquals(5, studentModuleDAO.findGradebookPage(moduleId, "alumno 1 pe", GradebookSort.NAME, true,
+                null, 100).items().size());
+    }
+
+    @Test
+    void wildcardsInTheNameFilterAreText() {
+        assertEquals(0, studentModuleDAO.countGradebookByModule(moduleId, "%"));
+        assertEquals(0, studentModuleDAO.countGradebookByModule(moduleId, "_"));
+        assertEquals(0, studentModuleDAO.countGradebookByModule(moduleId, "alumno!"));
+    }
+
+    private static List<Integer> ids(List<GradebookEntry> entries) {
+        return entries.stream().map(GradebookEntry::enrollmentId).toList();
+    }
+}
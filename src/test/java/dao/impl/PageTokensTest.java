@@ -0,0 +1,48 @@
+package dao.impl;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PageTokensTest {
+
+    @Test
+    void decodesWhatItEncodes() {
+        String token = PageTokens.encode(new BigDecimal("7.50"), 42, "García.López", LocalDate.of(2025, 3, 1), 9_000_000_000L);
+
+        Object[] key = PageTokens.decode(token, BigDecimal.class, Integer.class, String.class, LocalDate.class, Long.class);
+
+        // La escala de los decimales se conserva (7.50, no 7.5)
+        assertArrayEquals(new Object[]{new BigDecimal("7.50"), 42, "García.López", LocalDate.of(2025, 3, 1), 9_000_000_000L}, key);
+    }
+
+    @Test
+    void keepsNullValues() {
+        String token = PageTokens.encode(null, "", "null", 3);
+
+        assertArrayEquals(new Object[]{null, "", "null", 3},
+                PageTokens.decode(token, BigDecimal.class, String.class, String.class, Integer.class));
+    }
+
+    @Test
+    void tokenIsUrlSafe() {
+        String token = PageTokens.encode("¿?/+= &", 1);
+
+        assertTrue(token.matches("[A-Za-z0-9_.-]+"), token);
+    }
+
+    @Test
+    void rejectsInvalidTokens() {
+        String token = PageTokens.encode(1, 2);
+
+        assertThrows(IllegalArgumentException.class, () -> PageTokens.decode(token, Integer.class));
+        assertThrows(IllegalArgumentException.class, () -> PageTokens.decode("no es un token", Integer.class));
+        assertThrows(IllegalArgumentException.class,
+                () -> PageTokens.decode(PageTokens.encode("texto"), Integer.class));
+        assertThrows(IllegalArgumentException.class,
+                () -> PageTokens.decode(PageTokens.encode("2025-13-01"), LocalDate.class));
+    }
+}
@@ -0,0 +1,191 @@
+package util;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Migraciones sobre una base de datos H2 en memoria (modo MySQL, como el perfil embedded)
+ */
+class SchemaMigratorTest {
+
+    private HikariDataSource dataSource;
+
+    @BeforeEach
+    void createDatabase() {
+        dataSource = new HikariDataSource();
+        // Una base de datos nueva en cada prueba, que se borra al cerrar el pool
+        dataSource.setJdbcUrl("jdbc:h2:mem:migrator_" + UUID.randomUUID() + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE");
+        dataSource.setUsername("sa");
+        dataSource.setPassword("");
+    }
+
+    @AfterEach
+    void closeDatabase() {
+        dataSource.close();
+    }
+
+    @Test
+    void emptyDatabaseIsCreatedAndSeeded() throws SQLException {
+        SchemaMigrator.migrate(dataSource, "embedded-data.sql");
+
+        assertEquals(List.of(1, 2, 3, 4, 5), appliedVersions());
+        assertEquals(3, queryLong("SELECT COUNT(*) FROM users"));
+        assertEquals(4, queryLong("SELECT COUNT(*) FROM grades"));
+    }
+
+    @Test
+    void baselineDatabaseIsUpgraded() throws SQLException {
+        createBaselineSchema();
+        execute("INSERT INTO grades (id, id_student_module, grade, notes) VALUES (1, 1, 7.50, 'Primera')");
+        execute("INSERT INTO grades (id, id_student_module, grade, notes) VALUES (2, 1, 4.00, 'Segunda')");
+        execute("INSERT INTO grades (id, id_student_module, grade, notes) VALUES (3, 2, 9.00, NULL)");
+
+        SchemaMigrator.migrate(dataSource, "embedded-data.sql");
+
+        assertEquals(List.of(1, 2, 3, 4, 5), appliedVersions());
+        // V1 solo se marca; los datos de ejemplo no se cargan en una base de datos que ya existía
+        assertEquals(0, queryLong("SELECT execution_ms FROM schema_version WHERE version = 1"));
+        assertEquals(1, queryLong("SELECT COUNT(*) FROM users"));
+
+        // Resúmenes calculados desde las notas que ya había, también para la matrícula sin notas
+        assertEquals(3, queryLong("SELECT COUNT(*) FROM grade_aggregates"));
+        assertEquals(2, queryLong("SELECT grade_count FROM grade_aggregates WHERE id_student_module = 1"));
+        assertEquals(2, queryLong("SELECT latest_grade_id FROM grade_aggregates WHERE id_student_module = 1"));
+        assertEquals(1, queryLong("SELECT highest_grade_id FROM grade_aggregates WHERE id_student_module = 1"));
+        assertEquals(0, new BigDecimal("4.00").compareTo(queryDecimal(
+                "SELECT latest_grade FROM grade_aggregates WHERE id_student_module = 1")));
+        assertEquals(0, queryLong("SELECT grade_count FROM grade_aggregates WHERE id_student_module = 3"));
+
+        // Columna nueva con su clave única, y la secuencia de las matrículas
+        execute("UPDATE grades SET import_key = 'a' WHERE id = 1");
+        assertThrows(SQLException.class, () -> execute("UPDATE grades SET import_key = 'a' WHERE id = 2"));
+        assertTrue(queryLong("SELECT NEXT VALUE FOR student_module_seq") > 0);
+
+        // Notas con secuencia y fecha de alta; las que había empatan en la fecha y desempata el ID
+        assertTrue(queryLong("SELECT NEXT VALUE FOR grades_seq") > 0);
+        assertEquals(0, queryLong("SELECT COUNT(*) FROM grades WHERE created_at IS NULL"));
+        assertEquals(0, queryLong("SELECT COUNT(*) FROM grade_aggregates WHERE grade_count > 0 AND latest_grade_at IS NULL"));
+    }
+
+    @Test
+    void partiallyUpdatedDatabaseIsUpgraded() throws SQLException {
+        // Una base de datos que hbm2ddl.auto=update ya había ampliado en parte
+        createBaselineSchema();
+        execute("ALTER TABLE grades ADD COLUMN import_key VARCHAR(64)");
+        execute("ALTER TABLE grades ADD CONSTRAINT UKrghvy7199bpxqb7xhe3llmgi UNIQUE (import_key)");
+        execute("CREATE SEQUENCE student_module_seq START WITH 1 INCREMENT BY 50");
+        execute("INSERT INTO grades (id, id_student_module, grade, notes) VALUES (1, 2, 6.00, NULL)");
+
+        SchemaMigrator.migrate(dataSource, null);
+
+        assertEquals(List.of(1, 2, 3, 4, 5), appliedVersions());
+        assertEquals(1, queryLong("SELECT grade_count FROM grade_aggregates WHERE id_student_module = 2"));
+    }
+
+    @Test
+    void upToDateDatabaseIsNotMigratedAgain() throws SQLException {
+        SchemaMigrator.migrate(dataSource, "embedded-data.sql");
+        SchemaMigrator.migrate(dataSource, "embedded-data.sql");
+
+        assertEquals(List.of(1, 2, 3, 4, 5), appliedVersions());
+        assertEquals(3, queryLong("SELECT COUNT(*) FROM users"));
+    }
+
+    @Test
+    void changedMigrationIsRejected() throws SQLException {
+        SchemaMigrator.migrate(dataSource, null);
+        execute("UPDATE schema_version SET checksum = 'x' WHERE version = 2");
+
+        assertThrows(IllegalStateException.class, () -> SchemaMigrator.migrate(dataSource, null));
+    }
+
+    // Esquema de la primera versión de la aplicación, con una matrícula de cada módulo y una sin notas
+
+    private void createBaselineSchema() throws SQLException {
+        for (String sql : withoutComments(readResource("/db/migration/V1__initial_schema.sql")).split(";")) {
+            if (!sql.isBlank()) {
+                execute(sql);
+            }
+        }
+        execute("INSERT INTO users (id, username, first_name, last_name, user_type) VALUES (1, 'alumno', 'Ana', 'Pérez', 'ESTUDIANTE')");
+        execute("INSERT INTO student (id, id_user, course, grade_group) VALUES (1, 1, '1º DAM', 'A')");
+        execute("INSERT INTO modules (id, module_name, course, semanal_hours) VALUES (1, 'Programación', '1º DAM', 8)");
+        execute("INSERT INTO modules (id, module_name, course, semanal_hours) VALUES (2, 'Bases de Datos', '1º DAM', 6)");
+        execute("INSERT INTO modules (id, module_name, course, semanal_hours) VALUES (3, 'Sistemas', '1º DAM', 6)");
+        execute("INSERT INTO student_module (id, id_student, id_module) VALUES (1, 1, 1)");
+        execute("INSERT INTO student_module (id, id_student, id_module) VALUES (2, 1, 2)");
+        execute("INSERT INTO student_module (id, id_student, id_module) VALUES (3, 1, 3)");
+    }
+
+    private List<Integer> appliedVersions() throws SQLException {
+        List<Integer> versions = new ArrayList<>();
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT version FROM schema_version ORDER BY version")) {
+            while (rs.next()) {
+                versions.add(rs.getInt(1));
+            }
+        }
+        return versions;
+    }
+
+    private void execute(String sql) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+
+    private long queryLong(String sql) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery(sql)) {
+            assertTrue(rs.next(), sql);
+            return rs.getLong(1);
+        }
+    }
+
+    private BigDecimal queryDecimal(String sql) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery(sql)) {
+            assertTrue(rs.next(), sql);
+            return rs.getBigDecimal(1);
+        }
+    }
+
+    private static String withoutComments(String script) {
+        StringBuilder sql = new StringBuilder();
+        for (String line : script.split("\n")) {
+            if (!line.trim().startsWith("--")) {
+                sql.append(line).append('\n');
+            }
+        }
+        return sql.toString();
+    }
+
+    private static String readResource(String resource) {
+        try (InputStream in = SchemaMigratorTest.class.getResourceAsStream(resource)) {
+            assertNotNull(in, resource);
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new RuntimeException("Error al leer " + resource + ": " + e.getMessage(), e);
+        }
+    }
+}
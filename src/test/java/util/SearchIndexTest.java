@@ -0,0 +1,68 @@
+package util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SearchIndexTest {
+
+    private record Person(int id, String name) {
+    }
+
+    private final Person garcia = new Person(1, "Pablo García Fernández");
+    private final Person nunez = new Person(2, "Lucía  NÚÑEZ");
+    private final Person garcin = new Person(3, "Garcin Martín");
+    private final SearchIndex<Person> index = SearchIndex.build(List.of(garcia, nunez, garcin), Person::name);
+
+    @Test
+    void normalizeRemovesCaseAccentsAndRepeatedSpaces() {
+        assertEquals("lucia nunez", SearchIndex.normalize("  Lucía \t NÚÑEZ "));
+        assertEquals("", SearchIndex.normalize(null));
+    }
+
+    @Test
+    void findIgnoresCaseAndAccents() {
+        assertEquals(List.of(garcia), index.find("GARCIA"));
+        assertEquals(List.of(nunez), index.find("nuñez"));
+        assertEquals(List.of(garcia, nunez), index.find("ía"));
+        assertEquals(List.of(garcia, garcin), index.find("garc"));
+    }
+
+    @Test
+    void longQueriesCheckTheWholeText() {
+        // Todos sus n-gramas están en "García Fernández", pero no seguidos
+        assertEquals(List.of(), index.find("garcia ferz"));
+        assertEquals(List.of(garcia), index.find("garcia fern"));
+        assertEquals(List.of(nunez), index.find("lucia nunez"));
+    }
+
+    @Test
+    void emptyQueryMatchesEverything() {
+        assertEquals(List.of(garcia, nunez, garcin), index.find(" "));
+        assertTrue(index.matcher(null).test(nunez));
+    }
+
+    @Test
+    void matcherOnlyAcceptsIndexedInstances() {
+        Predicate<Person> matcher = index.matcher("martin");
+
+        assertTrue(matcher.test(garcin));
+        assertFalse(matcher.test(garcia));
+        assertFalse(matcher.test(new Person(3, "Garcin Martín")));
+    }
+
+    @Test
+    void replaceUpdatesTheIndexedText() {
+        Person renamed = new Person(2, "Lucía Gómez");
+
+        assertTrue(index.replace(nunez, renamed));
+
+        assertEquals(List.of(), index.find("nunez"));
+        assertEquals(List.of(renamed), index.find("gomez"));
+        assertFalse(index.replace(nunez, renamed));
+        assertEquals(3, index.size());
+    }
+}